@@ -0,0 +1,110 @@
+package ru.itmo.calculator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Compares two JMH JSON result files ({@code -rf json}) benchmark by benchmark: primary score and, when the run used
+ * {@code -prof gc}, normalized allocation per operation.
+ *
+ * <p>Usage: {@code JmhResultDiff <baseline.json> <current.json>}. A missing baseline fails the run, so that a
+ * mistyped path does not pass for a comparison; with {@code -Djmh.baseline.update=true} the current result replaces
+ * the baseline instead of being compared with it.
+ */
+public final class JmhResultDiff {
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final String UPDATE_PROPERTY = "jmh.baseline.update";
+
+    private JmhResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: JmhResultDiff <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path currentPath = Path.of(args[1]);
+        if (Boolean.getBoolean(UPDATE_PROPERTY)) {
+            Files.createDirectories(baselinePath.toAbsolutePath().getParent());
+            Files.copy(currentPath, baselinePath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.printf("JMH baseline %s updated from %s%n", baselinePath, currentPath);
+            return;
+        }
+        if (!Files.exists(baselinePath)) {
+            System.err.printf("No JMH baseline at %s; record one with -D%s=true or point -Djmh.baseline at it%n",
+                    baselinePath, UPDATE_PROPERTY);
+            System.exit(1);
+        }
+
+        Map<String, Result> baseline = read(baselinePath);
+        Map<String, Result> current = read(currentPath);
+        System.out.printf("%-90s %14s %14s %8s %12s %12s%n",
+                "Benchmark", "Baseline", "Current", "Change", "B/op before", "B/op after");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result after = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            System.out.printf("%-90s %14s %14.3f %8s %12s %12s%n",
+                    entry.getKey(),
+                    before == null ? "-" : "%.3f".formatted(before.score()),
+                    after.score(),
+                    before == null ? "new" : "%+.1f%%".formatted(change(before.score(), after.score())),
+                    before == null ? "-" : allocation(before),
+                    allocation(after));
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-90s removed%n", key));
+    }
+
+    private static Map<String, Result> read(Path path) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(path.toFile())) {
+            results.put(key(run), new Result(
+                    run.path("primaryMetric").path("score").asDouble(),
+                    allocationScore(run.path("secondaryMetrics"))));
+        }
+        return results;
+    }
+
+    private static String key(JsonNode run) {
+        StringJoiner key = new StringJoiner(",", run.path("benchmark").asText() + " [", "]")
+                .setEmptyValue(run.path("benchmark").asText());
+        for (Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields(); params.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = params.next();
+            key.add(param.getKey() + "=" + param.getValue().asText());
+        }
+        return key + " " + run.path("mode").asText();
+    }
+
+    private static double allocationScore(JsonNode secondaryMetrics) {
+        // JMH prefixes profiler metrics with a middle dot in some versions
+        for (Iterator<Map.Entry<String, JsonNode>> metrics = secondaryMetrics.fields(); metrics.hasNext(); ) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+
+    private static String allocation(Result result) {
+        return Double.isNaN(result.bytesPerOperation()) ? "-" : "%.0f".formatted(result.bytesPerOperation());
+    }
+
+    private record Result(double score, double bytesPerOperation) {
+    }
+}
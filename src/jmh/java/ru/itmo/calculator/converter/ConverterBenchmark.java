@@ -0,0 +1,97 @@
+package ru.itmo.calculator.converter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.InstructionSink;
+import ru.itmo.calculator.generated.grpc.ExecuteColumnarRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
+import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
+import ru.itmo.calculator.workload.ProgramRequests;
+import ru.itmo.calculator.workload.ProgramShape;
+
+/**
+ * Throughput of the transport converters on already decoded requests: the OpenAPI model and both gRPC encodings
+ * into domain instructions, and the domain program into the columnar encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+
+    @Param({"CHAIN", "FAN_OUT", "DIAMONDS", "RANDOM_DAG", "PRINT_HEAVY"})
+    public ProgramShape shape;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int instructions;
+
+    private final CalculatorApiConverter apiConverter = new CalculatorApiConverter();
+    private final GrpcInstructionConverter grpcConverter = new GrpcInstructionConverter();
+    private List<Instruction> program;
+    private ExecuteProgramRequestDto apiRequest;
+    private ExecuteProgramRequest messageRequest;
+    private ExecuteColumnarRequest columnarRequest;
+
+    @Setup
+    public void generate() {
+        program = shape.generate(instructions);
+        apiRequest = ProgramRequests.toApiRequest(program);
+        messageRequest = ProgramRequests.toMessageRequest(program);
+        columnarRequest = grpcConverter.toColumnarRequest(program);
+    }
+
+    @Benchmark
+    public List<Instruction> apiToDomain() {
+        return apiConverter.toDomainInstructions(apiRequest);
+    }
+
+    @Benchmark
+    public List<Instruction> grpcMessagesToDomain() {
+        return grpcConverter.toDomainInstructions(messageRequest);
+    }
+
+    @Benchmark
+    public void grpcColumnarToSink(Blackhole blackhole) {
+        grpcConverter.readColumnarProgram(columnarRequest, new BlackholeSink(blackhole));
+    }
+
+    @Benchmark
+    public ExecuteColumnarRequest domainToGrpcColumnar() {
+        return grpcConverter.toColumnarRequest(program);
+    }
+
+    private record BlackholeSink(Blackhole blackhole) implements InstructionSink {
+
+        @Override
+        public void calc(
+                String var, ArithmeticOp op, String leftName, long leftValue, String rightName, long rightValue) {
+            blackhole.consume(var);
+            blackhole.consume(op);
+            blackhole.consume(leftName);
+            blackhole.consume(leftValue);
+            blackhole.consume(rightName);
+            blackhole.consume(rightValue);
+        }
+
+        @Override
+        public void print(String var) {
+            blackhole.consume(var);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.itmo.calculator.execution;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.workload.ProgramShape;
+
+/**
+ * Throughput of the engine stages over generated program shapes: interning ({@link ParsedProgram#parse}), plan
+ * compilation with its passes and topological sort ({@link ExecutionPlanCompiler#compileTemplate}), and a whole
+ * {@code execute} with zero operation delay, where the scheduler and the executor are all that is left to measure.
+ *
+ * <p>{@code execute} runs without the plan and result caches, so every invocation parses, compiles and runs every
+ * operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionEngineBenchmark {
+
+    @Param({"CHAIN", "FAN_OUT", "DIAMONDS", "RANDOM_DAG", "PRINT_HEAVY"})
+    public ProgramShape shape;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int instructions;
+
+    private final ExecutionPlanCompiler compiler = new ExecutionPlanCompiler();
+    private final InstructionExecutionService service = InstructionExecutionService.builder(ForkJoinPool.commonPool())
+            .planCache(new ExecutionPlanCache(0, 0))
+            .build();
+    private List<Instruction> program;
+    private ParsedProgram parsed;
+
+    @Setup
+    public void generate() {
+        program = shape.generate(instructions);
+        parsed = ParsedProgram.parse(program);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        blackhole.consume(ParsedProgram.parse(program));
+    }
+
+    @Benchmark
+    public void compile(Blackhole blackhole) {
+        blackhole.consume(compiler.compileTemplate(parsed));
+    }
+
+    @Benchmark
+    public List<PrintResult> execute() {
+        return service.execute(program);
+    }
+}
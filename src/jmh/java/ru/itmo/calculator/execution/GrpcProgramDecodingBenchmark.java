@@ -0,0 +1,96 @@
+package ru.itmo.calculator.execution;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.itmo.calculator.converter.GrpcInstructionConverter;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.generated.grpc.ExecuteColumnarRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
+import ru.itmo.calculator.workload.ProgramRequests;
+
+/**
+ * Decoding cost of the same program sent as {@link ExecuteProgramRequest} and as {@link ExecuteColumnarRequest}:
+ * from the serialized bytes to the interned form the plan cache starts from. Run with {@code -prof gc} to compare
+ * allocation per decoded program; wire sizes are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GrpcProgramDecodingBenchmark {
+
+    private static final int PRINT_EVERY = 100;
+
+    @Param({"10000", "1000000"})
+    public int instructions;
+
+    private final GrpcInstructionConverter converter = new GrpcInstructionConverter();
+    private byte[] messageBytes;
+    private byte[] columnarBytes;
+
+    @Setup
+    public void encode() {
+        List<Instruction> program = program(instructions);
+        messageBytes = ProgramRequests.toMessageRequest(program).toByteArray();
+        columnarBytes = converter.toColumnarRequest(program).toByteArray();
+        System.out.printf("%nWire size for %d instructions: messages %d bytes, columnar %d bytes%n",
+                instructions, messageBytes.length, columnarBytes.length);
+    }
+
+    @Benchmark
+    public ParsedProgram decodeMessages() throws InvalidProtocolBufferException {
+        ExecuteProgramRequest request = ExecuteProgramRequest.parseFrom(messageBytes);
+        return ParsedProgram.parse(converter.toDomainInstructions(request));
+    }
+
+    @Benchmark
+    public ParsedProgram decodeColumnar() throws InvalidProtocolBufferException {
+        ExecuteColumnarRequest request = ExecuteColumnarRequest.parseFrom(columnarBytes);
+        ParsedProgram.Builder program = new ParsedProgram.Builder(request.getOpcodesCount());
+        converter.readColumnarProgram(request, program);
+        return program.build();
+    }
+
+    /**
+     * Chains of additions and multiplications over the previous variables and mixed-sign literals, with a print of
+     * every hundredth variable.
+     */
+    private static List<Instruction> program(int size) {
+        List<Instruction> program = new ArrayList<>(size);
+        int variables = 0;
+        while (program.size() < size) {
+            String var = "var_" + variables;
+            Operand left = variables == 0 ? new LiteralOperand(1) : new VariableOperand("var_" + (variables - 1));
+            Operand right = variables % 3 == 0
+                    ? new VariableOperand("var_" + (variables / 2))
+                    : new LiteralOperand(variables % 2 == 0 ? variables : -variables);
+            ArithmeticOp op = variables % 5 == 0 ? ArithmeticOp.MULTIPLY : ArithmeticOp.ADD;
+            program.add(new CalcInstruction(var, op, left, right));
+            if (++variables % PRINT_EVERY == 0 && program.size() < size) {
+                program.add(new PrintInstruction(var));
+            }
+        }
+        return program;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.itmo.calculator.loadtest;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import ru.itmo.calculator.generated.grpc.ExecuteProgramResponse;
+import ru.itmo.calculator.generated.grpc.InstructionExecutorGrpc;
+
+/**
+ * Unary {@code InstructionExecutor/Execute} over a plaintext channel.
+ */
+final class GrpcTransport implements Transport {
+
+    static final String NAME = "grpc";
+
+    private static final Metadata.Key<String> CLIENT_ID =
+            Metadata.Key.of("x-client-id", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final ManagedChannel channel;
+    private final InstructionExecutorGrpc.InstructionExecutorStub stub;
+    private final Duration timeout;
+
+    GrpcTransport(String target, Duration timeout) {
+        Metadata headers = new Metadata();
+        headers.put(CLIENT_ID, LoadTest.CLIENT_ID);
+        this.channel = Grpc.newChannelBuilder(target, InsecureChannelCredentials.create()).build();
+        this.stub = InstructionExecutorGrpc.newStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<Outcome> execute(ProgramCorpus.Program program) {
+        CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+        stub.withDeadlineAfter(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(program.grpcRequest(), new StreamObserver<>() {
+                    @Override
+                    public void onNext(ExecuteProgramResponse response) {
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        outcome.complete(Status.fromThrowable(error).getCode() == Status.Code.RESOURCE_EXHAUSTED
+                                ? Outcome.REJECTED
+                                : Outcome.FAILED);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        outcome.complete(Outcome.SUCCEEDED);
+                    }
+                });
+        return outcome;
+    }
+
+    @Override
+    public void close() {
+        channel.shutdown();
+        try {
+            if (!channel.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                channel.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            channel.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.itmo.calculator.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@code POST /api/v1/executions} over {@link HttpClient}.
+ */
+final class HttpTransport implements Transport {
+
+    static final String NAME = "http";
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final Duration timeout;
+
+    HttpTransport(URI baseUri, Duration timeout) {
+        // HTTP/2 would be negotiated through an h2c upgrade, which Tomcat refuses for bodies over maxSavePostSize
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.endpoint = baseUri.resolve("/api/v1/executions");
+        this.timeout = timeout;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<Outcome> execute(ProgramCorpus.Program program) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .header("X-Client-Id", LoadTest.CLIENT_ID)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(program.json()))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        return Outcome.FAILED;
+                    }
+                    return switch (response.statusCode()) {
+                        case 200 -> Outcome.SUCCEEDED;
+                        case 429 -> Outcome.REJECTED;
+                        default -> Outcome.FAILED;
+                    };
+                });
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
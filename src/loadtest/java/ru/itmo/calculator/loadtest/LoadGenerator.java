@@ -0,0 +1,156 @@
+package ru.itmo.calculator.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Drives one transport for a warmup plus a measured window.
+ *
+ * <p>The open loop schedules sends at fixed intervals without waiting for responses and measures latency from the
+ * time a request was supposed to be sent, so a stall in the application or the generator shows up in every request
+ * it delayed instead of hiding in a single slow sample (coordinated omission). The closed loop waits for each
+ * response before sending the next; when paced, it records every response with the expected interval so that
+ * HdrHistogram back-fills the samples a stall kept from being sent. An unpaced closed loop has no schedule to fall
+ * behind and records raw latency.
+ */
+final class LoadGenerator {
+
+    private final ProgramCorpus corpus;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration timeout;
+
+    LoadGenerator(ProgramCorpus corpus, Duration warmup, Duration duration, Duration timeout) {
+        this.corpus = corpus;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.timeout = timeout;
+    }
+
+    LoadRun openLoop(Transport transport, int rate) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        Recording recording = new Recording(start + warmup.toNanos());
+        long end = recording.measureFrom + duration.toNanos();
+        Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+
+        for (long sequence = 0; ; sequence++) {
+            long intended = start + sequence * interval;
+            if (intended >= end) {
+                break;
+            }
+            awaitNanoTime(intended);
+            recording.sent(intended);
+            CompletableFuture<?> response = transport.execute(corpus.get(sequence))
+                    .thenAccept(outcome -> recording.record(intended, intended, outcome, 0));
+            inFlight.add(response);
+            response.whenComplete((ignored, error) -> inFlight.remove(response));
+        }
+        drain(inFlight);
+        return recording.toRun(transport.name(), rate, duration);
+    }
+
+    LoadRun closedLoop(Transport transport, int concurrency, int rate) throws InterruptedException {
+        long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(concurrency) / rate : 0;
+        long start = System.nanoTime();
+        Recording recording = new Recording(start + warmup.toNanos());
+        long end = recording.measureFrom + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            // spread paced workers over the interval instead of sending in bursts of `concurrency`
+            long workerStart = start + (interval * i) / concurrency;
+            workers.add(Thread.ofPlatform().name("load-" + transport.name() + "-" + i).start(() -> {
+                for (long round = 0; ; round++) {
+                    long intended = interval > 0 ? workerStart + round * interval : System.nanoTime();
+                    if (intended >= end) {
+                        return;
+                    }
+                    awaitNanoTime(intended);
+                    long sent = System.nanoTime();
+                    recording.sent(intended);
+                    Transport.Outcome outcome = transport.execute(corpus.get(sequence.getAndIncrement())).join();
+                    recording.record(intended, sent, outcome, interval);
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return recording.toRun(transport.name(), rate, duration);
+    }
+
+    private void drain(Set<CompletableFuture<?>> inFlight) throws InterruptedException {
+        try {
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                    .get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // every request is bounded by the transport timeout; whatever is still pending is lost
+        }
+    }
+
+    private static void awaitNanoTime(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Counts and latencies of the requests whose intended send time falls after the warmup.
+     */
+    private static final class Recording {
+        private final long measureFrom;
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private Recording(long measureFrom) {
+            this.measureFrom = measureFrom;
+        }
+
+        void sent(long intended) {
+            if (intended >= measureFrom) {
+                sent.increment();
+            }
+        }
+
+        void record(long intended, long latencyFrom, Transport.Outcome outcome, long expectedInterval) {
+            if (intended < measureFrom) {
+                return;
+            }
+            long latency = System.nanoTime() - latencyFrom;
+            switch (outcome) {
+                case SUCCEEDED -> {
+                    succeeded.increment();
+                    if (expectedInterval > 0) {
+                        latencies.recordValueWithExpectedInterval(latency, expectedInterval);
+                    } else {
+                        latencies.recordValue(latency);
+                    }
+                }
+                case REJECTED -> rejected.increment();
+                case FAILED -> failed.increment();
+            }
+        }
+
+        LoadRun toRun(String transport, int rate, Duration duration) {
+            return new LoadRun(transport, rate, duration, sent.sum(), succeeded.sum(), rejected.sum(), failed.sum(),
+                    latencies.copy());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.itmo.calculator.loadtest;
+
+import java.time.Duration;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Measured part of one load run against one transport.
+ *
+ * @param latencies nanoseconds from the intended send time to the last byte of successful responses
+ * @param rate      offered requests per second; {@code 0} for an unpaced closed loop
+ */
+record LoadRun(
+        String transport,
+        int rate,
+        Duration duration,
+        long sent,
+        long succeeded,
+        long rejected,
+        long failed,
+        Histogram latencies) {
+
+    /** Successful responses per second. */
+    double throughput() {
+        return succeeded / (duration.toNanos() / 1e9);
+    }
+
+    /**
+     * Whether the application kept up with the offered rate: everything succeeded, throughput stayed within 5% of
+     * the rate and p99 stayed under the SLO, if any.
+     */
+    boolean sustained(Duration sloP99) {
+        return rate > 0
+                && rejected == 0
+                && failed == 0
+                && throughput() >= rate * 0.95
+                && (sloP99 == null || latencies.getValueAtPercentile(99) <= sloP99.toNanos());
+    }
+}
@@ -0,0 +1,70 @@
+package ru.itmo.calculator.loadtest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.itmo.calculator.CalculatorApplication;
+
+/**
+ * Load test of {@code POST /api/v1/executions} and {@code InstructionExecutor/Execute}: starts the application
+ * in-process on a random port unless {@code --target} points at a running instance, loads each transport in turn
+ * with the same program corpus and writes a report comparing them. See {@link LoadTestOptions} for the options.
+ */
+public final class LoadTest {
+
+    /** Sent as {@code X-Client-Id} / {@code x-client-id}, so the load shows up as one client in admission control. */
+    static final String CLIENT_ID = "load-test";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext application = options.target() == null ? start(options) : null;
+        try {
+            URI target = options.target() != null ? options.target() : URI.create("http://localhost:"
+                    + ((WebServerApplicationContext) application).getWebServer().getPort());
+            String grpcTarget = options.grpcTarget() != null
+                    ? options.grpcTarget()
+                    : target.getHost() + ":" + (target.getPort() > 0 ? target.getPort() : 80);
+
+            ProgramCorpus corpus = new ProgramCorpus(options.shapes(), options.instructions());
+            LoadGenerator generator =
+                    new LoadGenerator(corpus, options.warmup(), options.duration(), options.timeout());
+            List<LoadRun> runs = new ArrayList<>();
+            for (String name : options.transports()) {
+                try (Transport transport = name.equals(HttpTransport.NAME)
+                        ? new HttpTransport(target, options.timeout())
+                        : new GrpcTransport(grpcTarget, options.timeout())) {
+                    for (int rate : options.rates()) {
+                        System.out.printf("Loading %s (%s loop, rate %s) for %s after %s warmup%n", name,
+                                options.mode().name().toLowerCase(Locale.ROOT), rate == 0 ? "unpaced" : rate + "/s",
+                                options.duration(), options.warmup());
+                        runs.add(options.mode() == LoadTestOptions.LoadMode.OPEN
+                                ? generator.openLoop(transport, rate)
+                                : generator.closedLoop(transport, options.concurrency(), rate));
+                    }
+                }
+            }
+
+            LoadTestReport report = new LoadTestReport(options, target.toString(), runs);
+            report.write();
+            report.print(System.out);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--server.port=0");
+        arguments.addAll(options.appArguments());
+        return SpringApplication.run(CalculatorApplication.class, arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,128 @@
+package ru.itmo.calculator.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.boot.convert.DurationStyle;
+import ru.itmo.calculator.workload.ProgramShape;
+
+/**
+ * Command line of the load test, {@code --name=value} pairs. Options starting with {@code --app.} are passed to the
+ * in-process application without the prefix, e.g. {@code --app.calculator.execution.operation-delay=0ms}.
+ *
+ * @param target         base URL of a running instance, or {@code null} to start the application in-process
+ * @param grpcTarget     {@code host:port} for gRPC; defaults to the host and port of the HTTP target
+ * @param transports     transports to load one after another
+ * @param mode           open loop sends at a fixed arrival rate, closed loop keeps {@code concurrency} requests busy
+ * @param rates          arrival rates in requests per second; several rates make an open-loop sweep, a rate in
+ *                       closed loop paces each worker at {@code rate / concurrency}
+ * @param concurrency    closed-loop workers
+ * @param warmup         load before measuring; its latencies are discarded
+ * @param duration       measured load per transport and rate
+ * @param timeout        per-request timeout
+ * @param shapes         program shapes of the corpus, sent round-robin
+ * @param instructions   instructions per program
+ * @param sloP99         p99 a rate must stay under to count as sustainable, or {@code null} for no latency bound
+ * @param report         JSON report path; {@code .hgrm} percentile distributions are written next to it
+ * @param appArguments   arguments for the in-process application
+ */
+record LoadTestOptions(
+        URI target,
+        String grpcTarget,
+        List<String> transports,
+        LoadMode mode,
+        List<Integer> rates,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Duration timeout,
+        List<ProgramShape> shapes,
+        int instructions,
+        Duration sloP99,
+        Path report,
+        List<String> appArguments) {
+
+    enum LoadMode {
+        OPEN,
+        CLOSED
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        URI target = null;
+        String grpcTarget = null;
+        List<String> transports = List.of(HttpTransport.NAME, GrpcTransport.NAME);
+        LoadMode mode = LoadMode.OPEN;
+        List<Integer> rates = null;
+        int concurrency = 16;
+        Duration warmup = Duration.ofSeconds(5);
+        Duration duration = Duration.ofSeconds(30);
+        Duration timeout = Duration.ofSeconds(30);
+        List<ProgramShape> shapes = List.of(ProgramShape.values());
+        int instructions = 100;
+        Duration sloP99 = null;
+        Path report = Path.of("target", "loadtest-report.json");
+        List<String> appArguments = new ArrayList<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            if (name.startsWith("app.")) {
+                appArguments.add("--" + name.substring("app.".length()) + "=" + value);
+                continue;
+            }
+            switch (name) {
+                case "target" -> target = "in-process".equals(value) ? null : URI.create(value);
+                case "grpc-target" -> grpcTarget = value;
+                case "transports" -> transports = list(value);
+                case "mode" -> mode = LoadMode.valueOf(value.toUpperCase(Locale.ROOT));
+                case "rate", "rates" -> rates = list(value).stream().map(Integer::parseInt).toList();
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "timeout" -> timeout = DurationStyle.detectAndParse(value);
+                case "shapes" -> shapes = list(value).stream()
+                        .map(shape -> ProgramShape.valueOf(shape.toUpperCase(Locale.ROOT).replace('-', '_')))
+                        .toList();
+                case "instructions" -> instructions = Integer.parseInt(value);
+                case "slo-p99" -> sloP99 = DurationStyle.detectAndParse(value);
+                case "report" -> report = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+
+        if (rates == null) {
+            rates = List.of(mode == LoadMode.OPEN ? 100 : 0);
+        }
+        if (transports.isEmpty() || shapes.isEmpty() || rates.isEmpty()) {
+            throw new IllegalArgumentException("Transports, shapes and rates must not be empty");
+        }
+        for (String transport : transports) {
+            if (!transport.equals(HttpTransport.NAME) && !transport.equals(GrpcTransport.NAME)) {
+                throw new IllegalArgumentException("Unknown transport: " + transport);
+            }
+        }
+        if (rates.stream().anyMatch(rate -> rate < 0) || mode == LoadMode.OPEN && rates.contains(0)) {
+            throw new IllegalArgumentException("Open loop needs positive rates; closed loop accepts 0 for no pacing");
+        }
+        if (mode == LoadMode.CLOSED && rates.size() > 1) {
+            throw new IllegalArgumentException("A rate sweep needs --mode=open");
+        }
+        if (concurrency < 1 || instructions < 1) {
+            throw new IllegalArgumentException("Concurrency and instructions must be positive");
+        }
+        return new LoadTestOptions(target, grpcTarget, transports, mode, rates, concurrency, warmup, duration,
+                timeout, shapes, instructions, sloP99, report, List.copyOf(appArguments));
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+}
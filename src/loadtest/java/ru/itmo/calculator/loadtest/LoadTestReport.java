@@ -0,0 +1,146 @@
+package ru.itmo.calculator.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Writes the runs as a JSON report with a transport comparison per rate, plus one HdrHistogram percentile
+ * distribution ({@code .hgrm}) per run for plotting, and prints a summary table.
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final LoadTestOptions options;
+    private final String target;
+    private final List<LoadRun> runs;
+
+    LoadTestReport(LoadTestOptions options, String target, List<LoadRun> runs) {
+        this.options = options;
+        this.target = target;
+        this.runs = runs;
+    }
+
+    void write() throws IOException {
+        Path report = options.report().toAbsolutePath();
+        Files.createDirectories(report.getParent());
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        root.put("target", target);
+        root.put("mode", options.mode().name().toLowerCase(Locale.ROOT));
+        root.put("concurrency", options.concurrency());
+        root.put("warmup", options.warmup().toString());
+        root.put("duration", options.duration().toString());
+        root.put("instructions", options.instructions());
+        ArrayNode shapes = root.putArray("shapes");
+        options.shapes().forEach(shape -> shapes.add(shape.name()));
+        if (options.sloP99() != null) {
+            root.put("sloP99Ms", options.sloP99().toNanos() / NANOS_PER_MILLI);
+        }
+
+        ArrayNode runNodes = root.putArray("runs");
+        for (LoadRun run : runs) {
+            Path distribution =
+                    report.resolveSibling(baseName(report) + "-" + run.transport() + "-" + run.rate() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(distribution))) {
+                run.latencies().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+            ObjectNode node = runNodes.addObject();
+            node.put("transport", run.transport());
+            node.put("rate", run.rate());
+            node.put("sent", run.sent());
+            node.put("succeeded", run.succeeded());
+            node.put("rejected", run.rejected());
+            node.put("failed", run.failed());
+            node.put("throughput", run.throughput());
+            node.put("sustained", run.sustained(options.sloP99()));
+            latency(node.putObject("latencyMs"), run.latencies());
+            node.put("distribution", distribution.getFileName().toString());
+        }
+
+        ObjectNode sustainable = root.putObject("maxSustainableRate");
+        for (String transport : options.transports()) {
+            maxSustainableRate(transport).ifPresentOrElse(
+                    rate -> sustainable.put(transport, rate), () -> sustainable.putNull(transport));
+        }
+
+        ArrayNode comparison = root.putArray("comparison");
+        for (int rate : options.rates()) {
+            Optional<LoadRun> http = find(HttpTransport.NAME, rate);
+            Optional<LoadRun> grpc = find(GrpcTransport.NAME, rate);
+            if (http.isEmpty() || grpc.isEmpty()) {
+                continue;
+            }
+            ObjectNode node = comparison.addObject();
+            node.put("rate", rate);
+            node.put("grpcToHttpThroughput", grpc.get().throughput() / http.get().throughput());
+            for (double percentile : PERCENTILES) {
+                node.put("grpcToHttp" + label(percentile),
+                        millis(grpc.get().latencies(), percentile) / millis(http.get().latencies(), percentile));
+            }
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), root);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%n%-6s %8s %10s %10s %9s %8s %10s %10s %10s %10s %10s%n", "", "rate", "sent", "ok/s",
+                "rejected", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (LoadRun run : runs) {
+            Histogram latencies = run.latencies();
+            out.printf("%-6s %8s %10d %10.1f %9d %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n",
+                    run.transport(), run.rate() == 0 ? "-" : run.rate(), run.sent(), run.throughput(),
+                    run.rejected(), run.failed(),
+                    millis(latencies, 50), millis(latencies, 90), millis(latencies, 99), millis(latencies, 99.9),
+                    latencies.getMaxValue() / NANOS_PER_MILLI);
+        }
+        for (String transport : options.transports()) {
+            maxSustainableRate(transport).ifPresent(rate ->
+                    out.printf("Max sustainable rate over %s: %d req/s%n", transport, rate));
+        }
+        out.printf("Report: %s%n", options.report().toAbsolutePath());
+    }
+
+    private Optional<Integer> maxSustainableRate(String transport) {
+        return runs.stream()
+                .filter(run -> run.transport().equals(transport) && run.sustained(options.sloP99()))
+                .map(LoadRun::rate)
+                .max(Integer::compare);
+    }
+
+    private Optional<LoadRun> find(String transport, int rate) {
+        return runs.stream().filter(run -> run.transport().equals(transport) && run.rate() == rate).findFirst();
+    }
+
+    private static void latency(ObjectNode node, Histogram latencies) {
+        for (double percentile : PERCENTILES) {
+            node.put(label(percentile), millis(latencies, percentile));
+        }
+        node.put("max", latencies.getMaxValue() / NANOS_PER_MILLI);
+        node.put("mean", latencies.getMean() / NANOS_PER_MILLI);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    private static String label(double percentile) {
+        return "p" + (percentile == Math.rint(percentile) ? Integer.toString((int) percentile)
+                : Double.toString(percentile).replace(".", ""));
+    }
+
+    private static String baseName(Path report) {
+        String name = report.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+}
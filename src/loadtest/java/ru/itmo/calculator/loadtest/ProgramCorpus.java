@@ -0,0 +1,35 @@
+package ru.itmo.calculator.loadtest;
+
+import java.util.List;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
+import ru.itmo.calculator.workload.ProgramRequests;
+import ru.itmo.calculator.workload.ProgramShape;
+
+/**
+ * Programs sent by the load test, encoded for every transport up front so request building stays out of the
+ * measured latency.
+ */
+final class ProgramCorpus {
+
+    private final List<Program> programs;
+
+    ProgramCorpus(List<ProgramShape> shapes, int instructions) {
+        this.programs = shapes.stream().map(shape -> Program.of(shape, instructions)).toList();
+    }
+
+    /**
+     * Returns the programs round-robin, so every shape gets the same share of the load.
+     */
+    Program get(long sequence) {
+        return programs.get((int) (sequence % programs.size()));
+    }
+
+    record Program(ProgramShape shape, byte[] json, ExecuteProgramRequest grpcRequest) {
+
+        static Program of(ProgramShape shape, int instructions) {
+            List<Instruction> program = shape.generate(instructions);
+            return new Program(shape, ProgramRequests.toJson(program), ProgramRequests.toMessageRequest(program));
+        }
+    }
+}
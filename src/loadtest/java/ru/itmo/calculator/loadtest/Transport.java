@@ -0,0 +1,26 @@
+package ru.itmo.calculator.loadtest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends one program to the application and completes when the whole response has arrived. The future never fails:
+ * every way a request can end is an {@link Outcome}.
+ */
+interface Transport extends AutoCloseable {
+
+    String name();
+
+    CompletableFuture<Outcome> execute(ProgramCorpus.Program program);
+
+    @Override
+    void close();
+
+    enum Outcome {
+        /** The response carried the program's prints. */
+        SUCCEEDED,
+        /** Admission control turned the program away: HTTP 429 or gRPC {@code RESOURCE_EXHAUSTED}. */
+        REJECTED,
+        /** Any other error, including timeouts. */
+        FAILED
+    }
+}
@@ -0,0 +1,23 @@
+package ru.itmo.calculator.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Budgets of operations in flight that a program must fit into before it is scheduled.
+ *
+ * @param maxInFlightOperations operations of all running programs together; {@code 0} disables the limit
+ * @param maxClientInFlightOperations operations of the running programs of a single client; {@code 0} disables the
+ *     limit
+ * @param maxCriticalPath longest chain of dependent operations a program may have while other programs are in flight;
+ *     {@code 0} disables the limit
+ * @param retryAfter delay suggested to a rejected client before it retries
+ */
+@ConfigurationProperties(prefix = "calculator.admission")
+public record AdmissionProperties(
+        @DefaultValue("0") long maxInFlightOperations,
+        @DefaultValue("0") long maxClientInFlightOperations,
+        @DefaultValue("0") int maxCriticalPath,
+        @DefaultValue("1s") Duration retryAfter) {
+}
@@ -0,0 +1,24 @@
+package ru.itmo.calculator.config;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import ru.itmo.calculator.dto.ArithmeticOp;
+
+/**
+ * Settings of the instruction execution engine.
+ *
+ * @param operationDelay simulated duration of a single arithmetic operation
+ * @param operationCosts durations of the operations that differ from {@code operationDelay}
+ * @param maxWorkers upper bound on concurrently running operations; {@code 0} starts a thread per ready operation
+ * @param lazyShortCircuit complete a multiplication as soon as either input is zero and cancel the other input's
+ *     subtree when nothing else needs it
+ */
+@ConfigurationProperties(prefix = "calculator.execution")
+public record ExecutionProperties(
+        @DefaultValue("50ms") Duration operationDelay,
+        @DefaultValue Map<ArithmeticOp, Duration> operationCosts,
+        @DefaultValue("0") int maxWorkers,
+        @DefaultValue("true") boolean lazyShortCircuit) {
+}
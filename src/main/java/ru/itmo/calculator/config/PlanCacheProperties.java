@@ -0,0 +1,16 @@
+package ru.itmo.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bounds of the compiled plan cache.
+ *
+ * @param maxEntries maximum number of cached program structures; {@code 0} disables the cache
+ * @param maxWeight maximum total weight of cached plans, counted as plan nodes plus program key length
+ */
+@ConfigurationProperties(prefix = "calculator.plan-cache")
+public record PlanCacheProperties(
+        @DefaultValue("1000") int maxEntries,
+        @DefaultValue("1000000") long maxWeight) {
+}
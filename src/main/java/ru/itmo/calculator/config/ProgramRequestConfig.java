@@ -0,0 +1,25 @@
+package ru.itmo.calculator.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ProgramRequestConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public ProgramRequestConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Program bodies skip the generated DTO graph; the converter goes first so that Jackson never binds them.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.addFirst(new ProgramRequestConverter(objectMapper.getFactory()));
+    }
+}
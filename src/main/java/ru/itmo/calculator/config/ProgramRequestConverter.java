@@ -0,0 +1,60 @@
+package ru.itmo.calculator.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import ru.itmo.calculator.execution.CompactBatchRequest;
+import ru.itmo.calculator.execution.CompactProgramRequest;
+
+/**
+ * Reads JSON program and batch bodies straight into the engine's interned form. The reader enforces the schema and
+ * throws {@link ru.itmo.calculator.exception.RequestValidationException} itself, so these bodies are neither bound
+ * to the generated DTOs nor bean-validated.
+ */
+class ProgramRequestConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Reads with {@code jsonFactory}, normally the one of the application's {@code ObjectMapper}, so program bodies
+     * get the same read constraints and parser features as every other JSON body.
+     */
+    ProgramRequestConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == CompactProgramRequest.class || clazz == CompactBatchRequest.class;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            parser.nextToken();
+            return clazz == CompactBatchRequest.class
+                    ? CompactBatchRequest.read(parser)
+                    : CompactProgramRequest.read(parser);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException(
+                    "Malformed request body: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object request, HttpOutputMessage outputMessage) {
+        throw new UnsupportedOperationException("Program requests are only read");
+    }
+}
@@ -0,0 +1,32 @@
+package ru.itmo.calculator.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the cross-request cache of operation results.
+ *
+ * @param enabled consult the cache before paying the operation delay
+ * @param eviction policy that picks the entry to drop once {@code maxEntries} is reached
+ * @param maxEntries maximum number of cached {@code (op, left, right)} results
+ * @param ttl time after which a cached result expires; {@code 0} keeps results until they are evicted
+ */
+@ConfigurationProperties(prefix = "calculator.result-cache")
+public record ResultCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("tiny-lfu") Eviction eviction,
+        @DefaultValue("100000") long maxEntries,
+        @DefaultValue("10m") Duration ttl) {
+
+    public enum Eviction {
+        /**
+         * Least recently used entry goes first.
+         */
+        LRU,
+        /**
+         * Window TinyLFU: admission by access frequency, resistant to one-off scans.
+         */
+        TINY_LFU
+    }
+}
@@ -0,0 +1,19 @@
+package ru.itmo.calculator.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits of incremental execution sessions.
+ *
+ * @param idleTimeout time after the last access when a session is discarded
+ * @param maxSessions maximum number of live sessions; the least valuable ones are discarded beyond it
+ * @param maxVariables maximum number of variables defined in a single session
+ */
+@ConfigurationProperties(prefix = "calculator.session")
+public record SessionProperties(
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue("10000") long maxSessions,
+        @DefaultValue("100000") int maxVariables) {
+}
@@ -0,0 +1,18 @@
+package ru.itmo.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Per-node tracing of executions.
+ *
+ * @param sampleRate share of executions traced without being asked to, from {@code 0} to {@code 1}
+ * @param maxTraces finished traces kept in memory, the oldest are overwritten; {@code 0} disables tracing
+ * @param maxNodes executions with more plan nodes are never traced
+ */
+@ConfigurationProperties(prefix = "calculator.trace")
+public record TraceProperties(
+        @DefaultValue("0") double sampleRate,
+        @DefaultValue("100") int maxTraces,
+        @DefaultValue("10000") int maxNodes) {
+}
@@ -1,13 +1,34 @@
 package ru.itmo.calculator.controller;
 
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.itmo.calculator.execution.CompactBatchRequest;
+import ru.itmo.calculator.execution.CompactProgramRequest;
 import ru.itmo.calculator.execution.InstructionExecutionFacade;
-import ru.itmo.calculator.openapi.api.CalculatorApi;
-import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
+import ru.itmo.calculator.openapi.model.ExecuteBatchResponseDto;
 import ru.itmo.calculator.openapi.model.ExecuteProgramResponseDto;
+import ru.itmo.calculator.openapi.model.ExecutionExplanationDto;
 
+/**
+ * Serves the operations of {@link ru.itmo.calculator.openapi.api.CalculatorApi} without implementing it: program
+ * bodies are read straight into {@link CompactProgramRequest} and {@link CompactBatchRequest} instead of the generated
+ * DTOs, so the mappings are declared here and follow the OpenAPI specification.
+ */
+@Validated
 @RestController
-public class CalculatorController implements CalculatorApi {
+public class CalculatorController {
+
+    private static final String EXECUTIONS_PATH = "/api/v1/executions";
 
     private final InstructionExecutionFacade executionFacade;
 
@@ -15,8 +36,57 @@ public class CalculatorController implements CalculatorApi {
         this.executionFacade = executionFacade;
     }
 
-    @Override
-    public ExecuteProgramResponseDto executeProgram(ExecuteProgramRequestDto executeProgramRequestDto) {
-        return executionFacade.execute(executeProgramRequestDto);
+    @PostMapping(
+            path = EXECUTIONS_PATH,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ExecuteProgramResponseDto> executeProgram(@RequestBody CompactProgramRequest request) {
+        return CancelOnDisconnect.register(executionFacade.execute(request));
+    }
+
+    @PostMapping(
+            path = EXECUTIONS_PATH + ":batch",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ExecuteBatchResponseDto> executeBatch(@RequestBody CompactBatchRequest request) {
+        return CancelOnDisconnect.register(executionFacade.executeBatch(request));
+    }
+
+    @PostMapping(
+            path = EXECUTIONS_PATH + ":explain",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ExecutionExplanationDto> explainProgram(
+            @RequestBody CompactProgramRequest request,
+            @Min(0) @RequestParam(value = "workers", defaultValue = "0") int workers) {
+        return CompletableFuture.completedFuture(executionFacade.explain(request, workers));
+    }
+
+    @PostMapping(
+            path = EXECUTIONS_PATH,
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ExecuteProgramResponseDto> executePipelinedProgram(InputStream body) throws IOException {
+        return CancelOnDisconnect.register(executionFacade.executePipelined(body));
+    }
+
+    @PostMapping(
+            path = EXECUTIONS_PATH,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseBodyEmitter executeProgramAsNdjson(@RequestBody CompactProgramRequest request) {
+        return stream(PrintStreamWriter.ndjson(executionFacade), request);
+    }
+
+    @PostMapping(
+            path = EXECUTIONS_PATH,
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter executeProgramAsEvents(@RequestBody CompactProgramRequest request) {
+        return (SseEmitter) stream(PrintStreamWriter.events(executionFacade), request);
+    }
+
+    private ResponseBodyEmitter stream(PrintStreamWriter writer, CompactProgramRequest request) {
+        return writer.open(executionFacade.executeStreaming(request, writer));
     }
 }
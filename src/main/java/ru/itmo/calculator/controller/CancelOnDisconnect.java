@@ -0,0 +1,52 @@
+package ru.itmo.calculator.controller;
+
+import java.util.concurrent.CompletableFuture;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+/**
+ * Cancels the execution behind an asynchronous response when nobody will read it: the async request timed out or
+ * the connection failed, usually because the client went away. The timeout is {@code spring.mvc.async.request-timeout}
+ * and is answered with 503 before the execution is cancelled.
+ *
+ * <p>Spring MVC completes the response from a returned {@link CompletableFuture} but never cancels it, so the
+ * interceptor is registered with the async manager of the current request before the controller returns.
+ */
+final class CancelOnDisconnect implements DeferredResultProcessingInterceptor {
+
+    private final CompletableFuture<?> execution;
+
+    private CancelOnDisconnect(CompletableFuture<?> execution) {
+        this.execution = execution;
+    }
+
+    static <T> CompletableFuture<T> register(CompletableFuture<T> execution) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!execution.isDone() && attributes instanceof ServletRequestAttributes servletAttributes) {
+            WebAsyncUtils.getAsyncManager(servletAttributes.getRequest())
+                    .registerDeferredResultInterceptor(CancelOnDisconnect.class, new CancelOnDisconnect(execution));
+        }
+        return execution;
+    }
+
+    @Override
+    public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        // Answered first: cancelling would otherwise complete the response with the cancellation instead.
+        deferredResult.setErrorResult(new AsyncRequestTimeoutException());
+        execution.cancel(true);
+        return true;
+    }
+
+    // Not handleError: the deferred result handles a connection error itself and stops the interceptor chain there.
+    // The request still completes afterwards, with nobody left to write the result to.
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        execution.cancel(true);
+    }
+}
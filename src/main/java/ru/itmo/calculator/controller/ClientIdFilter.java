@@ -0,0 +1,36 @@
+package ru.itmo.calculator.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.itmo.calculator.execution.ExecutionClient;
+
+/**
+ * Binds the {@link ExecutionClient} of an HTTP request: the {@value #CLIENT_ID_HEADER} header, or the remote address
+ * when the header is missing. A {@value #TRACE_HEADER} header of {@code true} asks for the executions of the request
+ * to be traced.
+ */
+@Component
+public class ClientIdFilter extends OncePerRequestFilter {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+    static final String TRACE_HEADER = "X-Trace";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = request.getHeader(CLIENT_ID_HEADER);
+        if (!StringUtils.hasText(client)) {
+            client = request.getRemoteAddr();
+        }
+        boolean trace = "true".equalsIgnoreCase(request.getHeader(TRACE_HEADER));
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.HTTP, client, trace)) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package ru.itmo.calculator.controller;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.execution.ExecutionStream;
+import ru.itmo.calculator.execution.InstructionExecutionFacade;
+import ru.itmo.calculator.openapi.model.StreamedPrintedValueDto;
+
+/**
+ * Writes the values of a streamed execution to the HTTP response as soon as they are computed, either as one JSON
+ * object per line or as server-sent {@code print} events.
+ *
+ * <p>Values are queued by the worker that computed them and sent from a separate thread, so a slow client never holds
+ * a worker of the shared pool. At most {@link #MAX_BUFFERED_VALUES} values wait for the client; a client that falls
+ * further behind is treated like one that went away and its execution is cancelled.
+ *
+ * <p>Failures reported before {@link #open} are kept and rethrown by the controller, so an invalid program is still
+ * answered with a regular error response; later failures abort the response.
+ */
+final class PrintStreamWriter implements ExecutionStream.Listener {
+
+    static final int MAX_BUFFERED_VALUES = 4096;
+
+    private static final String PRINT_EVENT = "print";
+    private static final String LINE_SEPARATOR = "\n";
+    private static final Executor SENDER = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("calculator-print-sender-", 1).factory());
+
+    private final InstructionExecutionFacade executionFacade;
+    private final ResponseBodyEmitter emitter;
+    private final boolean events;
+    private final ArrayDeque<StreamedPrintedValueDto> buffer = new ArrayDeque<>();
+    private Future<?> execution;
+    private RuntimeException rejection;
+    private Throwable failure;
+    private boolean open;
+    private boolean completed;
+    private boolean sending;
+    private boolean closed;
+
+    private PrintStreamWriter(InstructionExecutionFacade executionFacade, ResponseBodyEmitter emitter, boolean events) {
+        this.executionFacade = executionFacade;
+        this.emitter = emitter;
+        this.events = events;
+    }
+
+    static PrintStreamWriter ndjson(InstructionExecutionFacade executionFacade) {
+        return new PrintStreamWriter(executionFacade, new ResponseBodyEmitter(), false);
+    }
+
+    static PrintStreamWriter events(InstructionExecutionFacade executionFacade) {
+        return new PrintStreamWriter(executionFacade, new SseEmitter(), true);
+    }
+
+    /**
+     * Starts writing to the response, or throws the failure the execution reported while it was being started.
+     */
+    synchronized ResponseBodyEmitter open(Future<?> execution) {
+        if (rejection != null) {
+            throw rejection;
+        }
+        this.execution = execution;
+        this.open = true;
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> close());
+        if (failure != null) {
+            // The values overflowed before the response was opened.
+            execution.cancel(true);
+        }
+        scheduleSend();
+        return emitter;
+    }
+
+    @Override
+    public void printed(int printIndex, PrintResult result) {
+        StreamedPrintedValueDto value = executionFacade.toStreamedValue(printIndex, result);
+        synchronized (this) {
+            if (closed || completed || failure != null) {
+                return;
+            }
+            if (buffer.size() == MAX_BUFFERED_VALUES) {
+                buffer.clear();
+                failure = new IllegalStateException("Client does not read the streamed values");
+                if (execution != null) {
+                    execution.cancel(true);
+                }
+            } else {
+                buffer.add(value);
+            }
+            scheduleSend();
+        }
+    }
+
+    @Override
+    public synchronized void failed(Throwable error) {
+        if (!open) {
+            rejection = error instanceof RuntimeException runtime ? runtime : new IllegalStateException(error);
+            return;
+        }
+        if (failure == null && !completed) {
+            failure = error;
+            scheduleSend();
+        }
+    }
+
+    @Override
+    public synchronized void completed() {
+        if (failure == null) {
+            completed = true;
+            scheduleSend();
+        }
+    }
+
+    private void scheduleSend() {
+        if (open && !sending && !closed) {
+            sending = true;
+            SENDER.execute(this::send);
+        }
+    }
+
+    /**
+     * Sends the queued values and then the end of the response; only one such loop runs at a time.
+     */
+    private void send() {
+        while (true) {
+            StreamedPrintedValueDto value;
+            synchronized (this) {
+                value = buffer.poll();
+                if (value == null) {
+                    sending = false;
+                    if (!closed && (failure != null || completed)) {
+                        closed = true;
+                        if (failure != null) {
+                            emitter.completeWithError(failure);
+                        } else {
+                            emitter.complete();
+                        }
+                    }
+                    return;
+                }
+            }
+            try {
+                if (events) {
+                    ((SseEmitter) emitter).send(SseEmitter.event()
+                            .id(Integer.toString(value.getPrintIndex()))
+                            .name(PRINT_EVENT)
+                            .data(value, MediaType.APPLICATION_JSON));
+                } else {
+                    emitter.send(value, MediaType.APPLICATION_JSON);
+                    emitter.send(LINE_SEPARATOR, MediaType.TEXT_PLAIN);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; nothing else can be delivered.
+                close();
+                return;
+            }
+        }
+    }
+
+    private synchronized void close() {
+        closed = true;
+        buffer.clear();
+        execution.cancel(true);
+    }
+}
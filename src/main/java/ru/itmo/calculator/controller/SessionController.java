@@ -0,0 +1,37 @@
+package ru.itmo.calculator.controller;
+
+import java.util.concurrent.CompletableFuture;
+import org.springframework.web.bind.annotation.RestController;
+import ru.itmo.calculator.execution.InstructionExecutionFacade;
+import ru.itmo.calculator.openapi.api.SessionsApi;
+import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
+import ru.itmo.calculator.openapi.model.ExecuteProgramResponseDto;
+import ru.itmo.calculator.openapi.model.SessionDto;
+
+@RestController
+public class SessionController implements SessionsApi {
+
+    private final InstructionExecutionFacade executionFacade;
+
+    public SessionController(InstructionExecutionFacade executionFacade) {
+        this.executionFacade = executionFacade;
+    }
+
+    // Appends to a session are queued behind its earlier appends and answered when their execution completes.
+    @Override
+    public CompletableFuture<SessionDto> createSession() {
+        return CompletableFuture.completedFuture(executionFacade.createSession());
+    }
+
+    @Override
+    public CompletableFuture<ExecuteProgramResponseDto> appendInstructions(
+            String sessionId, ExecuteProgramRequestDto executeProgramRequestDto) {
+        return executionFacade.appendInstructions(sessionId, executeProgramRequestDto);
+    }
+
+    @Override
+    public CompletableFuture<Void> closeSession(String sessionId) {
+        executionFacade.closeSession(sessionId);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -10,9 +10,12 @@ import ru.itmo.calculator.dto.Operand;
 import ru.itmo.calculator.dto.PrintInstruction;
 import ru.itmo.calculator.dto.PrintResult;
 import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.execution.ExecutionExplanation;
 import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
+import ru.itmo.calculator.openapi.model.ExecutionExplanationDto;
 import ru.itmo.calculator.dto.LiteralOperandValue;
 import ru.itmo.calculator.openapi.model.PrintedValueDto;
+import ru.itmo.calculator.openapi.model.StreamedPrintedValueDto;
 import ru.itmo.calculator.dto.VariableOperandValue;
 
 @Component
@@ -26,6 +29,25 @@ public class CalculatorApiConverter {
         return results.stream().map(this::toPrintedValue).toList();
     }
 
+    public StreamedPrintedValueDto toStreamedValue(int printIndex, PrintResult result) {
+        return new StreamedPrintedValueDto().printIndex(printIndex).var(result.var()).value(result.value());
+    }
+
+    public ExecutionExplanationDto toExplanation(ExecutionExplanation explanation) {
+        return new ExecutionExplanationDto()
+                .instructions(explanation.instructions())
+                .requiredVariables(explanation.requiredVariables())
+                .mergedVariables(explanation.mergedVariables())
+                .prunedVariables(explanation.prunedVariables())
+                .depth(explanation.depth())
+                .levelWidths(explanation.levelWidths())
+                .criticalPath(explanation.criticalPath())
+                .expectedOperations(explanation.expectedOperations())
+                .workers(explanation.prediction().workers())
+                .predictedMakespanMillis(explanation.prediction().makespan().toNanos() / 1_000_000.0)
+                .predictedPeakConcurrency(explanation.prediction().peakConcurrency());
+    }
+
     private Instruction toDomainInstruction(ru.itmo.calculator.openapi.model.InstructionDto instruction) {
         if (instruction instanceof ru.itmo.calculator.openapi.model.CalcInstructionDto calc) {
             return new CalcInstruction(
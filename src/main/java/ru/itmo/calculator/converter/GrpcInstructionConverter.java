@@ -1,43 +1,187 @@
 package ru.itmo.calculator.converter;
 
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import org.springframework.stereotype.Component;
 import ru.itmo.calculator.dto.ArithmeticOp;
 import ru.itmo.calculator.dto.CalcInstruction;
 import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.InstructionSink;
 import ru.itmo.calculator.dto.LiteralOperand;
 import ru.itmo.calculator.dto.Operand;
 import ru.itmo.calculator.dto.PrintInstruction;
 import ru.itmo.calculator.dto.PrintResult;
 import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.execution.ExecutionExplanation;
+import ru.itmo.calculator.generated.grpc.AppendInstructionsRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteColumnarRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramResponse;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamResponse;
+import ru.itmo.calculator.generated.grpc.ExplainResponse;
 import ru.itmo.calculator.generated.grpc.Operation;
 import ru.itmo.calculator.generated.grpc.PrintedValue;
+import ru.itmo.calculator.generated.grpc.ProgramResult;
 
 @Component
 public class GrpcInstructionConverter {
 
     public List<Instruction> toDomainInstructions(ExecuteProgramRequest request) {
         Objects.requireNonNull(request, "request");
-        return request.getInstructionsList().stream().map(this::toDomainInstruction).toList();
+        return toDomainInstructions(request.getInstructionsList());
+    }
+
+    public List<Instruction> toDomainInstructions(AppendInstructionsRequest request) {
+        Objects.requireNonNull(request, "request");
+        return toDomainInstructions(request.getInstructionsList());
+    }
+
+    public List<Instruction> toDomainInstructions(ExecuteStreamRequest request) {
+        Objects.requireNonNull(request, "request");
+        return toDomainInstructions(request.getInstructionsList());
+    }
+
+    /**
+     * Feeds the instructions of a columnar program to {@code sink} in program order, reading the packed columns in
+     * place and resolving every name index to the same string instance.
+     */
+    public void readColumnarProgram(ExecuteColumnarRequest request, InstructionSink sink) {
+        Objects.requireNonNull(request, "request");
+        int instructionCount = request.getOpcodesCount();
+        if (request.getVariablesCount() != instructionCount) {
+            throw new IllegalArgumentException("Columnar program needs one variable per opcode");
+        }
+
+        String[] names = request.getNamesList().toArray(String[]::new);
+        ByteString operandKinds = request.getOperandKinds();
+        int calc = 0;
+        int operandVariable = 0;
+        int literal = 0;
+        for (int i = 0; i < instructionCount; i++) {
+            String var = name(names, request.getVariables(i));
+            int opcode = request.getOpcodesValue(i);
+            if (opcode == Operation.OPERATION_UNSPECIFIED_VALUE) {
+                sink.print(var);
+                continue;
+            }
+
+            Operation operation = Operation.forNumber(opcode);
+            if (operation == null) {
+                throw new IllegalArgumentException("Unsupported operation: " + opcode);
+            }
+            ArithmeticOp op = toArithmeticOp(operation);
+            int kindBit = calc * 2;
+            if (kindBit / 8 >= operandKinds.size()) {
+                throw new IllegalArgumentException("Columnar program is missing operand kinds");
+            }
+            boolean leftLiteral = isSet(operandKinds, kindBit);
+            boolean rightLiteral = isSet(operandKinds, kindBit + 1);
+            String leftName = null;
+            long leftValue = 0;
+            String rightName = null;
+            long rightValue = 0;
+            if (leftLiteral) {
+                leftValue = literal(request, literal++);
+            } else {
+                leftName = name(names, operandVariable(request, operandVariable++));
+            }
+            if (rightLiteral) {
+                rightValue = literal(request, literal++);
+            } else {
+                rightName = name(names, operandVariable(request, operandVariable++));
+            }
+            sink.calc(var, op, leftName, leftValue, rightName, rightValue);
+            calc++;
+        }
+
+        if (operandVariable != request.getOperandVariablesCount() || literal != request.getLiteralsCount()) {
+            throw new IllegalArgumentException("Columnar program has unused operands");
+        }
+    }
+
+    /**
+     * Encodes instructions in the columnar format; names are numbered in order of first appearance.
+     */
+    public ExecuteColumnarRequest toColumnarRequest(List<Instruction> instructions) {
+        ExecuteColumnarRequest.Builder builder = ExecuteColumnarRequest.newBuilder();
+        Map<String, Integer> indexes = new HashMap<>();
+        byte[] operandKinds = new byte[0];
+        int calc = 0;
+        for (Instruction instruction : instructions) {
+            if (instruction instanceof CalcInstruction calcInstruction) {
+                builder.addOpcodes(toOperation(calcInstruction.op()));
+                builder.addVariables(index(calcInstruction.var(), indexes, builder));
+                if ((calc * 2 + 1) / 8 >= operandKinds.length) {
+                    operandKinds = Arrays.copyOf(operandKinds, Math.max(operandKinds.length * 2, 1));
+                }
+                addOperand(calcInstruction.left(), calc * 2, operandKinds, indexes, builder);
+                addOperand(calcInstruction.right(), calc * 2 + 1, operandKinds, indexes, builder);
+                calc++;
+            } else if (instruction instanceof PrintInstruction print) {
+                builder.addOpcodes(Operation.OPERATION_UNSPECIFIED);
+                builder.addVariables(index(print.var(), indexes, builder));
+            }
+        }
+        return builder.setOperandKinds(ByteString.copyFrom(operandKinds, 0, (calc * 2 + 7) / 8)).build();
     }
 
     public ExecuteProgramResponse toResponse(List<PrintResult> results) {
         ExecuteProgramResponse.Builder builder = ExecuteProgramResponse.newBuilder();
 
         for (PrintResult result : results) {
-            builder.addItems(
-                    PrintedValue.newBuilder()
-                            .setVar(result.var())
-                            .setValue(result.value())
-                            .build());
+            builder.addItems(toPrintedValue(result));
         }
 
         return builder.build();
     }
 
+    public ProgramResult toProgramResult(List<PrintResult> results) {
+        return ProgramResult.newBuilder().setResponse(toResponse(results)).build();
+    }
+
+    public ProgramResult toProgramError(String message) {
+        return ProgramResult.newBuilder().setError(message).build();
+    }
+
+    public ExplainResponse toExplainResponse(ExecutionExplanation explanation) {
+        return ExplainResponse.newBuilder()
+                .setInstructions(explanation.instructions())
+                .setRequiredVariables(explanation.requiredVariables())
+                .setMergedVariables(explanation.mergedVariables())
+                .setPrunedVariables(explanation.prunedVariables())
+                .setDepth(explanation.depth())
+                .addAllLevelWidths(explanation.levelWidths())
+                .addAllCriticalPath(explanation.criticalPath())
+                .setExpectedOperations(explanation.expectedOperations())
+                .setWorkers(explanation.prediction().workers())
+                .setPredictedMakespanMillis(explanation.prediction().makespan().toNanos() / 1_000_000.0)
+                .setPredictedPeakConcurrency(explanation.prediction().peakConcurrency())
+                .build();
+    }
+
+    public ExecuteStreamResponse toStreamResponse(int printIndex, PrintResult result) {
+        return ExecuteStreamResponse.newBuilder()
+                .setPrintIndex(printIndex)
+                .setItem(toPrintedValue(result))
+                .build();
+    }
+
+    private List<Instruction> toDomainInstructions(List<ru.itmo.calculator.generated.grpc.InstructionDto> instructions) {
+        return instructions.stream().map(this::toDomainInstruction).toList();
+    }
+
+    private PrintedValue toPrintedValue(PrintResult result) {
+        return PrintedValue.newBuilder()
+                .setVar(result.var())
+                .setValue(result.value())
+                .build();
+    }
+
     private Instruction toDomainInstruction(ru.itmo.calculator.generated.grpc.InstructionDto instruction) {
         return switch (instruction.getInstructionKindCase()) {
             case CALC -> toCalcInstruction(instruction.getCalc());
@@ -59,7 +203,61 @@ public class GrpcInstructionConverter {
         };
     }
 
-    private ArithmeticOp toArithmeticOp(Operation operation) {
+    private static void addOperand(
+            Operand operand,
+            int kindBit,
+            byte[] operandKinds,
+            Map<String, Integer> indexes,
+            ExecuteColumnarRequest.Builder builder) {
+        if (operand instanceof LiteralOperand literal) {
+            operandKinds[kindBit / 8] |= (byte) (1 << (kindBit % 8));
+            builder.addLiterals(literal.value());
+        } else if (operand instanceof VariableOperand variable) {
+            builder.addOperandVariables(index(variable.name(), indexes, builder));
+        }
+    }
+
+    private static int index(String name, Map<String, Integer> indexes, ExecuteColumnarRequest.Builder builder) {
+        return indexes.computeIfAbsent(name, unused -> {
+            builder.addNames(name);
+            return indexes.size();
+        });
+    }
+
+    private static String name(String[] names, int index) {
+        if (index < 0 || index >= names.length) {
+            throw new IllegalArgumentException("Variable index out of range: " + index);
+        }
+        return names[index];
+    }
+
+    private static boolean isSet(ByteString bitmap, int bit) {
+        return (bitmap.byteAt(bit / 8) & (1 << (bit % 8))) != 0;
+    }
+
+    private static int operandVariable(ExecuteColumnarRequest request, int position) {
+        if (position >= request.getOperandVariablesCount()) {
+            throw new IllegalArgumentException("Columnar program is missing variable operands");
+        }
+        return request.getOperandVariables(position);
+    }
+
+    private static long literal(ExecuteColumnarRequest request, int position) {
+        if (position >= request.getLiteralsCount()) {
+            throw new IllegalArgumentException("Columnar program is missing literals");
+        }
+        return request.getLiterals(position);
+    }
+
+    private static Operation toOperation(ArithmeticOp op) {
+        return switch (op) {
+            case ADD -> Operation.OPERATION_ADD;
+            case SUBTRACT -> Operation.OPERATION_SUBTRACT;
+            case MULTIPLY -> Operation.OPERATION_MULTIPLY;
+        };
+    }
+
+    private static ArithmeticOp toArithmeticOp(Operation operation) {
         return switch (operation) {
             case OPERATION_ADD -> ArithmeticOp.ADD;
             case OPERATION_SUBTRACT -> ArithmeticOp.SUBTRACT;
@@ -18,6 +18,17 @@ public enum ArithmeticOp {
         return symbol;
     }
 
+    /**
+     * Applies the operation with the wrapping semantics of {@code long} arithmetic.
+     */
+    public long apply(long left, long right) {
+        return switch (this) {
+            case ADD -> left + right;
+            case SUBTRACT -> left - right;
+            case MULTIPLY -> left * right;
+        };
+    }
+
     public static ArithmeticOp fromSymbol(String raw) {
         for (ArithmeticOp op : values()) {
             if (op.symbol.equals(raw)) {
@@ -1,11 +1,85 @@
 package ru.itmo.calculator.dto;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-
+/**
+ * Compact, integer-indexed form of a program.
+ *
+ * <p>Every required {@code calc} instruction becomes a node with a dense index. Per-node data lives in parallel
+ * primitive arrays: the opcode ({@link ArithmeticOp#ordinal()}), a bitmask of literal operands and the operands
+ * themselves, where a literal operand holds its value and a variable operand holds the index of the producing node.
+ * Dependents are stored in CSR form: the nodes consuming node {@code n} are
+ * {@code dependents[dependentOffsets[n] .. dependentOffsets[n + 1])}.
+ *
+ * <p>{@code bottomLevels[n]} is the length, in operations, of the longest path from node {@code n} to a printed
+ * variable including the node itself; with uniform operation costs schedulers use it as the node priority.
+ *
+ * <p>{@code partialResults[n]} is set for the intermediate nodes of a rebalanced {@code +}/{@code *} chain: such a
+ * node keeps the name of an original intermediate variable but holds a partial sum or product, not its value, and is
+ * reported under {@link #nodeName(int)}.
+ *
+ * <p>{@code mergedNodes} is the number of {@code calc} instructions that repeated an already planned computation
+ * and were folded into it; every print of such a variable points to the shared node.
+ */
 public record ExecutionPlan(
-        Set<String> requiredVariables,
-        Map<String, CalcInstruction> calculations,
-        List<String> executionOrder) {
-}
\ No newline at end of file
+        String[] nodeVariables,
+        byte[] opcodes,
+        byte[] operandKinds,
+        long[] leftOperands,
+        long[] rightOperands,
+        int[] dependentOffsets,
+        int[] dependents,
+        int[] indegree,
+        int[] executionOrder,
+        int[] bottomLevels,
+        String[] printVariables,
+        int[] printNodes,
+        boolean[] partialResults,
+        int mergedNodes) {
+
+    public static final byte LEFT_LITERAL = 1;
+    public static final byte RIGHT_LITERAL = 2;
+
+    private static final ArithmeticOp[] OPERATIONS = ArithmeticOp.values();
+    private static final ExecutionPlan EMPTY = new ExecutionPlan(
+            new String[0], new byte[0], new byte[0], new long[0], new long[0], new int[] {0}, new int[0], new int[0],
+            new int[0], new int[0], new String[0], new int[0], new boolean[0], 0);
+
+    public static ExecutionPlan empty() {
+        return EMPTY;
+    }
+
+    public int nodeCount() {
+        return opcodes.length;
+    }
+
+    /**
+     * Length of the longest dependency chain in operations, i.e. the lower bound on the makespan in
+     * operation-delay units regardless of the number of workers.
+     */
+    public int criticalPathLength() {
+        int length = 0;
+        for (int level : bottomLevels) {
+            length = Math.max(length, level);
+        }
+        return length;
+    }
+
+    /**
+     * Name under which a node is reported: its variable, or {@code partial(<variable>)} for an intermediate node of a
+     * rebalanced chain, whose value is not the value of that variable.
+     */
+    public String nodeName(int node) {
+        return partialResults[node] ? "partial(" + nodeVariables[node] + ")" : nodeVariables[node];
+    }
+
+    public ArithmeticOp op(int node) {
+        return OPERATIONS[opcodes[node]];
+    }
+
+    public boolean isLeftLiteral(int node) {
+        return (operandKinds[node] & LEFT_LITERAL) != 0;
+    }
+
+    public boolean isRightLiteral(int node) {
+        return (operandKinds[node] & RIGHT_LITERAL) != 0;
+    }
+}
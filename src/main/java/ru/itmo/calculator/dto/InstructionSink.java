@@ -0,0 +1,12 @@
+package ru.itmo.calculator.dto;
+
+/**
+ * Receives a program one instruction at a time without an object per instruction or operand.
+ * A {@code null} operand name stands for a literal operand with the given value.
+ */
+public interface InstructionSink {
+
+    void calc(String var, ArithmeticOp op, String leftName, long leftValue, String rightName, long rightValue);
+
+    void print(String var);
+}
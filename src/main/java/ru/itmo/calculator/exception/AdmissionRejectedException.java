@@ -0,0 +1,20 @@
+package ru.itmo.calculator.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a program does not fit into the budget of operations in flight; the client may retry later.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
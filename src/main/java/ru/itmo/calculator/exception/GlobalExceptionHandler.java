@@ -1,42 +1,108 @@
 package ru.itmo.calculator.exception;
 
+import jakarta.validation.ConstraintViolationException;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import ru.itmo.calculator.openapi.model.ErrorResponseDto;
 
+/**
+ * Maps exceptions to error responses. Errors are always JSON, also for requests that accept only a streaming media
+ * type.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     @ExceptionHandler(IllegalArgumentException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponseDto handleIllegalArgument(IllegalArgumentException ex) {
+    public ResponseEntity<ErrorResponseDto> handleIllegalArgument(IllegalArgumentException ex) {
         log.warn("Illegal argument", ex);
-        return new ErrorResponseDto().message(ex.getMessage());
+        return error(HttpStatus.BAD_REQUEST, new ErrorResponseDto().message(ex.getMessage()));
+    }
+
+    @ExceptionHandler(RequestValidationException.class)
+    public ResponseEntity<ErrorResponseDto> handleRequestValidation(RequestValidationException ex) {
+        log.warn("Request validation failed: {}", ex.getDetails());
+        return error(HttpStatus.BAD_REQUEST, new ErrorResponseDto().message(ex.getMessage()).details(ex.getDetails()));
+    }
+
+    /**
+     * A body that is not JSON; a validation error wrapped on the way is answered as one.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponseDto> handleNotReadable(HttpMessageNotReadableException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestValidationException validation) {
+                return handleRequestValidation(validation);
+            }
+        }
+        log.warn("Unreadable request body: {}", ex.getMessage());
+        return error(HttpStatus.BAD_REQUEST, new ErrorResponseDto().message("Malformed request body"));
+    }
+
+    @ExceptionHandler(SessionNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handleSessionNotFound(SessionNotFoundException ex) {
+        log.debug("Session not found", ex);
+        return error(HttpStatus.NOT_FOUND, new ErrorResponseDto().message(ex.getMessage()));
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponseDto> handleAdmissionRejected(AdmissionRejectedException ex) {
+        log.debug("Admission rejected: {}", ex.getMessage());
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponseDto().message(ex.getMessage()));
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponseDto> handleAsyncRequestTimeout(AsyncRequestTimeoutException ex) {
+        log.warn("Execution did not finish within the async request timeout");
+        return error(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                new ErrorResponseDto().message("Execution did not finish within the request timeout"));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponseDto handleValidation(MethodArgumentNotValidException ex) {
+    public ResponseEntity<ErrorResponseDto> handleValidation(MethodArgumentNotValidException ex) {
         log.warn("Validation failed", ex);
         List<String> details =
                 ex.getBindingResult().getFieldErrors().stream()
                         .map(error -> error.getField() + ": " + error.getDefaultMessage())
                         .toList();
-        return new ErrorResponseDto().message("Request validation failed").details(details);
+        return error(
+                HttpStatus.BAD_REQUEST, new ErrorResponseDto().message("Request validation failed").details(details));
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponseDto> handleConstraintViolation(ConstraintViolationException ex) {
+        log.warn("Parameter validation failed", ex);
+        List<String> details =
+                ex.getConstraintViolations().stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .toList();
+        return error(
+                HttpStatus.BAD_REQUEST, new ErrorResponseDto().message("Request validation failed").details(details));
     }
 
     @ExceptionHandler(Exception.class)
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ErrorResponseDto handleGeneral(Exception ex) {
+    public ResponseEntity<ErrorResponseDto> handleGeneral(Exception ex) {
         log.error("Unhandled exception", ex);
-        return new ErrorResponseDto().message("Internal server error");
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, new ErrorResponseDto().message("Internal server error"));
+    }
+
+    private static ResponseEntity<ErrorResponseDto> error(HttpStatus status, ErrorResponseDto body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
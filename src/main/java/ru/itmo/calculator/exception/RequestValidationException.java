@@ -0,0 +1,20 @@
+package ru.itmo.calculator.exception;
+
+import java.util.List;
+
+/**
+ * Thrown when a request body breaks the rules of the API schema and was not checked by bean validation.
+ */
+public class RequestValidationException extends IllegalArgumentException {
+
+    private final List<String> details;
+
+    public RequestValidationException(String field, String problem) {
+        super("Request validation failed");
+        this.details = List.of(field + ": " + problem);
+    }
+
+    public List<String> getDetails() {
+        return details;
+    }
+}
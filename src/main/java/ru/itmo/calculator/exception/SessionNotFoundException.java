@@ -0,0 +1,11 @@
+package ru.itmo.calculator.exception;
+
+/**
+ * Thrown when a session does not exist, was closed or has expired.
+ */
+public class SessionNotFoundException extends RuntimeException {
+
+    public SessionNotFoundException(String sessionId) {
+        super("Session not found: " + sessionId);
+    }
+}
@@ -0,0 +1,144 @@
+package ru.itmo.calculator.execution;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.itmo.calculator.config.AdmissionProperties;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.exception.AdmissionRejectedException;
+
+/**
+ * Admits compiled plans against budgets of operations in flight, globally and per client.
+ *
+ * <p>The cost of a program is the number of nodes of its plan: only the operations the prints need, after merging
+ * and rebalancing. It is charged when the plan is admitted and returned when the execution finishes, so the budgets
+ * also bound the threads a thread-per-operation executor can create. A program is rejected before any node is
+ * scheduled, with a single map update and compare-and-set; it is never queued. A program larger than a budget is
+ * still admitted when nothing else is charged to that budget, so it runs alone instead of never.
+ *
+ * <p>The critical path of the plan bounds how long the charge is held: its operations run one after another however
+ * many workers there are. While other programs are in flight, a program whose critical path is longer than the
+ * configured limit is rejected as well, so a long sequential program cannot hold its budget for that long under
+ * load; like an oversized program, it is still admitted when nothing else runs.
+ */
+@Component
+public class AdmissionControl {
+
+    private static final AdmissionControl UNLIMITED = new AdmissionControl(0, 0, 0, Duration.ZERO);
+
+    private final long maxInFlight;
+    private final long maxClientInFlight;
+    private final int maxCriticalPath;
+    private final Duration retryAfter;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> clientsInFlight = new ConcurrentHashMap<>();
+    private final LongAdder globalRejections = new LongAdder();
+    private final LongAdder clientRejections = new LongAdder();
+    private final LongAdder criticalPathRejections = new LongAdder();
+
+    @Autowired
+    public AdmissionControl(AdmissionProperties properties) {
+        this(properties.maxInFlightOperations(), properties.maxClientInFlightOperations(),
+                properties.maxCriticalPath(), properties.retryAfter());
+    }
+
+    public AdmissionControl(long maxInFlight, long maxClientInFlight, Duration retryAfter) {
+        this(maxInFlight, maxClientInFlight, 0, retryAfter);
+    }
+
+    public AdmissionControl(long maxInFlight, long maxClientInFlight, int maxCriticalPath, Duration retryAfter) {
+        if (maxInFlight < 0 || maxClientInFlight < 0 || maxCriticalPath < 0) {
+            throw new IllegalArgumentException("Admission budgets must not be negative");
+        }
+        this.maxInFlight = maxInFlight;
+        this.maxClientInFlight = maxClientInFlight;
+        this.maxCriticalPath = maxCriticalPath;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Returns an admission control that admits every program.
+     */
+    public static AdmissionControl unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Charges the plan to the budgets of {@code client} and returns the action that releases it, or throws
+     * {@link AdmissionRejectedException} leaving the budgets unchanged.
+     */
+    Runnable admit(String client, ExecutionPlan plan) {
+        long cost = plan.nodeCount();
+        if (cost == 0 || this == UNLIMITED) {
+            return () -> {
+            };
+        }
+
+        // Checked against a snapshot of the global charge: a race only decides whether the program ran alone.
+        if (maxCriticalPath > 0 && plan.criticalPathLength() > maxCriticalPath && inFlight.get() > 0) {
+            criticalPathRejections.increment();
+            throw rejection("Critical path too long while other programs run: " + plan.criticalPathLength()
+                    + " operations, limit " + maxCriticalPath);
+        }
+
+        if (maxClientInFlight > 0) {
+            clientsInFlight.compute(client, (key, charged) -> {
+                long current = charged == null ? 0 : charged;
+                if (current > 0 && current + cost > maxClientInFlight) {
+                    clientRejections.increment();
+                    throw rejection("Too many operations in flight for client " + client + ": " + current
+                            + " running, " + cost + " requested, limit " + maxClientInFlight);
+                }
+                return current + cost;
+            });
+        }
+
+        long current;
+        do {
+            current = inFlight.get();
+            if (maxInFlight > 0 && current > 0 && current + cost > maxInFlight) {
+                releaseClient(client, cost);
+                globalRejections.increment();
+                throw rejection("Too many operations in flight: " + current + " running, " + cost
+                        + " requested, limit " + maxInFlight);
+            }
+        } while (!inFlight.compareAndSet(current, current + cost));
+
+        return () -> {
+            inFlight.addAndGet(-cost);
+            releaseClient(client, cost);
+        };
+    }
+
+    /**
+     * Operations of the admitted programs that are still running.
+     */
+    public long inFlightOperations() {
+        return inFlight.get();
+    }
+
+    public long globalRejectionCount() {
+        return globalRejections.sum();
+    }
+
+    public long clientRejectionCount() {
+        return clientRejections.sum();
+    }
+
+    public long criticalPathRejectionCount() {
+        return criticalPathRejections.sum();
+    }
+
+    private void releaseClient(String client, long cost) {
+        if (maxClientInFlight > 0) {
+            clientsInFlight.computeIfPresent(client, (key, charged) -> charged == cost ? null : charged - cost);
+        }
+    }
+
+    private AdmissionRejectedException rejection(String message) {
+        return new AdmissionRejectedException(message, retryAfter);
+    }
+}
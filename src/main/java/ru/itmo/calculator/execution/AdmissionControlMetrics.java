@@ -0,0 +1,43 @@
+package ru.itmo.calculator.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@code calculator.admission.in-flight}, the operations charged to the global budget, and
+ * {@code calculator.admission.rejected}, programs rejected by the {@code budget=global}, {@code budget=client}
+ * or {@code budget=critical-path} limit of the {@link AdmissionControl}.
+ */
+@Component
+public class AdmissionControlMetrics implements MeterBinder {
+
+    private static final String REJECTED = "calculator.admission.rejected";
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionControlMetrics(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("calculator.admission.in-flight", admissionControl, AdmissionControl::inFlightOperations)
+                .description("Operations of admitted programs that are still running")
+                .register(registry);
+        FunctionCounter.builder(REJECTED, admissionControl, AdmissionControl::globalRejectionCount)
+                .tag("budget", "global")
+                .description("Programs rejected because they did not fit into the budget of operations in flight")
+                .register(registry);
+        FunctionCounter.builder(REJECTED, admissionControl, AdmissionControl::clientRejectionCount)
+                .tag("budget", "client")
+                .description("Programs rejected because they did not fit into the budget of their client")
+                .register(registry);
+        FunctionCounter.builder(REJECTED, admissionControl, AdmissionControl::criticalPathRejectionCount)
+                .tag("budget", "critical-path")
+                .description("Programs rejected because their critical path was too long while others ran")
+                .register(registry);
+    }
+}
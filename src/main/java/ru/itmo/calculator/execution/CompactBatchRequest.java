@@ -0,0 +1,74 @@
+package ru.itmo.calculator.execution;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import ru.itmo.calculator.exception.RequestValidationException;
+
+/**
+ * Batch request body whose programs are {@linkplain CompactProgramRequest#deferred deferred}: each of them is only
+ * read when the batch runs, so a program that breaks the schema is reported in its own result.
+ */
+public final class CompactBatchRequest {
+
+    static final int MAX_PROGRAMS = 1000;
+
+    private static final String PROGRAMS = "programs";
+    private static final String SIZE = "size must be between 1 and " + MAX_PROGRAMS;
+
+    private final List<CompactProgramRequest> programs;
+
+    private CompactBatchRequest(List<CompactProgramRequest> programs) {
+        this.programs = programs;
+    }
+
+    /**
+     * Reads a request body positioned at its start object, checking the schema rules of the batch itself. Unknown
+     * fields are skipped.
+     */
+    public static CompactBatchRequest read(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new RequestValidationException("body", "must be an object");
+        }
+        List<CompactProgramRequest> programs = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!PROGRAMS.equals(field)) {
+                parser.skipChildren();
+            } else if (value == JsonToken.START_ARRAY) {
+                programs = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (programs.size() == MAX_PROGRAMS) {
+                        throw new RequestValidationException(PROGRAMS, SIZE);
+                    }
+                    TokenBuffer program = new TokenBuffer(parser);
+                    program.copyCurrentStructure(parser);
+                    programs.add(CompactProgramRequest.deferred(program));
+                }
+            } else if (value != JsonToken.VALUE_NULL) {
+                throw new RequestValidationException(PROGRAMS, "must be an array");
+            }
+        }
+
+        if (programs == null) {
+            throw new RequestValidationException(PROGRAMS, "must not be null");
+        }
+        if (programs.isEmpty()) {
+            throw new RequestValidationException(PROGRAMS, SIZE);
+        }
+        return new CompactBatchRequest(List.copyOf(programs));
+    }
+
+    public List<CompactProgramRequest> programs() {
+        return programs;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactBatchRequest{programs=" + programs.size() + "}";
+    }
+}
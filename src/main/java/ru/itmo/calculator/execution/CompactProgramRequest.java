@@ -0,0 +1,70 @@
+package ru.itmo.calculator.execution;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import ru.itmo.calculator.exception.RequestValidationException;
+
+/**
+ * Program request body read from JSON straight into the interned form the engine compiles, without instruction DTOs.
+ *
+ * <p>A program nested in a larger request can be {@linkplain #deferred(TokenBuffer) deferred}: its tokens are kept
+ * and only read when the program is first needed, so a program that breaks the schema fails on its own instead of
+ * failing the request it is part of.
+ */
+public final class CompactProgramRequest {
+
+    private final TokenBuffer source;
+    private ParsedProgram program;
+
+    private CompactProgramRequest(ParsedProgram program) {
+        this.source = null;
+        this.program = program;
+    }
+
+    private CompactProgramRequest(TokenBuffer source) {
+        this.source = source;
+    }
+
+    /**
+     * Reads a request body positioned at its start object. Schema violations are thrown as
+     * {@link RequestValidationException}.
+     */
+    public static CompactProgramRequest read(JsonParser parser) throws IOException {
+        return new CompactProgramRequest(ProgramJsonReader.read(parser));
+    }
+
+    /**
+     * Keeps the tokens of a program object to read them on first access. Schema violations are then thrown as
+     * {@link RequestValidationException} by whatever accesses the program.
+     */
+    public static CompactProgramRequest deferred(TokenBuffer source) {
+        return new CompactProgramRequest(source);
+    }
+
+    public int instructionCount() {
+        return program().instructionCount();
+    }
+
+    ParsedProgram program() {
+        ParsedProgram read = program;
+        if (read == null) {
+            try (JsonParser parser = source.asParserOnFirstToken()) {
+                read = ProgramJsonReader.read(parser);
+            } catch (JsonProcessingException e) {
+                throw new RequestValidationException("instructions", "must be JSON objects: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new RequestValidationException("instructions", "must be JSON objects: " + e.getMessage());
+            }
+            program = read;
+        }
+        return read;
+    }
+
+    @Override
+    public String toString() {
+        ParsedProgram read = program;
+        return "CompactProgramRequest{instructions=" + (read == null ? "unread" : read.instructionCount()) + "}";
+    }
+}
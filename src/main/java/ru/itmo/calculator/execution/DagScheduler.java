@@ -0,0 +1,520 @@
+package ru.itmo.calculator.execution;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.ExecutionPlan;
+
+/**
+ * Runs a single {@link ExecutionPlan} on an executor.
+ *
+ * <p>Results are stored in a {@code long[]} indexed by node, and every node keeps an atomic counter of unresolved
+ * inputs. The worker that resolves the last input of a node puts it on the ready queue and hands the scheduler
+ * itself to the executor, so the hot path allocates nothing per node. An observed run hands over a worker created
+ * once per run and keeps the submission times of its workers in an array, as a worker is submitted at most once per
+ * node.
+ *
+ * <p>Workers always take the ready node with the highest bottom level (HLFET list scheduling), so with a bounded
+ * executor the nodes on the longest remaining chain to a print never wait behind nodes that have slack. Bottom levels
+ * are weighted by the cost of every operation, see {@link #priorities}.
+ *
+ * <p>In lazy short-circuit mode an absorbing input (a zero multiplier) completes its dependent right away, and
+ * inputs that nothing else needs any more are cancelled before they start, together with their own subtrees.
+ *
+ * <p>Cancelling the returned future stops the whole run: nodes that have not started are dropped, and workers that
+ * are inside an operation are interrupted.
+ *
+ * <p>An observed run also times every node and wraps every worker handed to the executor, to measure how long it
+ * waited in the executor queue.
+ */
+final class DagScheduler implements Runnable {
+
+    /**
+     * Computes the value of a node from its resolved operands.
+     */
+    @FunctionalInterface
+    interface NodeOperation {
+        long apply(int node, long left, long right);
+    }
+
+    /**
+     * Learns how much work a cancelled run saved: nodes that never started and operations that were interrupted.
+     */
+    @FunctionalInterface
+    interface CancellationListener {
+        void cancelled(int droppedNodes, int interruptedNodes);
+    }
+
+    /**
+     * Watches a run for metrics and tracing; called from worker threads.
+     */
+    interface RunObserver {
+        /**
+         * A worker handed to the executor starts after waiting {@code queueDelayNanos} in the executor queue.
+         */
+        void workerStarted(long queueDelayNanos);
+
+        void workerStopped();
+
+        /**
+         * {@code node} was put on the ready queue at {@code readyAt} and its operation ran on the current thread from
+         * {@code startedAt} to {@code finishedAt}, all in {@link System#nanoTime()}; {@code absorbed} nodes were
+         * completed by an absorbing input.
+         */
+        default void nodeExecuted(int node, long readyAt, long startedAt, long finishedAt, boolean absorbed) {
+        }
+
+        /**
+         * The run computed every node it needed; not called for failed or cancelled runs.
+         */
+        void runFinished(RunStatistics statistics);
+
+        /**
+         * Returns an observer that notifies {@code first} and then {@code second}, skipping {@code null} ones.
+         */
+        static RunObserver both(RunObserver first, RunObserver second) {
+            if (first == null) {
+                return second;
+            }
+            if (second == null) {
+                return first;
+            }
+            return new RunObserver() {
+                @Override
+                public void workerStarted(long queueDelayNanos) {
+                    first.workerStarted(queueDelayNanos);
+                    second.workerStarted(queueDelayNanos);
+                }
+
+                @Override
+                public void workerStopped() {
+                    first.workerStopped();
+                    second.workerStopped();
+                }
+
+                @Override
+                public void nodeExecuted(int node, long readyAt, long startedAt, long finishedAt, boolean absorbed) {
+                    first.nodeExecuted(node, readyAt, startedAt, finishedAt, absorbed);
+                    second.nodeExecuted(node, readyAt, startedAt, finishedAt, absorbed);
+                }
+
+                @Override
+                public void runFinished(RunStatistics statistics) {
+                    first.runFinished(statistics);
+                    second.runFinished(statistics);
+                }
+            };
+        }
+    }
+
+    /**
+     * What a finished run did.
+     *
+     * @param startedAt      when the run started, in {@link System#nanoTime()}
+     * @param elapsedNanos   from the start of the run to its last node
+     * @param computingNanos time spent inside operations, summed over nodes
+     * @param waitingNanos   time ready nodes waited for a worker, summed over nodes
+     * @param absorbedNodes  nodes completed by an absorbing input before their other input was known
+     * @param skippedNodes   nodes cancelled because nothing needed them any more
+     * @param instantNodes   computed nodes whose operands let the operation finish without its delay, see
+     *                       {@link ShortCircuitRules#isInstant}
+     */
+    record RunStatistics(
+            long startedAt,
+            long elapsedNanos,
+            long computingNanos,
+            long waitingNanos,
+            int absorbedNodes,
+            int skippedNodes,
+            int instantNodes) {
+    }
+
+    private static final int PENDING = 0;
+    private static final int QUEUED = 1;
+    private static final int ABSORBED = 2;
+    private static final int DONE = 3;
+    private static final int CANCELLED = 4;
+
+    private final ExecutionPlan plan;
+    private final Executor executor;
+    private final NodeOperation operation;
+    private final CancellationListener cancellationListener;
+    private final RunObserver observer;
+    private final boolean lazyShortCircuit;
+    private final long[] values;
+    private final AtomicIntegerArray pendingInputs;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray interest;
+    private final AtomicInteger remainingNodes;
+    private final CompletableFuture<long[]> completion = new CompletableFuture<>();
+    private final ReadyQueue readyQueue;
+    // Thread currently inside the operation of each node; a slot is claimed by stop() to interrupt its thread.
+    private final AtomicReferenceArray<Thread> runningThreads;
+    // Set by stop() once every claimed thread was interrupted.
+    private volatile boolean interruptsDelivered;
+    // Statistics of an observed run, null otherwise; readyAt is when each node was last put on the ready queue.
+    private final long startedAt;
+    private final long[] readyAt;
+    private final LongAdder computingNanos;
+    private final LongAdder waitingNanos;
+    private final LongAdder absorbedNodes;
+    private final LongAdder skippedNodes;
+    private final LongAdder instantNodes;
+    // Workers of an observed run, and the times they were submitted at, taken in submission order by the workers.
+    private final Runnable observedWorker;
+    private final AtomicLongArray submittedAt;
+    private final AtomicInteger submittedWorkers;
+    private final AtomicInteger startedWorkers;
+
+    private DagScheduler(
+            ExecutionPlan plan,
+            Executor executor,
+            NodeOperation operation,
+            boolean lazyShortCircuit,
+            CancellationListener cancellationListener,
+            RunObserver observer,
+            int[] priorities) {
+        this.plan = plan;
+        this.executor = executor;
+        this.operation = operation;
+        this.cancellationListener = cancellationListener;
+        this.observer = observer;
+        this.lazyShortCircuit = lazyShortCircuit;
+        this.values = new long[plan.nodeCount()];
+        this.pendingInputs = new AtomicIntegerArray(plan.indegree());
+        this.states = new AtomicIntegerArray(plan.nodeCount());
+        this.runningThreads = new AtomicReferenceArray<>(plan.nodeCount());
+        this.interest = lazyShortCircuit ? initialInterest(plan) : null;
+        this.remainingNodes = new AtomicInteger(plan.nodeCount());
+        this.readyQueue = new ReadyQueue(priorities);
+        this.startedAt = System.nanoTime();
+        this.readyAt = observer == null ? null : new long[plan.nodeCount()];
+        this.computingNanos = observer == null ? null : new LongAdder();
+        this.waitingNanos = observer == null ? null : new LongAdder();
+        this.absorbedNodes = observer == null ? null : new LongAdder();
+        this.skippedNodes = observer == null ? null : new LongAdder();
+        this.instantNodes = observer == null ? null : new LongAdder();
+        this.observedWorker = observer == null ? null : this::runObserved;
+        this.submittedAt = observer == null ? null : new AtomicLongArray(plan.nodeCount());
+        this.submittedWorkers = observer == null ? null : new AtomicInteger();
+        this.startedWorkers = observer == null ? null : new AtomicInteger();
+    }
+
+    /**
+     * Starts executing the plan and returns a future completed with node values once every node is computed or
+     * cancelled as unneeded.
+     */
+    static CompletableFuture<long[]> start(
+            ExecutionPlan plan, Executor executor, NodeOperation operation, boolean lazyShortCircuit) {
+        return start(plan, executor, operation, lazyShortCircuit, (droppedNodes, interruptedNodes) -> {
+        });
+    }
+
+    /**
+     * Starts executing the plan like {@link #start(ExecutionPlan, Executor, NodeOperation, boolean)} and reports to
+     * {@code cancellationListener} if the returned future is cancelled before the run finishes.
+     */
+    static CompletableFuture<long[]> start(
+            ExecutionPlan plan,
+            Executor executor,
+            NodeOperation operation,
+            boolean lazyShortCircuit,
+            CancellationListener cancellationListener) {
+        return start(plan, executor, operation, lazyShortCircuit, cancellationListener, null, plan.bottomLevels());
+    }
+
+    /**
+     * Starts executing the plan like {@link #start(ExecutionPlan, Executor, NodeOperation, boolean,
+     * CancellationListener)}, taking ready nodes by {@code priorities}, and reports its statistics to
+     * {@code observer}, unless it is {@code null}.
+     */
+    static CompletableFuture<long[]> start(
+            ExecutionPlan plan,
+            Executor executor,
+            NodeOperation operation,
+            boolean lazyShortCircuit,
+            CancellationListener cancellationListener,
+            RunObserver observer,
+            int[] priorities) {
+        DagScheduler scheduler = new DagScheduler(
+                plan, executor, operation, lazyShortCircuit, cancellationListener, observer, priorities);
+        if (plan.nodeCount() == 0) {
+            scheduler.completion.complete(scheduler.values);
+            return scheduler.completion;
+        }
+        scheduler.completion.whenComplete((values, error) -> {
+            if (scheduler.completion.isCancelled()) {
+                scheduler.stop();
+            }
+        });
+
+        int seeded = 0;
+        for (int node = 0; node < plan.nodeCount(); node++) {
+            if (plan.indegree()[node] == 0) {
+                if (scheduler.readyAt != null) {
+                    scheduler.readyAt[node] = scheduler.startedAt;
+                }
+                scheduler.states.set(node, QUEUED);
+                scheduler.readyQueue.offer(node);
+                seeded++;
+            }
+        }
+        for (int i = 0; i < seeded; i++) {
+            scheduler.submitWorker();
+        }
+        return scheduler.completion;
+    }
+
+    @Override
+    public void run() {
+        int node;
+        while (!completion.isDone() && (node = readyQueue.poll()) >= 0) {
+            if (!enterOperation(node)) {
+                return;
+            }
+            execute(node);
+        }
+    }
+
+    private void execute(int node) {
+        boolean absorbed = states.get(node) == ABSORBED;
+        long left;
+        long right;
+        if (absorbed) {
+            // One input is the absorbing zero and the other is unresolved; any value gives the same result.
+            left = 0;
+            right = 0;
+        } else {
+            left = plan.isLeftLiteral(node) ? plan.leftOperands()[node] : values[(int) plan.leftOperands()[node]];
+            right = plan.isRightLiteral(node) ? plan.rightOperands()[node] : values[(int) plan.rightOperands()[node]];
+        }
+
+        long started = observer == null ? 0 : System.nanoTime();
+        long value;
+        try {
+            value = operation.apply(node, left, right);
+            values[node] = value;
+            states.set(node, DONE);
+        } catch (RuntimeException | Error e) {
+            completion.completeExceptionally(e);
+            return;
+        } finally {
+            exitOperation(node);
+        }
+        long finished = 0;
+        if (observer != null) {
+            finished = System.nanoTime();
+            waitingNanos.add(started - readyAt[node]);
+            computingNanos.add(finished - started);
+            if (absorbed) {
+                absorbedNodes.increment();
+            } else if (ShortCircuitRules.isInstant(plan.op(node), left, right)) {
+                instantNodes.increment();
+            }
+            observer.nodeExecuted(node, readyAt[node], started, finished, absorbed);
+        }
+        if (absorbed) {
+            releaseInputs(node);
+        }
+
+        // The current worker keeps polling after this node, so it covers one newly ready dependent itself.
+        boolean workerAvailable = true;
+        boolean absorbing = lazyShortCircuit && value == 0;
+        int[] offsets = plan.dependentOffsets();
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            int dependent = plan.dependents()[i];
+            boolean ready = absorbing
+                    && ShortCircuitRules.isAbsorbing(plan.op(dependent), value)
+                    && states.compareAndSet(dependent, PENDING, ABSORBED);
+            if (pendingInputs.decrementAndGet(dependent) == 0 && states.compareAndSet(dependent, PENDING, QUEUED)) {
+                ready = true;
+            }
+            if (ready) {
+                if (readyAt != null) {
+                    readyAt[dependent] = finished;
+                }
+                readyQueue.offer(dependent);
+                if (workerAvailable) {
+                    workerAvailable = false;
+                } else {
+                    submitWorker();
+                }
+            }
+        }
+
+        finishNode();
+    }
+
+    /**
+     * Drops the claim of an absorbed node on its inputs and cancels every input that nobody needs any more.
+     */
+    private void releaseInputs(int node) {
+        int[] stack = {node};
+        int top = 1;
+        while (top > 0) {
+            int current = stack[--top];
+            for (int side = 0; side < 2; side++) {
+                boolean literal = side == 0 ? plan.isLeftLiteral(current) : plan.isRightLiteral(current);
+                if (literal) {
+                    continue;
+                }
+                int input = (int) (side == 0 ? plan.leftOperands()[current] : plan.rightOperands()[current]);
+                if (interest.decrementAndGet(input) == 0 && states.compareAndSet(input, PENDING, CANCELLED)) {
+                    if (skippedNodes != null) {
+                        skippedNodes.increment();
+                    }
+                    finishNode();
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = input;
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers the current thread as running an operation, unless the run is already over.
+     */
+    private boolean enterOperation(int node) {
+        runningThreads.set(node, Thread.currentThread());
+        if (completion.isDone()) {
+            exitOperation(node);
+            return false;
+        }
+        return true;
+    }
+
+    private void exitOperation(int node) {
+        if (runningThreads.getAndSet(node, null) == null) {
+            // stop() claimed the slot; wait until its interrupt has landed before clearing it below.
+            while (!interruptsDelivered) {
+                Thread.onSpinWait();
+            }
+        }
+        if (completion.isCancelled()) {
+            // Do not leak the interrupt of this run into the next task of the pooled thread.
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * Interrupts the operations in progress after the run was cancelled; no new operation starts from this point.
+     */
+    private void stop() {
+        int interrupted = 0;
+        int unfinished = 0;
+        for (int node = 0; node < plan.nodeCount(); node++) {
+            Thread thread = runningThreads.getAndSet(node, null);
+            if (thread != null) {
+                thread.interrupt();
+                interrupted++;
+            }
+            int state = states.get(node);
+            if (state != DONE && state != CANCELLED) {
+                unfinished++;
+            }
+        }
+        interruptsDelivered = true;
+        cancellationListener.cancelled(unfinished - interrupted, interrupted);
+    }
+
+    private void finishNode() {
+        if (remainingNodes.decrementAndGet() == 0) {
+            if (observer != null && !completion.isDone()) {
+                observer.runFinished(new RunStatistics(startedAt, System.nanoTime() - startedAt,
+                        computingNanos.sum(), waitingNanos.sum(), absorbedNodes.intValue(), skippedNodes.intValue(),
+                        instantNodes.intValue()));
+            }
+            completion.complete(values);
+        }
+    }
+
+    private void submitWorker() {
+        try {
+            if (observer == null) {
+                executor.execute(this);
+            } else {
+                submittedAt.set(submittedWorkers.getAndIncrement(), System.nanoTime());
+                executor.execute(observedWorker);
+            }
+        } catch (RejectedExecutionException e) {
+            completion.completeExceptionally(e);
+        }
+    }
+
+    private void runObserved() {
+        // Workers are interchangeable, so each one is matched with the oldest submission not matched yet; a slot can
+        // still be empty for the moment between numbering a submission and recording its time.
+        int worker = startedWorkers.getAndIncrement();
+        long submitted;
+        while ((submitted = submittedAt.get(worker)) == 0) {
+            Thread.onSpinWait();
+        }
+        observer.workerStarted(System.nanoTime() - submitted);
+        try {
+            run();
+        } finally {
+            observer.workerStopped();
+        }
+    }
+
+    /**
+     * Returns the HLFET priority of every node under {@code costModel}: the cost of the longest path from the node to a
+     * print, the node included. When every operation costs the same this orders nodes exactly like
+     * {@link ExecutionPlan#bottomLevels()}, which is returned as is; otherwise the weighted levels are computed and
+     * scaled down, if needed, to fit an {@code int}.
+     */
+    static int[] priorities(ExecutionPlan plan, OperationCostModel costModel) {
+        long[] costs = new long[ArithmeticOp.values().length];
+        boolean uniform = true;
+        for (ArithmeticOp op : ArithmeticOp.values()) {
+            costs[op.ordinal()] = costModel.costNanos(op);
+            uniform &= costs[op.ordinal()] == costs[0];
+        }
+        if (uniform) {
+            return plan.bottomLevels();
+        }
+
+        int[] order = plan.executionOrder();
+        int[] offsets = plan.dependentOffsets();
+        long[] levels = new long[plan.nodeCount()];
+        long highest = 0;
+        for (int i = order.length - 1; i >= 0; i--) {
+            int node = order[i];
+            long longestTail = 0;
+            for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+                longestTail = Math.max(longestTail, levels[plan.dependents()[j]]);
+            }
+            levels[node] = longestTail + costs[plan.opcodes()[node]];
+            highest = Math.max(highest, levels[node]);
+        }
+        long scale = highest / Integer.MAX_VALUE + 1;
+        int[] priorities = new int[levels.length];
+        for (int node = 0; node < levels.length; node++) {
+            priorities[node] = (int) (levels[node] / scale);
+        }
+        return priorities;
+    }
+
+    /**
+     * Every dependent edge holds a claim on its input, and printed nodes hold an extra one that is never released.
+     */
+    private static AtomicIntegerArray initialInterest(ExecutionPlan plan) {
+        int[] claims = new int[plan.nodeCount()];
+        for (int node = 0; node < plan.nodeCount(); node++) {
+            claims[node] = plan.dependentOffsets()[node + 1] - plan.dependentOffsets()[node];
+        }
+        for (int node : plan.printNodes()) {
+            claims[node]++;
+        }
+        return new AtomicIntegerArray(claims);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.itmo.calculator.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@code calculator.operations.cancelled}: operations saved by cancelling executions whose caller went away,
+ * tagged {@code stage=pending} for nodes that never started and {@code stage=running} for interrupted operations.
+ */
+@Component
+public class ExecutionCancellationMetrics implements MeterBinder {
+
+    private static final String NAME = "calculator.operations.cancelled";
+
+    private final InstructionExecutionService executionService;
+
+    public ExecutionCancellationMetrics(InstructionExecutionService executionService) {
+        this.executionService = executionService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(NAME, executionService, InstructionExecutionService::droppedOperationCount)
+                .tag("stage", "pending")
+                .description("Plan nodes that never started because their execution was cancelled")
+                .register(registry);
+        FunctionCounter.builder(NAME, executionService, InstructionExecutionService::interruptedOperationCount)
+                .tag("stage", "running")
+                .description("Operations interrupted while running because their execution was cancelled")
+                .register(registry);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.itmo.calculator.execution;
+
+/**
+ * Client on whose behalf programs are started on the current thread, the transport it came through and whether it
+ * asked for its executions to be traced; used for per-client admission budgets, per-transport metrics and tracing.
+ *
+ * <p>Transport adapters bind the client around request handling; programs are compiled and admitted on that thread
+ * before any work is handed to the workers.
+ */
+public final class ExecutionClient {
+
+    /**
+     * Client of programs started outside of any request.
+     */
+    public static final String ANONYMOUS = "anonymous";
+
+    public static final String HTTP = "http";
+    public static final String GRPC = "grpc";
+
+    /**
+     * Transport of programs started outside of any request.
+     */
+    public static final String INTERNAL = "internal";
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private ExecutionClient() {
+    }
+
+    /**
+     * Binds {@code client} to the current thread until the returned scope is closed, keeping the transport that is
+     * already bound.
+     */
+    public static Scope enter(String client) {
+        return enter(transport(), client, traceRequested());
+    }
+
+    /**
+     * Binds {@code client} of {@code transport} to the current thread until the returned scope is closed.
+     */
+    public static Scope enter(String transport, String client) {
+        return enter(transport, client, false);
+    }
+
+    /**
+     * Binds {@code client} of {@code transport} to the current thread until the returned scope is closed; with
+     * {@code traceRequested} every execution it starts is traced regardless of sampling.
+     */
+    public static Scope enter(String transport, String client, boolean traceRequested) {
+        return enter(new Binding(transport, client, traceRequested));
+    }
+
+    /**
+     * Returns what is bound to the current thread, or {@code null} when nothing is, for work that continues on
+     * another thread, such as later plans of a stream started from a worker.
+     */
+    static Binding capture() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds a {@linkplain #capture() captured} binding to the current thread until the returned scope is closed;
+     * {@code null} binds nothing.
+     */
+    static Scope enter(Binding binding) {
+        Binding previous = CURRENT.get();
+        if (binding == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(binding);
+        }
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    static String current() {
+        Binding binding = CURRENT.get();
+        return binding == null ? ANONYMOUS : binding.client();
+    }
+
+    static String transport() {
+        Binding binding = CURRENT.get();
+        return binding == null ? INTERNAL : binding.transport();
+    }
+
+    static boolean traceRequested() {
+        Binding binding = CURRENT.get();
+        return binding != null && binding.traceRequested();
+    }
+
+    /**
+     * Restores the client that was bound before {@link #enter}.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    record Binding(String transport, String client, boolean traceRequested) {
+    }
+}
@@ -0,0 +1,146 @@
+package ru.itmo.calculator.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.ExecutionPlan;
+
+/**
+ * Describes the plan of a program without executing it: its size after pruning and merging, the shape of the
+ * dependency graph, the work left after short-circuit analysis and the makespan predicted by
+ * {@link ExecutionSimulator}.
+ *
+ * <p>All operands are known once the program is planned, so short-circuit analysis evaluates the plan in topological
+ * order instead of guessing. With lazy short-circuiting, a multiplication by a zero computed at run time only needs
+ * that zero; the input finishing first by plan level is assumed to be the one that absorbs it. Every pass is linear in
+ * the number of nodes.
+ */
+final class ExecutionExplainer {
+
+    private ExecutionExplainer() {
+    }
+
+    static ExecutionExplanation explain(
+            ParsedProgram program,
+            ExecutionPlan plan,
+            OperationCostModel costModel,
+            boolean lazyShortCircuit,
+            int workers) {
+        SimulatedExecution prediction = ExecutionSimulator.simulate(plan, costModel, workers);
+        int nodeCount = plan.nodeCount();
+        int[] order = plan.executionOrder();
+
+        // Level of a node: operations on the longest chain from a literal-only node up to and including it.
+        int[] levels = new int[nodeCount];
+        long[] values = new long[nodeCount];
+        int depth = 0;
+        for (int node : order) {
+            int level = 1;
+            if (!plan.isLeftLiteral(node)) {
+                level = Math.max(level, levels[(int) plan.leftOperands()[node]] + 1);
+            }
+            if (!plan.isRightLiteral(node)) {
+                level = Math.max(level, levels[(int) plan.rightOperands()[node]] + 1);
+            }
+            levels[node] = level;
+            depth = Math.max(depth, level);
+            values[node] = plan.op(node).apply(left(plan, values, node), right(plan, values, node));
+        }
+        int[] widths = new int[depth];
+        for (int node = 0; node < nodeCount; node++) {
+            widths[levels[node] - 1]++;
+        }
+        List<Integer> levelWidths = new ArrayList<>(depth);
+        for (int width : widths) {
+            levelWidths.add(width);
+        }
+
+        return new ExecutionExplanation(
+                program.instructionCount(),
+                nodeCount + plan.mergedNodes(),
+                plan.mergedNodes(),
+                program.calcCount - nodeCount - plan.mergedNodes(),
+                depth,
+                levelWidths,
+                criticalPath(plan),
+                expectedOperations(plan, values, levels, lazyShortCircuit),
+                prediction);
+    }
+
+    /**
+     * Follows the highest bottom level from a node that reads only literals down to a print.
+     */
+    private static List<String> criticalPath(ExecutionPlan plan) {
+        List<String> path = new ArrayList<>();
+        int node = -1;
+        for (int candidate = 0; candidate < plan.nodeCount(); candidate++) {
+            if (node < 0 || plan.bottomLevels()[candidate] > plan.bottomLevels()[node]) {
+                node = candidate;
+            }
+        }
+        int[] offsets = plan.dependentOffsets();
+        while (node >= 0) {
+            path.add(plan.nodeName(node));
+            int next = -1;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int dependent = plan.dependents()[i];
+                if (plan.bottomLevels()[dependent] == plan.bottomLevels()[node] - 1) {
+                    next = dependent;
+                    break;
+                }
+            }
+            node = next;
+        }
+        return path;
+    }
+
+    /**
+     * Marks the nodes the prints still need after absorbing zeros, from the prints down, and counts those whose
+     * operation is not instant.
+     */
+    private static int expectedOperations(ExecutionPlan plan, long[] values, int[] levels, boolean lazyShortCircuit) {
+        boolean[] needed = new boolean[plan.nodeCount()];
+        for (int node : plan.printNodes()) {
+            needed[node] = true;
+        }
+        int[] order = plan.executionOrder();
+        int expected = 0;
+        for (int i = order.length - 1; i >= 0; i--) {
+            int node = order[i];
+            if (!needed[node]) {
+                continue;
+            }
+            ArithmeticOp op = plan.op(node);
+            long left = left(plan, values, node);
+            long right = right(plan, values, node);
+            if (!ShortCircuitRules.isInstant(op, left, right)) {
+                expected++;
+            }
+            int leftInput = plan.isLeftLiteral(node) ? -1 : (int) plan.leftOperands()[node];
+            int rightInput = plan.isRightLiteral(node) ? -1 : (int) plan.rightOperands()[node];
+            boolean leftAbsorbs = leftInput >= 0 && lazyShortCircuit && ShortCircuitRules.isAbsorbing(op, left);
+            boolean rightAbsorbs = rightInput >= 0 && lazyShortCircuit && ShortCircuitRules.isAbsorbing(op, right);
+            if (leftAbsorbs && (!rightAbsorbs || levels[leftInput] <= levels[rightInput])) {
+                needed[leftInput] = true;
+            } else if (rightAbsorbs) {
+                needed[rightInput] = true;
+            } else {
+                if (leftInput >= 0) {
+                    needed[leftInput] = true;
+                }
+                if (rightInput >= 0) {
+                    needed[rightInput] = true;
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static long left(ExecutionPlan plan, long[] values, int node) {
+        return plan.isLeftLiteral(node) ? plan.leftOperands()[node] : values[(int) plan.leftOperands()[node]];
+    }
+
+    private static long right(ExecutionPlan plan, long[] values, int node) {
+        return plan.isRightLiteral(node) ? plan.rightOperands()[node] : values[(int) plan.rightOperands()[node]];
+    }
+}
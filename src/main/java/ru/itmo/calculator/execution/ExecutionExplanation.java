@@ -0,0 +1,29 @@
+package ru.itmo.calculator.execution;
+
+import java.util.List;
+
+/**
+ * What executing a program would involve, found by planning it without running any operation.
+ *
+ * @param instructions instructions of the program
+ * @param requiredVariables variables the prints need, each computed by one plan node
+ * @param mergedVariables required variables that repeat the computation of another one and share its node
+ * @param prunedVariables calculated variables that no print needs, or that a literal zero makes irrelevant
+ * @param depth longest chain of dependent operations
+ * @param levelWidths operations at every level of the plan, the first level reading only literals
+ * @param criticalPath variables along the longest chain, from the first operation to the print
+ * @param expectedOperations operations expected to pay their cost: required ones that neither finish instantly nor
+ *     lose their consumer to an absorbing zero computed at run time
+ * @param prediction replay of the plan on a virtual clock with the requested number of workers
+ */
+public record ExecutionExplanation(
+        int instructions,
+        int requiredVariables,
+        int mergedVariables,
+        int prunedVariables,
+        int depth,
+        List<Integer> levelWidths,
+        List<String> criticalPath,
+        int expectedOperations,
+        SimulatedExecution prediction) {
+}
@@ -0,0 +1,50 @@
+package ru.itmo.calculator.execution;
+
+import java.util.concurrent.CompletableFuture;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a request thread blocked until an execution finishes, for the entry points that answer
+ * synchronously.
+ */
+@Name("ru.itmo.calculator.ExecutionJoin")
+@Label("Execution Join")
+@Category({"Calculator", "Execution"})
+@Description("A request thread waiting for the result of an execution")
+@StackTrace(false)
+final class ExecutionJoinEvent extends jdk.jfr.Event {
+
+    static final String EXECUTE = "execute";
+
+    @Label("Entry Point")
+    String entryPoint;
+
+    @Label("Transport")
+    String transport;
+
+    @Label("Client")
+    String client;
+
+    /**
+     * Joins {@code execution} on the current thread, recording how long it waited.
+     */
+    static <T> T join(CompletableFuture<T> execution, String entryPoint) {
+        ExecutionJoinEvent event = new ExecutionJoinEvent();
+        event.begin();
+        try {
+            return execution.join();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.entryPoint = entryPoint;
+                event.transport = ExecutionClient.transport();
+                event.client = ExecutionClient.current();
+                event.commit();
+            }
+        }
+    }
+}
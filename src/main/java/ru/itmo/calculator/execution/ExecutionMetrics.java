@@ -0,0 +1,162 @@
+package ru.itmo.calculator.execution;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.itmo.calculator.dto.ExecutionPlan;
+
+/**
+ * Records what every execution looked like and how it ran, tagged with the {@code transport} it came through
+ * ({@code http}, {@code grpc} or {@code internal}, see {@link ExecutionClient}):
+ *
+ * <ul>
+ *     <li>{@code calculator.execution.program.size}, {@code calculator.execution.plan.nodes} and
+ *     {@code calculator.execution.plan.critical-path}: instructions received, plan nodes the prints need and the
+ *     longest chain among them;</li>
+ *     <li>{@code calculator.execution.planning}: compiling the program into a plan and admitting it;</li>
+ *     <li>{@code calculator.execution.duration}, {@code calculator.execution.computing} and
+ *     {@code calculator.execution.waiting}: wall-clock time of a run, time its operations ran and time its ready
+ *     nodes waited for a worker, both summed over nodes;</li>
+ *     <li>{@code calculator.execution.parallelism}: operations running at once on average, computing time over
+ *     duration;</li>
+ *     <li>{@code calculator.execution.short-circuit}: percentage of plan nodes settled by lazy short circuit, absorbed
+ *     by a zero or skipped as unneeded;</li>
+ *     <li>{@code calculator.execution.instant}: percentage of plan nodes whose operands let the operation finish
+ *     without its delay, such as {@code x * 1} or {@code x + 0} (see {@link ShortCircuitRules#isInstant});</li>
+ *     <li>{@code calculator.executor.queue.delay} and {@code calculator.executor.active}: time a worker waited in the
+ *     executor queue, and workers running operations right now.</li>
+ * </ul>
+ *
+ * <p>Run meters only cover runs that finished; every meter publishes a percentile histogram.
+ */
+@Component
+public class ExecutionMetrics {
+
+    private static final ExecutionMetrics DISABLED = new ExecutionMetrics(null);
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, TransportMeters> transports = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ExecutionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Metrics that record nothing, for services created outside of the application context.
+     */
+    public static ExecutionMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Records a program that was compiled and admitted, and returns the observer of its run, or {@code null} when
+     * metrics are disabled.
+     */
+    DagScheduler.RunObserver planned(String transport, int instructions, ExecutionPlan plan, long planningNanos) {
+        if (registry == null) {
+            return null;
+        }
+        TransportMeters meters = transports.computeIfAbsent(transport, TransportMeters::new);
+        meters.programSize.record(instructions);
+        meters.planNodes.record(plan.nodeCount());
+        meters.criticalPath.record(plan.criticalPathLength());
+        meters.planning.record(planningNanos, TimeUnit.NANOSECONDS);
+        return new RunMeters(meters, plan.nodeCount());
+    }
+
+    private final class TransportMeters {
+        private final DistributionSummary programSize;
+        private final DistributionSummary planNodes;
+        private final DistributionSummary criticalPath;
+        private final Timer planning;
+        private final Timer duration;
+        private final Timer computing;
+        private final Timer waiting;
+        private final DistributionSummary parallelism;
+        private final DistributionSummary shortCircuit;
+        private final DistributionSummary instant;
+        private final Timer queueDelay;
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+
+        private TransportMeters(String transport) {
+            programSize = summary("calculator.execution.program.size", transport, "instructions",
+                    "Instructions in a received program");
+            planNodes = summary("calculator.execution.plan.nodes", transport, "nodes",
+                    "Plan nodes the prints of a program need");
+            criticalPath = summary("calculator.execution.plan.critical-path", transport, "nodes",
+                    "Longest chain of dependent operations in a plan");
+            planning = timer("calculator.execution.planning", transport,
+                    "Compiling a program into a plan and admitting it");
+            duration = timer("calculator.execution.duration", transport,
+                    "From the start of a run to its last computed node");
+            computing = timer("calculator.execution.computing", transport,
+                    "Time spent inside operations, summed over the nodes of a run");
+            waiting = timer("calculator.execution.waiting", transport,
+                    "Time ready nodes waited for a worker, summed over the nodes of a run");
+            parallelism = summary("calculator.execution.parallelism", transport, "operations",
+                    "Operations running at once on average over a run");
+            shortCircuit = summary("calculator.execution.short-circuit", transport, "percent",
+                    "Plan nodes of a run settled by lazy short circuit");
+            instant = summary("calculator.execution.instant", transport, "percent",
+                    "Plan nodes of a run computed instantly by a short-circuit rule");
+            queueDelay = timer("calculator.executor.queue.delay", transport,
+                    "Time a worker waited in the executor queue before it started");
+            Gauge.builder("calculator.executor.active", activeWorkers, AtomicInteger::get)
+                    .tag("transport", transport)
+                    .baseUnit("threads")
+                    .description("Workers running operations right now")
+                    .register(registry);
+        }
+
+        private DistributionSummary summary(String name, String transport, String baseUnit, String description) {
+            return DistributionSummary.builder(name)
+                    .tag("transport", transport)
+                    .baseUnit(baseUnit)
+                    .description(description)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private Timer timer(String name, String transport, String description) {
+            return Timer.builder(name)
+                    .tag("transport", transport)
+                    .description(description)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+
+    private record RunMeters(TransportMeters meters, int nodeCount) implements DagScheduler.RunObserver {
+
+        @Override
+        public void workerStarted(long queueDelayNanos) {
+            meters.queueDelay.record(queueDelayNanos, TimeUnit.NANOSECONDS);
+            meters.activeWorkers.incrementAndGet();
+        }
+
+        @Override
+        public void workerStopped() {
+            meters.activeWorkers.decrementAndGet();
+        }
+
+        @Override
+        public void runFinished(DagScheduler.RunStatistics statistics) {
+            meters.duration.record(statistics.elapsedNanos(), TimeUnit.NANOSECONDS);
+            meters.computing.record(statistics.computingNanos(), TimeUnit.NANOSECONDS);
+            meters.waiting.record(statistics.waitingNanos(), TimeUnit.NANOSECONDS);
+            if (statistics.elapsedNanos() > 0) {
+                meters.parallelism.record((double) statistics.computingNanos() / statistics.elapsedNanos());
+            }
+            meters.shortCircuit.record(
+                    100.0 * (statistics.absorbedNodes() + statistics.skippedNodes()) / nodeCount);
+            meters.instant.record(100.0 * statistics.instantNodes() / nodeCount);
+        }
+    }
+}
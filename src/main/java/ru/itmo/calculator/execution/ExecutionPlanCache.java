@@ -0,0 +1,131 @@
+package ru.itmo.calculator.execution;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.itmo.calculator.config.PlanCacheProperties;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+
+/**
+ * Bounded LRU cache of compiled plans keyed by program structure.
+ *
+ * <p>The key is {@link ParsedProgram#key()}, so programs that differ only in variable names or literal values share
+ * an entry. A hit rebinds the cached plan to the names and literals of the request and skips reachability,
+ * topological sorting and the optimizer passes. Invalid programs are never cached and fail on every call.
+ *
+ * <p>Entries are evicted in least-recently-used order once either the entry count or the total weight (plan nodes
+ * plus key length) exceeds its bound. A {@code maxEntries} of {@code 0} disables caching.
+ */
+@Component
+public class ExecutionPlanCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_MAX_WEIGHT = 1_000_000;
+
+    private final ExecutionPlanCompiler compiler = new ExecutionPlanCompiler();
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<ParsedProgram.Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long weight;
+
+    @Autowired
+    public ExecutionPlanCache(PlanCacheProperties properties) {
+        this(properties.maxEntries(), properties.maxWeight());
+    }
+
+    public ExecutionPlanCache(int maxEntries, long maxWeight) {
+        if (maxEntries < 0 || maxWeight < 0) {
+            throw new IllegalArgumentException("Plan cache bounds must not be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns the plan for the program, compiling it only if no program with the same structure is cached.
+     */
+    public ExecutionPlan compile(List<Instruction> instructions) {
+        return compile(ParsedProgram.parse(instructions));
+    }
+
+    ExecutionPlan compile(ParsedProgram program) {
+        if (maxEntries == 0) {
+            return compiler.compileTemplate(program).plan();
+        }
+
+        PlanTemplate cached = lookup(program.key());
+        if (cached != null) {
+            return cached.bind(program);
+        }
+
+        PlanTemplate template = compiler.compileTemplate(program);
+        store(program.key(), template);
+        return template.plan();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private synchronized PlanTemplate lookup(ParsedProgram.Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.template();
+    }
+
+    private synchronized void store(ParsedProgram.Key key, PlanTemplate template) {
+        int entryWeight = template.weight(key);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(template, entryWeight));
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+        weight += entryWeight;
+        puts.increment();
+
+        Iterator<Map.Entry<ParsedProgram.Key, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries || weight > maxWeight) {
+            weight -= eldest.next().getValue().weight();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry(PlanTemplate template, int weight) {
+    }
+}
@@ -0,0 +1,57 @@
+package ru.itmo.calculator.execution;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the standard {@code cache.*} meters of the {@link ExecutionPlanCache} under {@code cache=execution-plans},
+ * plus {@code cache.weight} for the weight bound.
+ */
+@Component
+public class ExecutionPlanCacheMetrics extends CacheMeterBinder<ExecutionPlanCache> {
+
+    public ExecutionPlanCacheMetrics(ExecutionPlanCache cache) {
+        super(cache, "execution-plans", Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        ExecutionPlanCache cache = getCache();
+        return cache == null ? null : (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        ExecutionPlanCache cache = getCache();
+        return cache == null ? 0 : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        ExecutionPlanCache cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        ExecutionPlanCache cache = getCache();
+        return cache == null ? null : cache.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        ExecutionPlanCache cache = getCache();
+        return cache == null ? 0 : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.weight", getCache(), ExecutionPlanCache::weight)
+                .tags(getTagsWithCacheName())
+                .description("Total weight of cached plans: plan nodes plus program key length")
+                .register(registry);
+    }
+}
@@ -0,0 +1,610 @@
+package ru.itmo.calculator.execution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+
+/**
+ * Compiles instruction lists into an {@link ExecutionPlan}.
+ *
+ * <p>Variable names are interned to dense int slots in a single pass ({@link ParsedProgram}); reachability,
+ * topological sorting and the resulting plan work on primitive arrays only.
+ *
+ * <p>Before the plan is frozen, compiler passes prune operands absorbed by a known zero, merge {@code calc}
+ * instructions that repeat the same computation under different names and rebalance long {@code +}/{@code *}
+ * chains into shallow trees.
+ */
+public class ExecutionPlanCompiler {
+
+    private static final int UNDEFINED = -1;
+
+    public ExecutionPlan compile(List<Instruction> instructions) {
+        return compileTemplate(ParsedProgram.parse(instructions)).plan();
+    }
+
+    /**
+     * Compiles a parsed program into a plan bound to its own names and literals, and keeps what is needed to bind
+     * the same plan to any program with an equal {@link ParsedProgram#key() key}.
+     */
+    PlanTemplate compileTemplate(ParsedProgram program) {
+        int[] definitions = new int[program.names.size()];
+        Arrays.fill(definitions, UNDEFINED);
+        for (int calc = 0; calc < program.calcCount; calc++) {
+            int slot = program.calcSlots[calc];
+            if (definitions[slot] != UNDEFINED) {
+                throw new IllegalArgumentException("Variable is already defined: " + program.names.get(slot));
+            }
+            definitions[slot] = calc;
+        }
+
+        if (program.printSlots.length == 0) {
+            return PlanTemplate.empty();
+        }
+
+        return buildExecutionPlan(program, definitions);
+    }
+
+    private PlanTemplate buildExecutionPlan(ParsedProgram program, int[] definitions) {
+        List<String> names = program.names;
+        int[] printSlots = program.printSlots;
+        byte[] calcKinds = program.calcKinds;
+        long[] calcLeft = program.calcLeft;
+        long[] calcRight = program.calcRight;
+        int slotCount = names.size();
+        int[] nodeOfSlot = new int[slotCount];
+        Arrays.fill(nodeOfSlot, UNDEFINED);
+        int[] slotOfNode = new int[slotCount];
+        int nodeCount = 0;
+
+        int[] stack = new int[slotCount];
+        int top = 0;
+        for (int slot : printSlots) {
+            if (nodeOfSlot[slot] == UNDEFINED) {
+                nodeOfSlot[slot] = nodeCount;
+                slotOfNode[nodeCount++] = slot;
+                stack[top++] = slot;
+            }
+        }
+
+        while (top > 0) {
+            int slot = stack[--top];
+            int calc = definitions[slot];
+            if (calc == UNDEFINED) {
+                throw new IllegalArgumentException("Variable is never calculated: " + names.get(slot));
+            }
+            for (int side = 0; side < 2; side++) {
+                byte literalFlag = side == 0 ? ExecutionPlan.LEFT_LITERAL : ExecutionPlan.RIGHT_LITERAL;
+                if ((calcKinds[calc] & literalFlag) != 0) {
+                    continue;
+                }
+                int dependency = (int) (side == 0 ? calcLeft[calc] : calcRight[calc]);
+                if (nodeOfSlot[dependency] == UNDEFINED) {
+                    nodeOfSlot[dependency] = nodeCount;
+                    slotOfNode[nodeCount++] = dependency;
+                    stack[top++] = dependency;
+                }
+            }
+        }
+
+        NodeTable nodes = new NodeTable(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            int slot = slotOfNode[node];
+            int calc = definitions[slot];
+            byte kinds = calcKinds[calc];
+            nodes.slots[node] = slot;
+            nodes.opcodes[node] = program.calcOpcodes[calc];
+            nodes.kinds[node] = kinds;
+            if ((kinds & ExecutionPlan.LEFT_LITERAL) != 0) {
+                nodes.left[node] = calcLeft[calc];
+                nodes.leftSources[node] = program.calcLeftParameters[calc];
+            } else {
+                nodes.left[node] = nodeOfSlot[(int) calcLeft[calc]];
+            }
+            if ((kinds & ExecutionPlan.RIGHT_LITERAL) != 0) {
+                nodes.right[node] = calcRight[calc];
+                nodes.rightSources[node] = program.calcRightParameters[calc];
+            } else {
+                nodes.right[node] = nodeOfSlot[(int) calcRight[calc]];
+            }
+        }
+
+        String[] printVariables = new String[printSlots.length];
+        int[] printNodes = new int[printSlots.length];
+        for (int i = 0; i < printSlots.length; i++) {
+            printVariables[i] = names.get(printSlots[i]);
+            printNodes[i] = nodeOfSlot[printSlots[i]];
+        }
+
+        // Validation runs on the full graph, so pruning below never hides a cycle or an undefined variable.
+        Links links = link(nodes);
+        int detached = pruneAbsorbedOperands(nodes, links.executionOrder());
+        int merged = mergeCommonSubexpressions(nodes, links.executionOrder(), printNodes);
+        if (detached + merged > 0) {
+            nodes = retainReachable(nodes, links.executionOrder(), printNodes);
+            links = link(nodes);
+        }
+        if (rebalanceAssociativeChains(nodes, links, printNodes) > 0) {
+            links = link(nodes);
+        }
+
+        int[] bottomLevels = computeBottomLevels(links.executionOrder(), links.dependentOffsets(), links.dependents());
+
+        String[] nodeVariables = new String[nodes.size()];
+        for (int node = 0; node < nodes.size(); node++) {
+            nodeVariables[node] = names.get(nodes.slots[node]);
+        }
+
+        ExecutionPlan plan = new ExecutionPlan(
+                nodeVariables,
+                nodes.opcodes,
+                nodes.kinds,
+                nodes.left,
+                nodes.right,
+                links.dependentOffsets(),
+                links.dependents(),
+                links.indegree(),
+                links.executionOrder(),
+                bottomLevels,
+                printVariables,
+                printNodes,
+                nodes.partial,
+                merged);
+        return new PlanTemplate(plan, nodes.slots, nodes.leftSources, nodes.rightSources);
+    }
+
+    private Links link(NodeTable nodes) {
+        int nodeCount = nodes.size();
+        int[] indegree = new int[nodeCount];
+        int[] dependentOffsets = new int[nodeCount + 1];
+
+        for (int node = 0; node < nodeCount; node++) {
+            if (!nodes.isLeftLiteral(node)) {
+                indegree[node]++;
+                dependentOffsets[(int) nodes.left[node] + 1]++;
+            }
+            if (!nodes.isRightLiteral(node)) {
+                indegree[node]++;
+                dependentOffsets[(int) nodes.right[node] + 1]++;
+            }
+        }
+
+        for (int node = 0; node < nodeCount; node++) {
+            dependentOffsets[node + 1] += dependentOffsets[node];
+        }
+        int[] dependents = new int[dependentOffsets[nodeCount]];
+        int[] fill = Arrays.copyOf(dependentOffsets, nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            if (!nodes.isLeftLiteral(node)) {
+                dependents[fill[(int) nodes.left[node]]++] = node;
+            }
+            if (!nodes.isRightLiteral(node)) {
+                dependents[fill[(int) nodes.right[node]]++] = node;
+            }
+        }
+
+        int[] executionOrder = topologicallySort(indegree, dependentOffsets, dependents);
+        return new Links(dependentOffsets, dependents, indegree, executionOrder);
+    }
+
+    /**
+     * Propagates values known at plan time through the short-circuit rules and detaches operands that can never
+     * affect the result, e.g. {@code z} in {@code w = z * 0} or in {@code w = z * k} where {@code k = 0 + 0}.
+     * A detached operand is replaced with the absorbing literal, so the node still short-circuits at runtime.
+     *
+     * @return number of detached operands
+     */
+    private int pruneAbsorbedOperands(NodeTable nodes, int[] executionOrder) {
+        boolean[] known = new boolean[nodes.size()];
+        long[] constants = new long[nodes.size()];
+        int detached = 0;
+
+        for (int node : executionOrder) {
+            boolean leftLiteral = nodes.isLeftLiteral(node);
+            boolean rightLiteral = nodes.isRightLiteral(node);
+            boolean leftKnown = leftLiteral || known[(int) nodes.left[node]];
+            boolean rightKnown = rightLiteral || known[(int) nodes.right[node]];
+            long leftValue = leftLiteral ? nodes.left[node] : leftKnown ? constants[(int) nodes.left[node]] : 0;
+            long rightValue = rightLiteral ? nodes.right[node] : rightKnown ? constants[(int) nodes.right[node]] : 0;
+            ArithmeticOp op = nodes.op(node);
+
+            if (leftKnown && ShortCircuitRules.isAbsorbing(op, leftValue)) {
+                if (!rightLiteral) {
+                    nodes.detachRight(node, leftValue);
+                    detached++;
+                }
+                rightValue = leftValue;
+                rightKnown = true;
+            } else if (rightKnown && ShortCircuitRules.isAbsorbing(op, rightValue)) {
+                if (!leftLiteral) {
+                    nodes.detachLeft(node, rightValue);
+                    detached++;
+                }
+                leftValue = rightValue;
+                leftKnown = true;
+            }
+
+            if (leftKnown && rightKnown && ShortCircuitRules.isInstant(op, leftValue, rightValue)) {
+                known[node] = true;
+                constants[node] = switch (op) {
+                    case ADD -> leftValue + rightValue;
+                    case SUBTRACT -> leftValue - rightValue;
+                    case MULTIPLY -> leftValue * rightValue;
+                };
+            }
+        }
+
+        return detached;
+    }
+
+    /**
+     * Hash-conses nodes by their shape: opcode and operands, where variable operands are already replaced with
+     * their representative and operands of {@code +} and {@code *} are put in a canonical order. A node with the
+     * shape of an earlier node is merged into it: its dependents and prints are redirected to the representative,
+     * and the node itself becomes unreachable.
+     *
+     * @return number of merged nodes
+     */
+    private int mergeCommonSubexpressions(NodeTable nodes, int[] executionOrder, int[] printNodes) {
+        int[] representatives = new int[nodes.size()];
+        Map<NodeShape, Integer> nodesByShape = new HashMap<>();
+        int merged = 0;
+
+        for (int node : executionOrder) {
+            if (!nodes.isLeftLiteral(node)) {
+                nodes.left[node] = representatives[(int) nodes.left[node]];
+            }
+            if (!nodes.isRightLiteral(node)) {
+                nodes.right[node] = representatives[(int) nodes.right[node]];
+            }
+            Integer existing = nodesByShape.putIfAbsent(NodeShape.of(nodes, node), node);
+            if (existing == null) {
+                representatives[node] = node;
+            } else {
+                representatives[node] = existing;
+                merged++;
+            }
+        }
+
+        if (merged > 0) {
+            for (int i = 0; i < printNodes.length; i++) {
+                printNodes[i] = representatives[printNodes[i]];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Rebuilds chains of {@code +} or {@code *} into trees of minimal depth. A chain is a tree of nodes with the same
+     * operation whose intermediate nodes have a single consumer and are not printed; {@code x - c} with a literal
+     * {@code c} joins addition chains as {@code x + (-c)}, which is exact under wrapping {@code long} arithmetic.
+     *
+     * <p>The operands of a chain are combined two at a time, always the two that are ready earliest, so the rebuilt
+     * chain finishes as soon as its inputs allow. A chain is only rewritten when this makes it shallower. Rebuilt
+     * nodes reuse the slots of the chain: the root keeps its identity and dependents, while the intermediate nodes
+     * keep the names of the original intermediate variables but hold partial results.
+     *
+     * @return number of rebuilt chains
+     */
+    private int rebalanceAssociativeChains(NodeTable nodes, Links links, int[] printNodes) {
+        int nodeCount = nodes.size();
+        int[] uses = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            uses[node] = links.dependentOffsets()[node + 1] - links.dependentOffsets()[node];
+        }
+        for (int node : printNodes) {
+            uses[node]++;
+        }
+
+        int[] topLevels = new int[nodeCount];
+        int[] internals = new int[nodeCount];
+        List<ChainOperand> operands = new ArrayList<>();
+        int rebuilt = 0;
+
+        for (int node : links.executionOrder()) {
+            int leftLevel = nodes.isLeftLiteral(node) ? 0 : topLevels[(int) nodes.left[node]];
+            int rightLevel = nodes.isRightLiteral(node) ? 0 : topLevels[(int) nodes.right[node]];
+            topLevels[node] = Math.max(leftLevel, rightLevel) + 1;
+
+            ArithmeticOp family = chainFamily(nodes, node);
+            if (family == null || isChainMember(nodes, links, uses, node, family)) {
+                continue;
+            }
+
+            // The root goes last, so that the final combination lands in its slot.
+            operands.clear();
+            int internalCount = 0;
+            int[] stack = {node};
+            int top = 1;
+            while (top > 0) {
+                int current = stack[--top];
+                for (int side = 0; side < 2; side++) {
+                    boolean literal = side == 0 ? nodes.isLeftLiteral(current) : nodes.isRightLiteral(current);
+                    long operand = side == 0 ? nodes.left[current] : nodes.right[current];
+                    if (literal) {
+                        int source = side == 0 ? nodes.leftSources[current] : nodes.rightSources[current];
+                        if (side == 1 && nodes.op(current) == ArithmeticOp.SUBTRACT) {
+                            operand = -operand;
+                            source = PlanTemplate.negate(source);
+                        }
+                        operands.add(new ChainOperand(0, operands.size(), true, operand, source));
+                    } else if (isChainMember(nodes, links, uses, (int) operand, family)) {
+                        internals[internalCount++] = (int) operand;
+                        if (top == stack.length) {
+                            stack = Arrays.copyOf(stack, top * 2);
+                        }
+                        stack[top++] = (int) operand;
+                    } else {
+                        operands.add(new ChainOperand(
+                                topLevels[(int) operand], operands.size(), false, operand, PlanTemplate.NO_PARAMETER));
+                    }
+                }
+            }
+            internals[internalCount++] = node;
+
+            // A chain of fewer than four operands is already as shallow as it can be.
+            if (internalCount < 3) {
+                continue;
+            }
+            PriorityQueue<ChainOperand> ready = new PriorityQueue<>(operands);
+            ChainOperand[] lefts = new ChainOperand[internalCount];
+            ChainOperand[] rights = new ChainOperand[internalCount];
+            int sequence = operands.size();
+            for (int i = 0; i < internalCount; i++) {
+                lefts[i] = ready.poll();
+                rights[i] = ready.poll();
+                int readyAt = Math.max(lefts[i].readyAt(), rights[i].readyAt()) + 1;
+                ready.add(new ChainOperand(readyAt, sequence++, false, internals[i], PlanTemplate.NO_PARAMETER));
+            }
+            int depth = ready.poll().readyAt();
+            if (depth >= topLevels[node]) {
+                continue;
+            }
+
+            for (int i = 0; i < internalCount; i++) {
+                int slot = internals[i];
+                nodes.partial[slot] = slot != node;
+                nodes.opcodes[slot] = (byte) family.ordinal();
+                nodes.kinds[slot] = (byte) ((lefts[i].literal() ? ExecutionPlan.LEFT_LITERAL : 0)
+                        | (rights[i].literal() ? ExecutionPlan.RIGHT_LITERAL : 0));
+                nodes.left[slot] = lefts[i].value();
+                nodes.right[slot] = rights[i].value();
+                nodes.leftSources[slot] = lefts[i].source();
+                nodes.rightSources[slot] = rights[i].source();
+            }
+            topLevels[node] = depth;
+            rebuilt++;
+        }
+
+        return rebuilt;
+    }
+
+    /**
+     * Returns the associative operation the node contributes to, or {@code null} if it cannot be part of a chain.
+     */
+    private static ArithmeticOp chainFamily(NodeTable nodes, int node) {
+        return switch (nodes.op(node)) {
+            case ADD, MULTIPLY -> nodes.op(node);
+            case SUBTRACT -> nodes.isRightLiteral(node) ? ArithmeticOp.ADD : null;
+        };
+    }
+
+    /**
+     * A node is an intermediate node of a chain when its only use is an operand of a node of the same family.
+     */
+    private static boolean isChainMember(NodeTable nodes, Links links, int[] uses, int node, ArithmeticOp family) {
+        if (uses[node] != 1 || links.dependentOffsets()[node + 1] == links.dependentOffsets()[node]) {
+            return false;
+        }
+        int consumer = links.dependents()[links.dependentOffsets()[node]];
+        return chainFamily(nodes, node) == family && chainFamily(nodes, consumer) == family;
+    }
+
+    /**
+     * Drops nodes that are no longer reachable from a print and renumbers the rest in topological order.
+     */
+    private NodeTable retainReachable(NodeTable nodes, int[] executionOrder, int[] printNodes) {
+        boolean[] reachable = new boolean[nodes.size()];
+        int[] stack = new int[nodes.size()];
+        int top = 0;
+        for (int node : printNodes) {
+            if (!reachable[node]) {
+                reachable[node] = true;
+                stack[top++] = node;
+            }
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            if (!nodes.isLeftLiteral(node) && !reachable[(int) nodes.left[node]]) {
+                reachable[(int) nodes.left[node]] = true;
+                stack[top++] = (int) nodes.left[node];
+            }
+            if (!nodes.isRightLiteral(node) && !reachable[(int) nodes.right[node]]) {
+                reachable[(int) nodes.right[node]] = true;
+                stack[top++] = (int) nodes.right[node];
+            }
+        }
+
+        int[] renumbered = new int[nodes.size()];
+        int retained = 0;
+        for (int node : executionOrder) {
+            renumbered[node] = reachable[node] ? retained++ : UNDEFINED;
+        }
+
+        NodeTable result = new NodeTable(retained);
+        for (int node = 0; node < nodes.size(); node++) {
+            int target = renumbered[node];
+            if (target == UNDEFINED) {
+                continue;
+            }
+            result.slots[target] = nodes.slots[node];
+            result.opcodes[target] = nodes.opcodes[node];
+            result.kinds[target] = nodes.kinds[node];
+            result.leftSources[target] = nodes.leftSources[node];
+            result.rightSources[target] = nodes.rightSources[node];
+            result.left[target] = nodes.isLeftLiteral(node) ? nodes.left[node] : renumbered[(int) nodes.left[node]];
+            result.right[target] = nodes.isRightLiteral(node) ? nodes.right[node] : renumbered[(int) nodes.right[node]];
+        }
+        for (int i = 0; i < printNodes.length; i++) {
+            printNodes[i] = renumbered[printNodes[i]];
+        }
+        return result;
+    }
+
+    private int[] topologicallySort(int[] indegree, int[] dependentOffsets, int[] dependents) {
+        int nodeCount = indegree.length;
+        int[] remaining = indegree.clone();
+        int[] order = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+
+        for (int node = 0; node < nodeCount; node++) {
+            if (remaining[node] == 0) {
+                order[tail++] = node;
+            }
+        }
+
+        while (head < tail) {
+            int node = order[head++];
+            for (int i = dependentOffsets[node]; i < dependentOffsets[node + 1]; i++) {
+                int dependent = dependents[i];
+                if (--remaining[dependent] == 0) {
+                    order[tail++] = dependent;
+                }
+            }
+        }
+
+        if (tail != nodeCount) {
+            throw new IllegalArgumentException("Cyclic dependency detected in required variables");
+        }
+
+        return order;
+    }
+
+    /**
+     * Walks the topological order backwards so that every dependent is final before its inputs are visited. Each
+     * node costs one operation; every required node reaches a print, so the sinks are exactly the printed nodes.
+     */
+    private int[] computeBottomLevels(int[] executionOrder, int[] dependentOffsets, int[] dependents) {
+        int[] bottomLevels = new int[executionOrder.length];
+        for (int i = executionOrder.length - 1; i >= 0; i--) {
+            int node = executionOrder[i];
+            int longestTail = 0;
+            for (int j = dependentOffsets[node]; j < dependentOffsets[node + 1]; j++) {
+                longestTail = Math.max(longestTail, bottomLevels[dependents[j]]);
+            }
+            bottomLevels[node] = longestTail + 1;
+        }
+        return bottomLevels;
+    }
+
+    /**
+     * Mutable per-node arrays that compiler passes rewrite before they are frozen into an {@link ExecutionPlan}.
+     */
+    private static final class NodeTable {
+        private static final ArithmeticOp[] OPERATIONS = ArithmeticOp.values();
+
+        final int[] slots;
+        final byte[] opcodes;
+        final byte[] kinds;
+        final long[] left;
+        final long[] right;
+        final int[] leftSources;
+        final int[] rightSources;
+        final boolean[] partial;
+
+        NodeTable(int size) {
+            slots = new int[size];
+            opcodes = new byte[size];
+            kinds = new byte[size];
+            left = new long[size];
+            right = new long[size];
+            leftSources = new int[size];
+            rightSources = new int[size];
+            partial = new boolean[size];
+            Arrays.fill(leftSources, PlanTemplate.NO_PARAMETER);
+            Arrays.fill(rightSources, PlanTemplate.NO_PARAMETER);
+        }
+
+        int size() {
+            return opcodes.length;
+        }
+
+        ArithmeticOp op(int node) {
+            return OPERATIONS[opcodes[node]];
+        }
+
+        boolean isLeftLiteral(int node) {
+            return (kinds[node] & ExecutionPlan.LEFT_LITERAL) != 0;
+        }
+
+        boolean isRightLiteral(int node) {
+            return (kinds[node] & ExecutionPlan.RIGHT_LITERAL) != 0;
+        }
+
+        void detachLeft(int node, long literal) {
+            kinds[node] |= ExecutionPlan.LEFT_LITERAL;
+            left[node] = literal;
+            leftSources[node] = PlanTemplate.NO_PARAMETER;
+        }
+
+        void detachRight(int node, long literal) {
+            kinds[node] |= ExecutionPlan.RIGHT_LITERAL;
+            right[node] = literal;
+            rightSources[node] = PlanTemplate.NO_PARAMETER;
+        }
+    }
+
+    /**
+     * Key of a computation; two nodes with equal shapes always produce equal values.
+     */
+    private record NodeShape(byte opcode, byte kinds, long left, long right) {
+
+        static NodeShape of(NodeTable nodes, int node) {
+            byte kinds = nodes.kinds[node];
+            long left = nodes.left[node];
+            long right = nodes.right[node];
+            ArithmeticOp op = nodes.op(node);
+            boolean commutative = op == ArithmeticOp.ADD || op == ArithmeticOp.MULTIPLY;
+            if (commutative && precedes(right, nodes.isRightLiteral(node), left, nodes.isLeftLiteral(node))) {
+                long operand = left;
+                left = right;
+                right = operand;
+                kinds = (byte) (((kinds & ExecutionPlan.LEFT_LITERAL) << 1)
+                        | ((kinds & ExecutionPlan.RIGHT_LITERAL) >> 1));
+            }
+            return new NodeShape(nodes.opcodes[node], kinds, left, right);
+        }
+
+        /**
+         * Node references go before literals, and operands of the same kind are ordered by value.
+         */
+        private static boolean precedes(long operand, boolean literal, long other, boolean otherLiteral) {
+            if (literal != otherLiteral) {
+                return !literal;
+            }
+            return operand < other;
+        }
+    }
+
+    /**
+     * Operand of a chain being rebuilt: a literal or a node, with the time it becomes available.
+     */
+    private record ChainOperand(int readyAt, int sequence, boolean literal, long value, int source)
+            implements Comparable<ChainOperand> {
+
+        @Override
+        public int compareTo(ChainOperand other) {
+            int diff = Integer.compare(readyAt, other.readyAt);
+            return diff != 0 ? diff : Integer.compare(sequence, other.sequence);
+        }
+    }
+
+    private record Links(int[] dependentOffsets, int[] dependents, int[] indegree, int[] executionOrder) {
+    }
+}
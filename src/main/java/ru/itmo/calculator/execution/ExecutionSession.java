@@ -0,0 +1,273 @@
+package ru.itmo.calculator.execution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+
+/**
+ * Program that is built up by appending instructions.
+ *
+ * <p>Every variable that is defined or referenced gets a dense slot. Definitions are kept in parallel primitive
+ * arrays like the nodes of an {@link ExecutionPlan}: the opcode, a bitmask of literal operands and the operands
+ * themselves, where a variable operand holds the slot of the variable; computed values and bitsets of defined and
+ * computed slots sit next to them. An append only evaluates the definitions its new prints need that are not computed
+ * yet, with references to computed variables replaced by their values, so its cost does not depend on the session
+ * size.
+ *
+ * <p>Appends run one after another without blocking the caller: an append starts when the previous one has finished
+ * and the session is only locked while the append is planned and while its results are stored. An append is atomic:
+ * if it fails, neither its definitions nor any value computed for it are kept.
+ */
+final class ExecutionSession {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String id;
+    private final int maxVariables;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private byte[] opcodes = new byte[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private long[] lefts = new long[INITIAL_CAPACITY];
+    private long[] rights = new long[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private final BitSet defined = new BitSet();
+    private final BitSet computed = new BitSet();
+    private int variableCount;
+    private CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+
+    ExecutionSession(String id, int maxVariables) {
+        this.id = id;
+        this.maxVariables = maxVariables;
+    }
+
+    String id() {
+        return id;
+    }
+
+    synchronized int variableCount() {
+        return variableCount;
+    }
+
+    /**
+     * Appends the instructions once the appends before them have finished and returns the results of the prints
+     * among them. Plans after the first start from the worker that finished the previous append, on behalf of the
+     * client that sent them.
+     */
+    synchronized CompletableFuture<List<PrintResult>> append(
+            List<Instruction> instructions, InstructionExecutionService executionService) {
+        ExecutionClient.Binding client = ExecutionClient.capture();
+        CompletableFuture<List<PrintResult>> appended = last
+                .handle((ignored, error) -> null)
+                .thenCompose(ignored -> {
+                    try (ExecutionClient.Scope scope = ExecutionClient.enter(client)) {
+                        return start(instructions, executionService);
+                    }
+                });
+        last = appended;
+        // Cancelling what the caller gets must not let the next append start before this one is stored.
+        return appended.copy();
+    }
+
+    private synchronized CompletableFuture<List<PrintResult>> start(
+            List<Instruction> instructions, InstructionExecutionService executionService) {
+        Map<String, CalcInstruction> added = new LinkedHashMap<>();
+        List<String> prints = new ArrayList<>();
+        for (Instruction instruction : instructions) {
+            if (instruction instanceof CalcInstruction calc) {
+                if (isDefined(calc.var()) || added.putIfAbsent(calc.var(), calc) != null) {
+                    throw new IllegalArgumentException("Variable is already defined: " + calc.var());
+                }
+            } else if (instruction instanceof PrintInstruction print) {
+                prints.add(print.var());
+            }
+        }
+        if (variableCount + added.size() > maxVariables) {
+            throw new IllegalArgumentException("Session variable limit exceeded: " + maxVariables);
+        }
+
+        ParsedProgram program = pendingProgram(prints, added);
+        if (program == null) {
+            return CompletableFuture.completedFuture(commit(added, Map.of(), prints));
+        }
+        Map<String, Long> results = new HashMap<>();
+        return executionService.start(program, null, results::put)
+                .thenApply(ignored -> commit(added, results, prints));
+    }
+
+    /**
+     * Keeps the definitions and the computed values of a successful append and returns the values of its prints.
+     */
+    private synchronized List<PrintResult> commit(
+            Map<String, CalcInstruction> added, Map<String, Long> results, List<String> prints) {
+        added.values().forEach(this::define);
+        results.forEach((var, value) -> {
+            int slot = slots.get(var);
+            values[slot] = value;
+            computed.set(slot);
+        });
+
+        List<PrintResult> printed = new ArrayList<>(prints.size());
+        for (String var : prints) {
+            printed.add(new PrintResult(var, values[slots.get(var)]));
+        }
+        return printed;
+    }
+
+    /**
+     * Collects the definitions the prints depend on that are not computed yet, and prints for the uncomputed
+     * printed variables, or returns {@code null} when every printed variable is computed already. Validation of what
+     * is collected is left to the compiler.
+     */
+    private ParsedProgram pendingProgram(List<String> prints, Map<String, CalcInstruction> added) {
+        ParsedProgram.Builder program = null;
+        Set<String> visited = new HashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        for (String var : prints) {
+            if (!isComputed(var)) {
+                stack.push(var);
+            }
+        }
+
+        while (!stack.isEmpty()) {
+            String var = stack.pop();
+            if (!visited.add(var)) {
+                continue;
+            }
+            if (program == null) {
+                program = new ParsedProgram.Builder(prints.size());
+            }
+            CalcInstruction definition = added.get(var);
+            if (definition != null) {
+                program.calc(var, definition.op(),
+                        bindName(definition.left(), stack), bindValue(definition.left()),
+                        bindName(definition.right(), stack), bindValue(definition.right()));
+                continue;
+            }
+            Integer slot = slots.get(var);
+            if (slot == null || !defined.get(slot)) {
+                throw new IllegalArgumentException("Variable is never calculated: " + var);
+            }
+            boolean leftLiteral = (kinds[slot] & ExecutionPlan.LEFT_LITERAL) != 0;
+            boolean rightLiteral = (kinds[slot] & ExecutionPlan.RIGHT_LITERAL) != 0;
+            program.calc(var, ArithmeticOp.values()[opcodes[slot]],
+                    bindName(leftLiteral, lefts[slot], stack), bindValue(leftLiteral, lefts[slot]),
+                    bindName(rightLiteral, rights[slot], stack), bindValue(rightLiteral, rights[slot]));
+        }
+
+        if (program != null) {
+            for (String var : prints) {
+                if (!isComputed(var)) {
+                    program.print(var);
+                }
+            }
+        }
+        return program == null ? null : program.build();
+    }
+
+    /**
+     * Returns the name of a variable operand that is not computed yet, scheduling it for collection, or {@code null}
+     * when the operand is passed to the program as a literal.
+     */
+    private String bindName(Operand operand, Deque<String> stack) {
+        if (operand instanceof VariableOperand variable && !isComputed(variable.name())) {
+            stack.push(variable.name());
+            return variable.name();
+        }
+        return null;
+    }
+
+    private String bindName(boolean literal, long operand, Deque<String> stack) {
+        if (literal || computed.get((int) operand)) {
+            return null;
+        }
+        String name = names.get((int) operand);
+        stack.push(name);
+        return name;
+    }
+
+    private long bindValue(Operand operand) {
+        if (operand instanceof LiteralOperand literal) {
+            return literal.value();
+        }
+        Integer slot = slots.get(((VariableOperand) operand).name());
+        return slot != null && computed.get(slot) ? values[slot] : 0;
+    }
+
+    private long bindValue(boolean literal, long operand) {
+        return literal ? operand : computed.get((int) operand) ? values[(int) operand] : 0;
+    }
+
+    private boolean isDefined(String var) {
+        Integer slot = slots.get(var);
+        return slot != null && defined.get(slot);
+    }
+
+    private boolean isComputed(String var) {
+        Integer slot = slots.get(var);
+        return slot != null && computed.get(slot);
+    }
+
+    private void define(CalcInstruction definition) {
+        int slot = slot(definition.var());
+        byte literals = 0;
+        if (definition.left() instanceof LiteralOperand left) {
+            literals |= ExecutionPlan.LEFT_LITERAL;
+            lefts[slot] = left.value();
+        }
+        if (definition.right() instanceof LiteralOperand right) {
+            literals |= ExecutionPlan.RIGHT_LITERAL;
+            rights[slot] = right.value();
+        }
+        // Interning an operand may grow the arrays, so its slot is stored only afterwards.
+        if (definition.left() instanceof VariableOperand left) {
+            int operand = slot(left.name());
+            lefts[slot] = operand;
+        }
+        if (definition.right() instanceof VariableOperand right) {
+            int operand = slot(right.name());
+            rights[slot] = operand;
+        }
+        opcodes[slot] = (byte) definition.op().ordinal();
+        kinds[slot] = literals;
+        defined.set(slot);
+        variableCount++;
+    }
+
+    private int slot(String var) {
+        Integer existing = slots.get(var);
+        if (existing != null) {
+            return existing;
+        }
+        int slot = names.size();
+        if (slot == opcodes.length) {
+            int capacity = slot * 2;
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        slots.put(var, slot);
+        names.add(var);
+        return slot;
+    }
+}
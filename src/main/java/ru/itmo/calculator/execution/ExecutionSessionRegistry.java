@@ -0,0 +1,84 @@
+package ru.itmo.calculator.execution;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ru.itmo.calculator.config.SessionProperties;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.exception.SessionNotFoundException;
+
+/**
+ * Live incremental execution sessions.
+ *
+ * <p>A session is discarded once it has not been accessed for the idle timeout or when the number of sessions
+ * exceeds its bound; afterwards it behaves as if it had been closed.
+ */
+@Service
+public class ExecutionSessionRegistry {
+
+    private final InstructionExecutionService executionService;
+    private final int maxVariables;
+    private final Cache<String, ExecutionSession> sessions;
+
+    @Autowired
+    public ExecutionSessionRegistry(InstructionExecutionService executionService, SessionProperties properties) {
+        this(executionService, properties.idleTimeout(), properties.maxSessions(), properties.maxVariables());
+    }
+
+    public ExecutionSessionRegistry(
+            InstructionExecutionService executionService,
+            Duration idleTimeout,
+            long maxSessions,
+            int maxVariables) {
+        if (!idleTimeout.isPositive() || maxSessions <= 0 || maxVariables <= 0) {
+            throw new IllegalArgumentException("Session limits must be positive");
+        }
+        this.executionService = executionService;
+        this.maxVariables = maxVariables;
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maxSessions)
+                .build();
+    }
+
+    /**
+     * Opens an empty session and returns its id.
+     */
+    public String create() {
+        String id = UUID.randomUUID().toString();
+        sessions.put(id, new ExecutionSession(id, maxVariables));
+        return id;
+    }
+
+    /**
+     * Appends instructions to the session once its earlier appends have finished and returns the results of the
+     * prints among them without waiting for the execution. An unknown session is reported right away.
+     */
+    public CompletableFuture<List<PrintResult>> append(String sessionId, List<Instruction> instructions) {
+        return session(sessionId).append(instructions, executionService);
+    }
+
+    public void close(String sessionId) {
+        if (sessions.asMap().remove(sessionId) == null) {
+            throw new SessionNotFoundException(sessionId);
+        }
+    }
+
+    public long size() {
+        return sessions.estimatedSize();
+    }
+
+    private ExecutionSession session(String sessionId) {
+        ExecutionSession session = sessions.getIfPresent(sessionId);
+        if (session == null) {
+            throw new SessionNotFoundException(sessionId);
+        }
+        return session;
+    }
+}
@@ -0,0 +1,141 @@
+package ru.itmo.calculator.execution;
+
+import java.time.Duration;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.ExecutionPlan;
+
+/**
+ * Replays an {@link ExecutionPlan} on a virtual clock: a discrete-event simulation in which every operation takes its
+ * cost from an {@link OperationCostModel} without any real waiting, so capacity questions about large programs are
+ * answered in milliseconds.
+ *
+ * <p>Workers pick ready nodes with the same cost-weighted HLFET priority as {@link DagScheduler}, and operations that
+ * {@link ShortCircuitRules} finish instantly cost nothing. Lazy short-circuiting at run time is not replayed: a zero
+ * multiplier waits for its other input, so for such programs the makespan is an upper bound.
+ */
+final class ExecutionSimulator {
+
+    private ExecutionSimulator() {
+    }
+
+    /**
+     * Replays the plan with at most {@code workers} operations running at a time; {@code 0} runs every ready
+     * operation at once.
+     */
+    static SimulatedExecution simulate(ExecutionPlan plan, OperationCostModel costModel, int workers) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("Number of workers must not be negative: " + workers);
+        }
+        int nodeCount = plan.nodeCount();
+        int limit = workers > 0 ? workers : Math.max(1, nodeCount);
+        long[] values = new long[nodeCount];
+        int[] pendingInputs = plan.indegree().clone();
+        ReadyQueue ready = new ReadyQueue(DagScheduler.priorities(plan, costModel));
+        for (int node = 0; node < nodeCount; node++) {
+            if (pendingInputs[node] == 0) {
+                ready.offer(node);
+            }
+        }
+
+        RunningOperations running = new RunningOperations(Math.min(limit, nodeCount));
+        long now = 0;
+        long busy = 0;
+        int executed = 0;
+        int peak = 0;
+        while (true) {
+            int node;
+            while (running.size < limit && (node = ready.poll()) >= 0) {
+                ArithmeticOp op = plan.op(node);
+                long left = plan.isLeftLiteral(node)
+                        ? plan.leftOperands()[node]
+                        : values[(int) plan.leftOperands()[node]];
+                long right = plan.isRightLiteral(node)
+                        ? plan.rightOperands()[node]
+                        : values[(int) plan.rightOperands()[node]];
+                values[node] = op.apply(left, right);
+                long cost = ShortCircuitRules.isInstant(op, left, right) ? 0 : costModel.costNanos(op);
+                running.add(now + cost, node);
+                busy += cost;
+                executed++;
+            }
+            peak = Math.max(peak, running.size);
+            if (running.size == 0) {
+                break;
+            }
+
+            now = running.earliestFinish();
+            int finished = running.poll();
+            int[] offsets = plan.dependentOffsets();
+            for (int i = offsets[finished]; i < offsets[finished + 1]; i++) {
+                int dependent = plan.dependents()[i];
+                if (--pendingInputs[dependent] == 0) {
+                    ready.offer(dependent);
+                }
+            }
+        }
+        return new SimulatedExecution(workers, Duration.ofNanos(now), executed, Duration.ofNanos(busy), peak);
+    }
+
+    /**
+     * Min-heap of running operations by finish time, then node index, so that replays are reproducible.
+     */
+    private static final class RunningOperations {
+        private final long[] finishTimes;
+        private final int[] nodes;
+        private int size;
+
+        RunningOperations(int capacity) {
+            this.finishTimes = new long[capacity];
+            this.nodes = new int[capacity];
+        }
+
+        void add(long finishTime, int node) {
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!before(finishTime, node, finishTimes[parent], nodes[parent])) {
+                    break;
+                }
+                finishTimes[index] = finishTimes[parent];
+                nodes[index] = nodes[parent];
+                index = parent;
+            }
+            finishTimes[index] = finishTime;
+            nodes[index] = node;
+        }
+
+        long earliestFinish() {
+            return finishTimes[0];
+        }
+
+        int poll() {
+            int result = nodes[0];
+            long lastTime = finishTimes[--size];
+            int lastNode = nodes[size];
+            int index = 0;
+            int half = size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < size && before(finishTimes[right], nodes[right], finishTimes[child], nodes[child])) {
+                    child = right;
+                }
+                if (!before(finishTimes[child], nodes[child], lastTime, lastNode)) {
+                    break;
+                }
+                finishTimes[index] = finishTimes[child];
+                nodes[index] = nodes[child];
+                index = child;
+            }
+            if (size > 0) {
+                finishTimes[index] = lastTime;
+                nodes[index] = lastNode;
+            }
+            return result;
+        }
+
+        private static boolean before(long time, int node, long otherTime, int otherNode) {
+            return time < otherTime || time == otherTime && node < otherNode;
+        }
+    }
+}
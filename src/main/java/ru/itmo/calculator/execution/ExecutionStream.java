@@ -0,0 +1,397 @@
+package ru.itmo.calculator.execution;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+
+/**
+ * Program that is executed while it is still being received.
+ *
+ * <p>Execution is driven by the prints received so far: a calculation starts once a received print needs it and
+ * its operands are known, either as literals or as variables computed already, even when the rest of what the print
+ * needs has not arrived yet. That happens when the chunk that completes it is received or, if it waits for a variable
+ * of a running plan, right when a worker computes that variable, without waiting for the rest of that plan.
+ * Calculations that become ready together run as one plan and share their computations; variables computed by
+ * earlier plans are passed in as literals. Every value is delivered the moment
+ * its variable is computed, tagged with the position of the print in the whole stream, so results may arrive out of
+ * print order.
+ *
+ * <p>As in a regular program, a definition may arrive after a print that uses it. A redefinition, a cycle or a print
+ * of a variable that is never defined fails the stream; values delivered before the failure stay valid. Every
+ * scheduled calculation is computed, so lazy short-circuiting only applies within a plan.
+ */
+public class ExecutionStream {
+
+    /**
+     * Receives the outcome of a stream. Methods may be called from worker threads; values are delivered without
+     * holding the lock of the stream, but the listener still runs inside the operation that computed them.
+     */
+    public interface Listener {
+        void printed(int printIndex, PrintResult result);
+
+        void failed(Throwable error);
+
+        void completed();
+    }
+
+    private final InstructionExecutionService executionService;
+    private final Listener listener;
+    // Plans after the first start from worker threads, which have no client bound.
+    private final ExecutionClient.Binding client = ExecutionClient.capture();
+    private final Map<String, CalcInstruction> definitions = new HashMap<>();
+    private final Map<String, Long> values = new HashMap<>();
+    // Prints waiting for their variable, by variable, in the order the first of them arrived.
+    private final Map<String, List<Integer>> pending = new LinkedHashMap<>();
+    // Variables some received print depends on.
+    private final Set<String> needed = new HashSet<>();
+    // Needed calculations that are defined but not ready yet, with the number of their distinct variable operands
+    // that are neither computed nor ready.
+    private final Map<String, Integer> unresolved = new HashMap<>();
+    // Waiting calculations by a variable operand they wait for.
+    private final Map<String, List<String>> dependents = new HashMap<>();
+    // Calculations whose operands are computed or ready themselves, in the order they became ready; they start
+    // together as the next plan once the chunk or the computed value that made them ready is processed.
+    private final Set<String> ready = new LinkedHashSet<>();
+    private final Set<CompletableFuture<List<PrintResult>>> running = ConcurrentHashMap.newKeySet();
+    private int printCount;
+    private boolean inputComplete;
+    private volatile boolean finished;
+
+    ExecutionStream(InstructionExecutionService executionService, Listener listener) {
+        this.executionService = executionService;
+        this.listener = listener;
+    }
+
+    /**
+     * Adds the next chunk of the program and starts every calculation that it makes ready.
+     */
+    public void append(List<Instruction> instructions) {
+        for (Delivery delivery : receive(instructions)) {
+            deliver(delivery.printIndex(), delivery.result());
+        }
+    }
+
+    /**
+     * Adds a chunk and returns the prints of variables computed already, to be delivered outside the lock.
+     */
+    private synchronized List<Delivery> receive(List<Instruction> instructions) {
+        if (finished) {
+            return List.of();
+        }
+        List<Delivery> known = new ArrayList<>();
+        try {
+            for (Instruction instruction : instructions) {
+                if (instruction instanceof CalcInstruction calc) {
+                    if (definitions.putIfAbsent(calc.var(), calc) != null) {
+                        throw new IllegalArgumentException("Variable is already defined: " + calc.var());
+                    }
+                    if (needed.contains(calc.var())) {
+                        await(calc.var(), calc);
+                        need(calc);
+                    }
+                } else if (instruction instanceof PrintInstruction print) {
+                    int index = printCount++;
+                    Long value = values.get(print.var());
+                    if (value != null) {
+                        known.add(new Delivery(index, new PrintResult(print.var(), value)));
+                    } else {
+                        pending.computeIfAbsent(print.var(), var -> new ArrayList<>()).add(index);
+                        need(print.var());
+                    }
+                }
+            }
+            startReady();
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+        return known;
+    }
+
+    /**
+     * Marks the end of the program. The listener completes once every print is delivered.
+     */
+    public synchronized void complete() {
+        if (finished) {
+            return;
+        }
+        inputComplete = true;
+        for (String var : pending.keySet()) {
+            String missing = collect(var, new LinkedHashMap<>());
+            if (missing != null) {
+                fail(new IllegalArgumentException("Variable is never calculated: " + missing));
+                return;
+            }
+        }
+        finishIfIdle();
+    }
+
+    /**
+     * Stops delivering results and cancels the plans that are still running.
+     */
+    public void cancel() {
+        finished = true;
+        for (CompletableFuture<List<PrintResult>> plan : running) {
+            plan.cancel(true);
+        }
+    }
+
+    private void need(String var) {
+        if (!needed.add(var) || values.containsKey(var)) {
+            return;
+        }
+        CalcInstruction definition = definitions.get(var);
+        if (definition != null) {
+            await(var, definition);
+            need(definition);
+        }
+    }
+
+    private void need(CalcInstruction definition) {
+        Deque<Operand> operands = new ArrayDeque<>();
+        operands.push(definition.left());
+        operands.push(definition.right());
+        while (!operands.isEmpty()) {
+            if (operands.pop() instanceof VariableOperand operand
+                    && needed.add(operand.name())
+                    && !values.containsKey(operand.name())) {
+                CalcInstruction operandDefinition = definitions.get(operand.name());
+                if (operandDefinition != null) {
+                    await(operand.name(), operandDefinition);
+                    operands.push(operandDefinition.left());
+                    operands.push(operandDefinition.right());
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes the needed calculation of {@code var} wait for its variable operands that are neither computed nor ready,
+     * or marks it ready right away when there are none.
+     */
+    private void await(String var, CalcInstruction definition) {
+        int count = 0;
+        if (definition.left() instanceof VariableOperand left && isUnresolved(left.name())) {
+            dependents.computeIfAbsent(left.name(), name -> new ArrayList<>()).add(var);
+            count++;
+        }
+        if (definition.right() instanceof VariableOperand right
+                && isUnresolved(right.name())
+                && !(definition.left() instanceof VariableOperand left && left.name().equals(right.name()))) {
+            dependents.computeIfAbsent(right.name(), name -> new ArrayList<>()).add(var);
+            count++;
+        }
+        if (count == 0) {
+            ready.add(var);
+            resolve(var);
+        } else {
+            unresolved.put(var, count);
+        }
+    }
+
+    private boolean isUnresolved(String var) {
+        return !values.containsKey(var) && !ready.contains(var);
+    }
+
+    /**
+     * Tells the calculations waiting for {@code var}, which became ready or computed, and marks ready every one that
+     * waits for nothing else, together with those that only waited for it, and so on.
+     */
+    private void resolve(String var) {
+        Deque<String> resolved = new ArrayDeque<>();
+        resolved.push(var);
+        while (!resolved.isEmpty()) {
+            List<String> waiters = dependents.remove(resolved.pop());
+            if (waiters == null) {
+                continue;
+            }
+            for (String waiter : waiters) {
+                if (unresolved.merge(waiter, -1, Integer::sum) == 0) {
+                    unresolved.remove(waiter);
+                    ready.add(waiter);
+                    resolved.push(waiter);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts one plan with every ready calculation.
+     */
+    private void startReady() {
+        if (ready.isEmpty()) {
+            return;
+        }
+        List<String> batch = new ArrayList<>(ready);
+        ready.clear();
+
+        // Every calculation is printed: its value is needed by a print or by a calculation of a later plan.
+        List<Instruction> program = new ArrayList<>(batch.size() * 2);
+        for (String var : batch) {
+            CalcInstruction definition = definitions.get(var);
+            program.add(new CalcInstruction(var, definition.op(), bind(definition.left()), bind(definition.right())));
+        }
+        for (String var : batch) {
+            program.add(new PrintInstruction(var));
+        }
+
+        CompletableFuture<List<PrintResult>> plan;
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(client)) {
+            plan = executionService.start(program, (print, result) -> computed(result.var(), result.value()), null);
+        }
+        running.add(plan);
+        plan.whenComplete((results, error) -> {
+            // Only cancel() cancels plans and it has finished the stream already, so it needs no lock.
+            if (plan.isCancelled()) {
+                running.remove(plan);
+            } else {
+                finishPlan(plan, error);
+            }
+        });
+        if (finished) {
+            // Cancelled while the plan was being started.
+            plan.cancel(true);
+        }
+    }
+
+    /**
+     * Adds the definitions {@code var} needs that are neither computed nor collected yet to {@code closure}, or
+     * returns the first variable on the way that is not defined, leaving {@code closure} unchanged.
+     */
+    private String collect(String var, Map<String, CalcInstruction> closure) {
+        Map<String, CalcInstruction> found = new LinkedHashMap<>();
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(var);
+        while (!stack.isEmpty()) {
+            String current = stack.pop();
+            if (values.containsKey(current) || closure.containsKey(current) || found.containsKey(current)) {
+                continue;
+            }
+            CalcInstruction definition = definitions.get(current);
+            if (definition == null) {
+                return current;
+            }
+            found.put(current, definition);
+            if (definition.left() instanceof VariableOperand left) {
+                stack.push(left.name());
+            }
+            if (definition.right() instanceof VariableOperand right) {
+                stack.push(right.name());
+            }
+        }
+        closure.putAll(found);
+        return null;
+    }
+
+    private Operand bind(Operand operand) {
+        if (operand instanceof VariableOperand variable) {
+            Long value = values.get(variable.name());
+            if (value != null) {
+                return new LiteralOperand(value);
+            }
+        }
+        return operand;
+    }
+
+    /**
+     * Records a value computed by a plan and starts the calculations that only waited for it as one plan. Its prints
+     * are delivered outside the lock, so a listener that blocks holds up neither the stream nor the other plans.
+     */
+    private void computed(String var, long value) {
+        List<Integer> prints;
+        synchronized (this) {
+            if (values.putIfAbsent(var, value) != null) {
+                return;
+            }
+            resolve(var);
+            prints = pending.remove(var);
+            if (!finished) {
+                try {
+                    startReady();
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+        }
+        if (prints != null) {
+            PrintResult result = new PrintResult(var, value);
+            for (int index : prints) {
+                deliver(index, result);
+            }
+        }
+    }
+
+    private void deliver(int printIndex, PrintResult result) {
+        if (!finished) {
+            listener.printed(printIndex, result);
+        }
+    }
+
+    private synchronized void finishPlan(CompletableFuture<List<PrintResult>> plan, Throwable error) {
+        running.remove(plan);
+        if (error != null) {
+            fail(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            return;
+        }
+        try {
+            startReady();
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+        finishIfIdle();
+    }
+
+    private void finishIfIdle() {
+        if (!inputComplete || !running.isEmpty() || finished) {
+            return;
+        }
+        if (pending.isEmpty()) {
+            finished = true;
+            listener.completed();
+            return;
+        }
+        // Everything is defined, yet nothing can start: what is left depends on itself. Planning what is left fails
+        // the way a regular program with the cycle does, without admitting or running anything.
+        Map<String, CalcInstruction> closure = new LinkedHashMap<>();
+        for (String var : pending.keySet()) {
+            collect(var, closure);
+        }
+        List<Instruction> program = new ArrayList<>(closure.values());
+        for (String var : pending.keySet()) {
+            program.add(new PrintInstruction(var));
+        }
+        try {
+            executionService.plan(program);
+            fail(new IllegalStateException("Nothing can start for the prints of " + pending.keySet()));
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(Throwable error) {
+        if (!finished) {
+            finished = true;
+            listener.failed(error);
+        }
+    }
+
+    private record Delivery(int printIndex, PrintResult result) {
+    }
+}
@@ -0,0 +1,189 @@
+package ru.itmo.calculator.execution;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import ru.itmo.calculator.dto.ExecutionPlan;
+
+/**
+ * Timeline of a finished execution: when it was planned, and for every plan node when it became ready, when its
+ * operation ran, on which worker thread and which nodes it read.
+ *
+ * <p>Node times are in nanoseconds from the start of planning; a node that never ran, because it was cancelled as
+ * unneeded, has a start time of {@code -1}.
+ */
+public final class ExecutionTrace {
+
+    private final long id;
+    private final String transport;
+    private final String client;
+    private final Instant startedAt;
+    private final ExecutionPlan plan;
+    private final long planningNanos;
+    private final long elapsedNanos;
+    private final long[] readyAt;
+    private final long[] startedAtNodes;
+    private final long[] finishedAt;
+    private final String[] threads;
+    private final boolean[] absorbed;
+
+    ExecutionTrace(
+            long id,
+            String transport,
+            String client,
+            Instant startedAt,
+            ExecutionPlan plan,
+            long planningNanos,
+            long elapsedNanos,
+            long[] readyAt,
+            long[] startedAtNodes,
+            long[] finishedAt,
+            String[] threads,
+            boolean[] absorbed) {
+        this.id = id;
+        this.transport = transport;
+        this.client = client;
+        this.startedAt = startedAt;
+        this.plan = plan;
+        this.planningNanos = planningNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.readyAt = readyAt;
+        this.startedAtNodes = startedAtNodes;
+        this.finishedAt = finishedAt;
+        this.threads = threads;
+        this.absorbed = absorbed;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    /**
+     * What the trace is about, without its nodes.
+     */
+    public Map<String, Object> summary() {
+        int executed = 0;
+        for (long started : startedAtNodes) {
+            if (started >= 0) {
+                executed++;
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", id);
+        summary.put("startedAt", startedAt.toString());
+        summary.put("transport", transport);
+        summary.put("client", client);
+        summary.put("nodes", plan.nodeCount());
+        summary.put("executedNodes", executed);
+        summary.put("criticalPath", plan.criticalPathLength());
+        summary.put("planningNanos", planningNanos);
+        summary.put("elapsedNanos", elapsedNanos);
+        return summary;
+    }
+
+    /**
+     * The trace in the Chrome trace-event format, which {@code chrome://tracing} and Perfetto open: planning and every
+     * executed node are complete events on the track of their thread, and every input a node read is a flow arrow
+     * from the end of the input to the start of the node. Times are in microseconds from the start of planning.
+     */
+    public Map<String, Object> toChromeTrace() {
+        List<Map<String, Object>> events = new ArrayList<>();
+        events.add(metadata("process_name", 0, "execution " + id + " (" + transport + ", " + client + ")"));
+        events.add(metadata("thread_name", 0, "planning"));
+        events.add(complete("planning", "planning", 0, 0, planningNanos, Map.of("nodes", plan.nodeCount())));
+
+        Map<String, Integer> threadIds = new HashMap<>();
+        int[] nodeThreadIds = new int[plan.nodeCount()];
+        for (int node = 0; node < plan.nodeCount(); node++) {
+            if (startedAtNodes[node] < 0) {
+                continue;
+            }
+            Integer threadId = threadIds.get(threads[node]);
+            if (threadId == null) {
+                threadId = threadIds.size() + 1;
+                threadIds.put(threads[node], threadId);
+                events.add(metadata("thread_name", threadId, threads[node]));
+            }
+            nodeThreadIds[node] = threadId;
+        }
+
+        int flow = 0;
+        for (int node = 0; node < plan.nodeCount(); node++) {
+            if (startedAtNodes[node] < 0) {
+                continue;
+            }
+            List<String> inputs = new ArrayList<>(2);
+            for (int side = 0; side < 2; side++) {
+                boolean literal = side == 0 ? plan.isLeftLiteral(node) : plan.isRightLiteral(node);
+                if (literal) {
+                    continue;
+                }
+                int input = (int) (side == 0 ? plan.leftOperands()[node] : plan.rightOperands()[node]);
+                inputs.add(plan.nodeName(input));
+                if (startedAtNodes[input] >= 0) {
+                    // The arrow leaves the input where its value became available, at the end of its slice.
+                    events.add(flow("s", flow, nodeThreadIds[input], finishedAt[input]));
+                    events.add(flow("f", flow, nodeThreadIds[node], startedAtNodes[node]));
+                    flow++;
+                }
+            }
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("node", node);
+            args.put("inputs", inputs);
+            args.put("queuedMicros", micros(startedAtNodes[node] - readyAt[node]));
+            args.put("absorbed", absorbed[node]);
+            events.add(complete(plan.nodeName(node), plan.op(node).name().toLowerCase(Locale.ROOT),
+                    nodeThreadIds[node], startedAtNodes[node], finishedAt[node] - startedAtNodes[node], args));
+        }
+
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceEvents", events);
+        trace.put("displayTimeUnit", "ms");
+        trace.put("otherData", summary());
+        return trace;
+    }
+
+    private static Map<String, Object> metadata(String name, int threadId, String value) {
+        Map<String, Object> event = event(name, "M", threadId);
+        event.put("args", Map.of("name", value));
+        return event;
+    }
+
+    private static Map<String, Object> complete(
+            String name, String category, int threadId, long startNanos, long durationNanos, Map<String, ?> args) {
+        Map<String, Object> event = event(name, "X", threadId);
+        event.put("cat", category);
+        event.put("ts", micros(startNanos));
+        event.put("dur", micros(durationNanos));
+        event.put("args", args);
+        return event;
+    }
+
+    private static Map<String, Object> flow(String phase, int id, int threadId, long atNanos) {
+        Map<String, Object> event = event("input", phase, threadId);
+        event.put("cat", "dependency");
+        event.put("id", id);
+        event.put("ts", micros(atNanos));
+        if (phase.equals("f")) {
+            event.put("bp", "e");
+        }
+        return event;
+    }
+
+    private static Map<String, Object> event(String name, String phase, int threadId) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("name", name);
+        event.put("ph", phase);
+        event.put("pid", 1);
+        event.put("tid", threadId);
+        return event;
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.itmo.calculator.execution;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/executiontraces} lists the traces kept by {@link ExecutionTracer}, newest first, and
+ * {@code /actuator/executiontraces/{id}} returns one of them as Chrome trace-event JSON.
+ */
+@Component
+@Endpoint(id = "executiontraces")
+public class ExecutionTraceEndpoint {
+
+    private final ExecutionTracer tracer;
+
+    public ExecutionTraceEndpoint(ExecutionTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> traces() {
+        return tracer.traces().stream().map(ExecutionTrace::summary).toList();
+    }
+
+    /**
+     * Returns the trace with {@code id}, or {@code null}, answered with 404, when it is no longer kept.
+     */
+    @ReadOperation
+    public Map<String, Object> trace(@Selector long id) {
+        ExecutionTrace trace = tracer.trace(id);
+        return trace == null ? null : trace.toChromeTrace();
+    }
+}
@@ -0,0 +1,168 @@
+package ru.itmo.calculator.execution;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.itmo.calculator.config.TraceProperties;
+import ru.itmo.calculator.dto.ExecutionPlan;
+
+/**
+ * Records {@link ExecutionTrace}s of the executions a client asked to trace and of a sample of the others, and keeps
+ * the latest of them in a ring buffer.
+ *
+ * <p>An execution that is not traced costs a flag check and, with a non-zero sample rate, one random number. A traced
+ * one allocates its node arrays up front and records each node from the worker that ran it, without locking;
+ * executions with more nodes than the limit are never traced. Only executions that finish are kept.
+ */
+@Component
+public class ExecutionTracer {
+
+    private static final ExecutionTracer DISABLED = new ExecutionTracer(0, 0, 0);
+
+    private final double sampleRate;
+    private final int maxNodes;
+    private final AtomicReferenceArray<ExecutionTrace> traces;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @Autowired
+    public ExecutionTracer(TraceProperties properties) {
+        this(properties.sampleRate(), properties.maxTraces(), properties.maxNodes());
+    }
+
+    public ExecutionTracer(double sampleRate, int maxTraces, int maxNodes) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Trace sample rate must be between 0 and 1");
+        }
+        if (maxTraces < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Trace limits must not be negative");
+        }
+        this.sampleRate = sampleRate;
+        this.maxNodes = maxNodes;
+        this.traces = new AtomicReferenceArray<>(maxTraces);
+    }
+
+    /**
+     * Returns a tracer that traces nothing.
+     */
+    public static ExecutionTracer disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Decides whether a compiled and admitted program is traced and returns the observer recording its run, or
+     * {@code null} when it is not.
+     *
+     * @param planningStarted when compiling the program started, in {@link System#nanoTime()}
+     * @param planningNanos   time spent compiling and admitting it
+     */
+    DagScheduler.RunObserver planned(
+            String transport,
+            String client,
+            boolean requested,
+            ExecutionPlan plan,
+            long planningStarted,
+            long planningNanos) {
+        if (traces.length() == 0 || plan.nodeCount() > maxNodes) {
+            return null;
+        }
+        if (!requested && (sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return null;
+        }
+        return new Recorder(transport, client, plan, planningStarted, planningNanos);
+    }
+
+    /**
+     * Traces still in the buffer, newest first.
+     */
+    public List<ExecutionTrace> traces() {
+        List<ExecutionTrace> result = new ArrayList<>(traces.length());
+        long last = nextId.get() - 1;
+        for (long id = last; id > 0 && id > last - traces.length(); id--) {
+            ExecutionTrace trace = trace(id);
+            if (trace != null) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the trace with {@code id}, or {@code null} when it was overwritten or never existed.
+     */
+    public ExecutionTrace trace(long id) {
+        if (id <= 0 || traces.length() == 0) {
+            return null;
+        }
+        ExecutionTrace trace = traces.get(slot(id));
+        return trace != null && trace.id() == id ? trace : null;
+    }
+
+    private int slot(long id) {
+        return (int) (id % traces.length());
+    }
+
+    /**
+     * Collects the node times of one run; every node is written only by the worker that ran it, and the last node
+     * to finish publishes them all.
+     */
+    private final class Recorder implements DagScheduler.RunObserver {
+        private final String transport;
+        private final String client;
+        private final Instant startedAt;
+        private final ExecutionPlan plan;
+        private final long planningStarted;
+        private final long planningNanos;
+        private final long[] readyAt;
+        private final long[] startedAtNodes;
+        private final long[] finishedAt;
+        private final String[] threads;
+        private final boolean[] absorbed;
+
+        private Recorder(
+                String transport, String client, ExecutionPlan plan, long planningStarted, long planningNanos) {
+            this.transport = transport;
+            this.client = client;
+            this.startedAt = Instant.now().minusNanos(System.nanoTime() - planningStarted);
+            this.plan = plan;
+            this.planningStarted = planningStarted;
+            this.planningNanos = planningNanos;
+            this.readyAt = new long[plan.nodeCount()];
+            this.startedAtNodes = new long[plan.nodeCount()];
+            this.finishedAt = new long[plan.nodeCount()];
+            this.threads = new String[plan.nodeCount()];
+            this.absorbed = new boolean[plan.nodeCount()];
+            Arrays.fill(startedAtNodes, -1);
+        }
+
+        @Override
+        public void workerStarted(long queueDelayNanos) {
+        }
+
+        @Override
+        public void workerStopped() {
+        }
+
+        @Override
+        public void nodeExecuted(int node, long readyAt, long startedAt, long finishedAt, boolean absorbed) {
+            this.readyAt[node] = readyAt - planningStarted;
+            this.startedAtNodes[node] = startedAt - planningStarted;
+            this.finishedAt[node] = finishedAt - planningStarted;
+            this.threads[node] = Thread.currentThread().getName();
+            this.absorbed[node] = absorbed;
+        }
+
+        @Override
+        public void runFinished(DagScheduler.RunStatistics statistics) {
+            long id = nextId.getAndIncrement();
+            traces.set(slot(id), new ExecutionTrace(id, transport, client, startedAt, plan, planningNanos,
+                    statistics.startedAt() + statistics.elapsedNanos() - planningStarted, readyAt, startedAtNodes,
+                    finishedAt, threads, absorbed));
+        }
+    }
+}
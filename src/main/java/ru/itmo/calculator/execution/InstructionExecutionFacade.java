@@ -1,46 +1,248 @@
 package ru.itmo.calculator.execution;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import ru.itmo.calculator.converter.CalculatorApiConverter;
 import ru.itmo.calculator.converter.GrpcInstructionConverter;
 import ru.itmo.calculator.dto.Instruction;
 import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.exception.AdmissionRejectedException;
+import ru.itmo.calculator.exception.RequestValidationException;
+import ru.itmo.calculator.generated.grpc.AppendInstructionsRequest;
+import ru.itmo.calculator.generated.grpc.CloseSessionRequest;
+import ru.itmo.calculator.generated.grpc.CloseSessionResponse;
+import ru.itmo.calculator.generated.grpc.CreateSessionRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteBatchRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteBatchResponse;
+import ru.itmo.calculator.generated.grpc.ExecuteColumnarRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramResponse;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamResponse;
+import ru.itmo.calculator.generated.grpc.ExplainRequest;
+import ru.itmo.calculator.generated.grpc.ExplainResponse;
+import ru.itmo.calculator.generated.grpc.Session;
+import ru.itmo.calculator.openapi.model.ErrorResponseDto;
+import ru.itmo.calculator.openapi.model.ExecuteBatchResponseDto;
 import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
 import ru.itmo.calculator.openapi.model.ExecuteProgramResponseDto;
+import ru.itmo.calculator.openapi.model.ExecutionExplanationDto;
 import ru.itmo.calculator.openapi.model.PrintedValueDto;
+import ru.itmo.calculator.openapi.model.ProgramResultDto;
+import ru.itmo.calculator.openapi.model.SessionDto;
+import ru.itmo.calculator.openapi.model.StreamedPrintedValueDto;
 
 /**
  * Orchestrates conversion from transport-layer requests to domain instructions and back.
  */
+@Slf4j
 @Service
 public class InstructionExecutionFacade {
 
+    private static final String INTERNAL_ERROR = "Internal server error";
+
     private final InstructionExecutionService executionService;
     private final CalculatorApiConverter apiConverter;
     private final GrpcInstructionConverter grpcConverter;
+    private final ExecutionSessionRegistry sessionRegistry;
 
     public InstructionExecutionFacade(
             InstructionExecutionService executionService,
             CalculatorApiConverter apiConverter,
-            GrpcInstructionConverter grpcConverter) {
+            GrpcInstructionConverter grpcConverter,
+            ExecutionSessionRegistry sessionRegistry) {
         this.executionService = executionService;
         this.apiConverter = apiConverter;
         this.grpcConverter = grpcConverter;
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    /**
+     * Starts the program and completes the returned future from a worker thread once every print is computed; no
+     * thread waits for the execution in the meantime.
+     */
+    public CompletableFuture<ExecuteProgramResponseDto> execute(CompactProgramRequest request) {
+        return map(executionService.executeParsedAsync(request.program()), printed -> {
+            List<PrintedValueDto> items = apiConverter.toPrintedValues(printed);
+            return new ExecuteProgramResponseDto().items(items);
+        });
+    }
+
+    /**
+     * Executes a program of newline-delimited instruction objects while {@code body} is still being received. Returns
+     * once the body is consumed; the returned future completes when the remaining prints are computed.
+     */
+    public CompletableFuture<ExecuteProgramResponseDto> executePipelined(InputStream body) throws IOException {
+        return map(PipelinedExecution.execute(body, executionService),
+                results -> new ExecuteProgramResponseDto().items(apiConverter.toPrintedValues(results)));
+    }
+
+    public CompletableFuture<ExecuteProgramResponse> execute(ExecuteProgramRequest request) {
+        List<Instruction> instructions = grpcConverter.toDomainInstructions(request);
+        return map(executionService.executeAsync(instructions), grpcConverter::toResponse);
+    }
+
+    /**
+     * Runs the programs of a batch together; a program that fails is reported in its own result.
+     */
+    public CompletableFuture<ExecuteBatchResponseDto> executeBatch(CompactBatchRequest request) {
+        List<Supplier<ParsedProgram>> programs = new ArrayList<>(request.programs().size());
+        for (CompactProgramRequest program : request.programs()) {
+            programs.add(program::program);
+        }
+        return map(executionService.executeBatch(programs), runs -> {
+            List<ProgramResultDto> results = outcomes(
+                    runs,
+                    printed -> new ProgramResultDto().items(apiConverter.toPrintedValues(printed)),
+                    (message, details) -> new ProgramResultDto().error(
+                            new ErrorResponseDto().message(message).details(details)));
+            return new ExecuteBatchResponseDto().results(results);
+        });
+    }
+
+    public CompletableFuture<ExecuteBatchResponse> executeBatch(ExecuteBatchRequest request) {
+        List<Supplier<ParsedProgram>> programs = new ArrayList<>(request.getProgramsCount());
+        for (ExecuteProgramRequest program : request.getProgramsList()) {
+            programs.add(() -> ParsedProgram.parse(grpcConverter.toDomainInstructions(program)));
+        }
+        return map(executionService.executeBatch(programs), runs -> ExecuteBatchResponse.newBuilder()
+                .addAllResults(outcomes(
+                        runs, grpcConverter::toProgramResult, (message, details) -> grpcConverter.toProgramError(message)))
+                .build());
+    }
+
+    /**
+     * Decodes a columnar program straight into the interned form, without an object per instruction.
+     */
+    public CompletableFuture<ExecuteProgramResponse> execute(ExecuteColumnarRequest request) {
+        ParsedProgram.Builder program = new ParsedProgram.Builder(request.getOpcodesCount());
+        grpcConverter.readColumnarProgram(request, program);
+        return map(executionService.executeParsedAsync(program.build()), grpcConverter::toResponse);
+    }
+
+    /**
+     * Plans the program and describes the plan without executing it.
+     */
+    public ExecutionExplanationDto explain(CompactProgramRequest request, int workers) {
+        return apiConverter.toExplanation(executionService.explain(request.program(), workers));
+    }
+
+    public ExplainResponse explain(ExplainRequest request) {
+        ParsedProgram program = ParsedProgram.parse(grpcConverter.toDomainInstructions(request.getProgram()));
+        return grpcConverter.toExplainResponse(executionService.explain(program, request.getWorkers()));
+    }
+
+    /**
+     * Starts executing the whole program as one plan and reports every print to {@code listener} as soon as it is
+     * computed. A program that cannot start is reported to the listener before this returns; cancelling the returned
+     * future stops the execution.
+     */
+    public Future<?> executeStreaming(CompactProgramRequest request, ExecutionStream.Listener listener) {
+        CompletableFuture<List<PrintResult>> run;
+        try {
+            run = executionService.start(request.program(), listener::printed, null);
+        } catch (RuntimeException e) {
+            listener.failed(e);
+            return CompletableFuture.completedFuture(null);
+        }
+        run.whenComplete((results, error) -> {
+            if (error == null) {
+                listener.completed();
+            } else if (!run.isCancelled()) {
+                listener.failed(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            }
+        });
+        return run;
     }
 
-    public ExecuteProgramResponseDto execute(ExecuteProgramRequestDto requestDto) {
+    public StreamedPrintedValueDto toStreamedValue(int printIndex, PrintResult result) {
+        return apiConverter.toStreamedValue(printIndex, result);
+    }
+
+    public ExecutionStream openStream(ExecutionStream.Listener listener) {
+        return new ExecutionStream(executionService, listener);
+    }
+
+    public void append(ExecutionStream stream, ExecuteStreamRequest request) {
+        stream.append(grpcConverter.toDomainInstructions(request));
+    }
+
+    public ExecuteStreamResponse toStreamResponse(int printIndex, PrintResult result) {
+        return grpcConverter.toStreamResponse(printIndex, result);
+    }
+
+    public SessionDto createSession() {
+        return new SessionDto().sessionId(sessionRegistry.create());
+    }
+
+    public CompletableFuture<ExecuteProgramResponseDto> appendInstructions(
+            String sessionId, ExecuteProgramRequestDto requestDto) {
         List<Instruction> instructions = apiConverter.toDomainInstructions(requestDto);
-        List<PrintResult> results = executionService.execute(instructions);
-        List<PrintedValueDto> items = apiConverter.toPrintedValues(results);
-        return new ExecuteProgramResponseDto().items(items);
+        return sessionRegistry.append(sessionId, instructions)
+                .thenApply(results -> new ExecuteProgramResponseDto().items(apiConverter.toPrintedValues(results)));
     }
 
-    public ExecuteProgramResponse execute(ExecuteProgramRequest request) {
+    public void closeSession(String sessionId) {
+        sessionRegistry.close(sessionId);
+    }
+
+    public Session createSession(CreateSessionRequest request) {
+        return Session.newBuilder().setSessionId(sessionRegistry.create()).build();
+    }
+
+    public CompletableFuture<ExecuteProgramResponse> appendInstructions(AppendInstructionsRequest request) {
         List<Instruction> instructions = grpcConverter.toDomainInstructions(request);
-        List<PrintResult> results = executionService.execute(instructions);
-        return grpcConverter.toResponse(results);
+        return sessionRegistry.append(request.getSessionId(), instructions).thenApply(grpcConverter::toResponse);
+    }
+
+    public CloseSessionResponse closeSession(CloseSessionRequest request) {
+        sessionRegistry.close(request.getSessionId());
+        return CloseSessionResponse.getDefaultInstance();
+    }
+
+    /**
+     * Converts the result of an execution, keeping the response cancellable: cancelling it stops the execution.
+     */
+    private static <S, T> CompletableFuture<T> map(CompletableFuture<S> execution, Function<? super S, T> mapper) {
+        return InstructionExecutionService.cancellingSources(execution.thenApply(mapper), execution);
+    }
+
+    /**
+     * Maps finished runs to results. Domain errors keep their message like in a single execution; anything else is
+     * logged and reported as an internal error.
+     */
+    private static <T> List<T> outcomes(
+            List<CompletableFuture<List<PrintResult>>> runs,
+            Function<List<PrintResult>, T> success,
+            BiFunction<String, List<String>, T> failure) {
+        List<T> results = new ArrayList<>(runs.size());
+        for (CompletableFuture<List<PrintResult>> run : runs) {
+            try {
+                results.add(success.apply(run.join()));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RequestValidationException invalid) {
+                    results.add(failure.apply(invalid.getMessage(), invalid.getDetails()));
+                } else if (cause instanceof IllegalArgumentException || cause instanceof AdmissionRejectedException) {
+                    results.add(failure.apply(cause.getMessage(), null));
+                } else {
+                    log.error("Batch program failed", cause);
+                    results.add(failure.apply(INTERNAL_ERROR, null));
+                }
+            }
+        }
+        return results;
     }
 }
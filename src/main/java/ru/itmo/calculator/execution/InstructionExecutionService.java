@@ -1,26 +1,28 @@
 package ru.itmo.calculator.execution;
 
 import java.time.Duration;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.LinkedHashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
-import java.util.function.LongBinaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
 
+import jdk.jfr.EventType;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.itmo.calculator.config.ExecutionProperties;
 import ru.itmo.calculator.dto.*;
 
 /**
@@ -29,241 +31,431 @@ import ru.itmo.calculator.dto.*;
 @Slf4j
 @Service
 public class InstructionExecutionService {
-    private static final Map<ArithmeticOp, LongBinaryOperator> OPERATION_HANDLERS = Map.of(
-            ArithmeticOp.ADD, (left, right) -> left + right,
-            ArithmeticOp.SUBTRACT, (left, right) -> left - right,
-            ArithmeticOp.MULTIPLY, (left, right) -> left * right);
+    private static final EventType NODE_EXECUTION = EventType.getEventType(NodeExecutionEvent.class);
+
+    /**
+     * Receives the value of a print, identified by its position among the prints of the program.
+     */
+    @FunctionalInterface
+    interface PrintListener {
+        void onPrint(int printIndex, PrintResult result);
+    }
 
     private final Executor executor;
-    private final Duration operationDelay;
+    private final OperationCostModel costModel;
+    // Told the name of every computed node, or null.
     private final Consumer<String> operationListener;
-
-    public InstructionExecutionService() {
-        this(defaultExecutor(), Duration.ofMillis(50), var -> {
-        });
+    private final boolean lazyShortCircuit;
+    private final ExecutionPlanCache planCache;
+    private final OperationResultCache resultCache;
+    private final AdmissionControl admissionControl;
+    private final ExecutionMetrics metrics;
+    private final ExecutionTracer tracer;
+    private final LongAdder droppedOperations = new LongAdder();
+    private final LongAdder interruptedOperations = new LongAdder();
+
+    @Autowired
+    public InstructionExecutionService(
+            ExecutionProperties properties,
+            ExecutionPlanCache planCache,
+            OperationResultCache resultCache,
+            AdmissionControl admissionControl,
+            ExecutionMetrics metrics,
+            ExecutionTracer tracer) {
+        this(defaultExecutor(properties.maxWorkers()),
+                OperationCostModel.of(properties.operationDelay(), properties.operationCosts()), var -> {
+                }, properties.lazyShortCircuit(), planCache, resultCache, admissionControl, metrics, tracer);
     }
 
     public InstructionExecutionService(Executor executor, Duration operationDelay, Consumer<String> operationListener) {
-        this.executor = Objects.requireNonNull(executor, "executor");
-        this.operationDelay = Objects.requireNonNull(operationDelay, "operationDelay");
-        this.operationListener = operationListener == null ? var -> {
-        } : operationListener;
+        this(builder(executor).operationDelay(operationDelay).operationListener(operationListener));
     }
 
-    public List<PrintResult> execute(List<Instruction> instructions) {
-        Objects.requireNonNull(instructions, "instructions");
-        Map<String, CalcInstruction> calculations = new HashMap<>();
-        List<PrintInstruction> printInstructions = new ArrayList<>();
+    private InstructionExecutionService(Builder builder) {
+        this(builder.executor, builder.costModel, builder.operationListener, builder.lazyShortCircuit,
+                builder.planCache != null ? builder.planCache : new ExecutionPlanCache(
+                        ExecutionPlanCache.DEFAULT_MAX_ENTRIES, ExecutionPlanCache.DEFAULT_MAX_WEIGHT),
+                builder.resultCache, builder.admissionControl, builder.metrics, builder.tracer);
+    }
 
-        for (Instruction instruction : instructions) {
-            if (instruction instanceof CalcInstruction calc) {
-                if (calculations.containsKey(calc.var())) {
-                    throw new IllegalArgumentException("Variable is already defined: " + calc.var());
-                }
-                calculations.put(calc.var(), calc);
-            } else if (instruction instanceof PrintInstruction print) {
-                printInstructions.add(print);
-            } else {
-                throw new IllegalArgumentException("Unsupported instruction: " + instruction);
-            }
-        }
+    private InstructionExecutionService(
+            Executor executor,
+            OperationCostModel costModel,
+            Consumer<String> operationListener,
+            boolean lazyShortCircuit,
+            ExecutionPlanCache planCache,
+            OperationResultCache resultCache,
+            AdmissionControl admissionControl,
+            ExecutionMetrics metrics,
+            ExecutionTracer tracer) {
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.costModel = Objects.requireNonNull(costModel, "costModel");
+        this.operationListener = operationListener;
+        this.lazyShortCircuit = lazyShortCircuit;
+        this.planCache = Objects.requireNonNull(planCache, "planCache");
+        this.resultCache = Objects.requireNonNull(resultCache, "resultCache");
+        this.admissionControl = Objects.requireNonNull(admissionControl, "admissionControl");
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+        this.tracer = Objects.requireNonNull(tracer, "tracer");
+    }
 
-        if (printInstructions.isEmpty()) {
-            return List.of();
-        }
+    /**
+     * Starts a service running its operations on {@code executor}; everything not set explicitly falls back to
+     * instant operations, lazy short-circuit, a default plan cache and no result cache, admission limits, metrics or
+     * tracing.
+     */
+    public static Builder builder(Executor executor) {
+        return new Builder(executor);
+    }
 
-        ExecutionPlan executionPlan = buildExecutionPlan(printInstructions, calculations);
-        Map<String, CompletableFuture<Long>> futuresByVar = startCalculations(executionPlan);
+    public List<PrintResult> execute(List<Instruction> instructions) {
+        return ExecutionJoinEvent.join(start(instructions, null, null), ExecutionJoinEvent.EXECUTE);
+    }
 
-        List<PrintResult> results = new ArrayList<>();
-        for (PrintInstruction print : printInstructions) {
-            CompletableFuture<Long> future = futuresByVar.get(print.var());
-            if (future == null) {
-                throw new IllegalArgumentException("Variable is not required: " + print.var());
-            }
-            results.add(new PrintResult(print.var(), future.join()));
+    /**
+     * Starts executing the program and returns without waiting for it; an invalid program fails the returned future
+     * instead of throwing. Cancelling the future stops the execution.
+     */
+    public CompletableFuture<List<PrintResult>> executeAsync(List<Instruction> instructions) {
+        try {
+            return start(instructions, null, null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
+    }
 
-        return results;
+    /**
+     * Compiles the program and starts executing it without waiting for the result.
+     *
+     * <p>{@code printListener} is called from a worker thread as soon as the variable of a print is computed, before
+     * the rest of the program finishes; prints of the same variable are reported together. Invalid programs fail
+     * right away with {@link IllegalArgumentException}, and programs that do not fit into the admission budgets of
+     * the current {@link ExecutionClient} with {@link ru.itmo.calculator.exception.AdmissionRejectedException}.
+     *
+     * <p>{@code computedVariables}, if given, is additionally told every variable whose value was calculated on the
+     * way to the prints. Variables that were skipped, cancelled as unneeded or only exist as partial results of a
+     * rebalanced chain are not reported.
+     */
+    CompletableFuture<List<PrintResult>> start(
+            List<Instruction> instructions, PrintListener printListener, ObjLongConsumer<String> computedVariables) {
+        Objects.requireNonNull(instructions, "instructions");
+        return start(ParsedProgram.parse(instructions), printListener, computedVariables);
     }
 
-    private ExecutionPlan buildExecutionPlan(
-            List<PrintInstruction> printInstructions, Map<String, CalcInstruction> calculations) {
-        Set<String> required = new LinkedHashSet<>();
-        Map<String, List<String>> dependenciesByVar = new HashMap<>();
-        Deque<String> stack = new ArrayDeque<>();
+    /**
+     * Plans the program through the plan cache without admitting or executing it. Invalid programs fail with
+     * {@link IllegalArgumentException} as in a real execution.
+     */
+    void plan(List<Instruction> instructions) {
+        Objects.requireNonNull(instructions, "instructions");
+        planCache.compile(ParsedProgram.parse(instructions));
+    }
 
-        for (PrintInstruction print : printInstructions) {
-            stack.push(print.var());
+    /**
+     * Starts a program that was already interned, for example straight from the request body; an invalid program
+     * fails the returned future.
+     */
+    CompletableFuture<List<PrintResult>> executeParsedAsync(ParsedProgram program) {
+        try {
+            return start(program, null, null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
+    }
 
-        while (!stack.isEmpty()) {
-            String var = stack.pop();
-            if (!required.add(var)) {
-                continue;
-            }
-            CalcInstruction instruction = calculations.get(var);
-            if (instruction == null) {
-                throw new IllegalArgumentException("Variable is never calculated: " + var);
-            }
-            List<String> deps = variableDependencies(instruction);
-            dependenciesByVar.put(var, deps);
-            for (String dep : deps) {
-                stack.push(dep);
+    /**
+     * Starts every program at once, so that the nodes of all of them share the worker pool. The returned future
+     * completes when all of them finish, with their futures in the order of {@code programs}; a program that cannot
+     * be read, is invalid or fails completes its own future exceptionally without affecting the others. Cancelling
+     * the returned future cancels every program.
+     */
+    CompletableFuture<List<CompletableFuture<List<PrintResult>>>> executeBatch(List<Supplier<ParsedProgram>> programs) {
+        List<CompletableFuture<List<PrintResult>>> runs = new ArrayList<>(programs.size());
+        for (Supplier<ParsedProgram> program : programs) {
+            try {
+                runs.add(start(program.get(), null, null));
+            } catch (RuntimeException e) {
+                runs.add(CompletableFuture.failedFuture(e));
             }
         }
-
-        List<String> executionOrder = topologicallySort(required, dependenciesByVar);
-        return new ExecutionPlan(required, calculations, executionOrder);
+        CompletableFuture<?>[] all = runs.toArray(CompletableFuture<?>[]::new);
+        return cancellingSources(CompletableFuture.allOf(all).handle((ignored, error) -> runs), all);
     }
 
-    private Map<String, CompletableFuture<Long>> startCalculations(ExecutionPlan plan) {
-        Map<String, CompletableFuture<Long>> futuresByVar = new HashMap<>(plan.requiredVariables().size());
+    /**
+     * Replays the program on a virtual clock with the cost model of this service and at most {@code workers}
+     * operations at a time ({@code 0} for no limit), without running any operation. Invalid programs fail with
+     * {@link IllegalArgumentException} as in a real execution.
+     */
+    public SimulatedExecution simulate(List<Instruction> instructions, int workers) {
+        Objects.requireNonNull(instructions, "instructions");
+        return ExecutionSimulator.simulate(planCache.compile(ParsedProgram.parse(instructions)), costModel, workers);
+    }
 
-        for (String var : plan.executionOrder()) {
-            CalcInstruction instruction = plan.calculations().get(var);
-            CompletableFuture<Long> leftFuture = resolveOperand(instruction.left(), futuresByVar);
-            CompletableFuture<Long> rightFuture = resolveOperand(instruction.right(), futuresByVar);
+    /**
+     * Plans the program through the plan cache like an execution would and describes the plan, predicting its
+     * makespan with at most {@code workers} operations at a time ({@code 0} for no limit). Nothing is admitted or
+     * executed; invalid programs fail with {@link IllegalArgumentException}.
+     */
+    ExecutionExplanation explain(ParsedProgram program, int workers) {
+        Objects.requireNonNull(program, "program");
+        return ExecutionExplainer.explain(program, planCache.compile(program), costModel, lazyShortCircuit, workers);
+    }
 
-            CompletableFuture<Long> result =
-                    leftFuture.thenCombineAsync(rightFuture, (left, right) -> computeOperation(instruction, left, right), executor);
-            futuresByVar.put(var, result);
-        }
+    /**
+     * Number of plan nodes that never started because their execution was cancelled.
+     */
+    public long droppedOperationCount() {
+        return droppedOperations.sum();
+    }
 
-        return futuresByVar;
+    /**
+     * Number of operations that were interrupted while running because their execution was cancelled.
+     */
+    public long interruptedOperationCount() {
+        return interruptedOperations.sum();
     }
 
-    private CompletableFuture<Long> resolveOperand(Operand operand, Map<String, CompletableFuture<Long>> futuresByVar) {
-        if (operand instanceof LiteralOperand literal) {
-            return CompletableFuture.completedFuture(literal.value());
-        }
-        if (operand instanceof VariableOperand variable) {
-            CompletableFuture<Long> future = futuresByVar.get(variable.name());
-            if (future == null) {
-                throw new IllegalArgumentException("Variable is not required: " + variable.name());
+    /**
+     * Returns {@code dependent} after making its cancellation cancel {@code sources} as well: a stage derived with
+     * {@code thenApply} and the like does not pass cancellation back to the stages it was derived from.
+     */
+    static <T> CompletableFuture<T> cancellingSources(CompletableFuture<T> dependent, Future<?>... sources) {
+        dependent.whenComplete((value, error) -> {
+            if (dependent.isCancelled()) {
+                for (Future<?> source : sources) {
+                    source.cancel(true);
+                }
             }
-            return future;
-        }
-        throw new IllegalArgumentException("Unknown operand: " + operand);
+        });
+        return dependent;
     }
 
-    private List<String> topologicallySort(Set<String> required, Map<String, List<String>> dependenciesByVar) {
-        Map<String, Integer> indegree = new HashMap<>();
-        Map<String, List<String>> dependents = new HashMap<>();
-
-        for (String var : required) {
-            indegree.put(var, 0);
+    /**
+     * Starts a program that was already interned like {@link #start(List, PrintListener, ObjLongConsumer)}.
+     */
+    CompletableFuture<List<PrintResult>> start(
+            ParsedProgram program, PrintListener printListener, ObjLongConsumer<String> computedVariables) {
+        Objects.requireNonNull(program, "program");
+        long planningStarted = System.nanoTime();
+        ProgramPlanningEvent planningEvent = new ProgramPlanningEvent();
+        planningEvent.begin();
+        ExecutionPlan plan = planCache.compile(program);
+        if (plan.printNodes().length == 0) {
+            return CompletableFuture.completedFuture(List.of());
         }
-
-        for (Map.Entry<String, List<String>> entry : dependenciesByVar.entrySet()) {
-            String var = entry.getKey();
-            for (String dependency : entry.getValue()) {
-                indegree.merge(var, 1, Integer::sum);
-                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(var);
+        log.debug("Compiled plan: {} nodes, {} merged, critical path {}",
+                plan.nodeCount(), plan.mergedNodes(), plan.criticalPathLength());
+        boolean[] computed = computedVariables == null ? null : new boolean[plan.nodeCount()];
+        int[] nextPrint = printListener == null ? null : new int[plan.printNodes().length];
+        int[] firstPrint = printListener == null ? null : printChains(plan, nextPrint);
+        String client = ExecutionClient.current();
+        Runnable release = admissionControl.admit(client, plan);
+        CompletableFuture<long[]> run;
+        // Until the run exists nothing else returns the budget, so a failure to start it must.
+        try {
+            long planningNanos = System.nanoTime() - planningStarted;
+            String transport = ExecutionClient.transport();
+            planningEvent.end();
+            if (planningEvent.shouldCommit()) {
+                planningEvent.transport = transport;
+                planningEvent.client = client;
+                planningEvent.instructions = program.instructionCount();
+                planningEvent.nodes = plan.nodeCount();
+                planningEvent.mergedNodes = plan.mergedNodes();
+                planningEvent.criticalPath = plan.criticalPathLength();
+                planningEvent.commit();
             }
+            DagScheduler.RunObserver observer = DagScheduler.RunObserver.both(
+                    metrics.planned(transport, program.instructionCount(), plan, planningNanos),
+                    tracer.planned(transport, client, ExecutionClient.traceRequested(), plan, planningStarted,
+                            planningNanos));
+
+            run = DagScheduler.start(plan, executor, (node, left, right) -> {
+                long value = computeOperation(plan, node, left, right);
+                if (computed != null) {
+                    computed[node] = true;
+                }
+                if (firstPrint != null) {
+                    for (int print = firstPrint[node]; print >= 0; print = nextPrint[print]) {
+                        printListener.onPrint(print, new PrintResult(plan.printVariables()[print], value));
+                    }
+                }
+                return value;
+            }, lazyShortCircuit, this::recordCancellation, observer, DagScheduler.priorities(plan, costModel));
+        } catch (RuntimeException | Error e) {
+            release.run();
+            throw e;
         }
-
-        Deque<String> queue = new ArrayDeque<>();
-        for (Map.Entry<String, Integer> entry : indegree.entrySet()) {
-            if (entry.getValue() == 0) {
-                queue.add(entry.getKey());
+        // Results become visible only after the budget is returned.
+        CompletableFuture<long[]> released = run.whenComplete((values, error) -> release.run());
+        return cancellingSources(released.thenApply(values -> {
+            List<PrintResult> results = new ArrayList<>(plan.printNodes().length);
+            for (int i = 0; i < plan.printNodes().length; i++) {
+                results.add(new PrintResult(plan.printVariables()[i], values[plan.printNodes()[i]]));
             }
-        }
 
-        List<String> order = new ArrayList<>(required.size());
-        while (!queue.isEmpty()) {
-            String var = queue.poll();
-            order.add(var);
-            for (String dependent : dependents.getOrDefault(var, List.of())) {
-                int remaining = indegree.computeIfPresent(dependent, (key, value) -> value - 1);
-                if (remaining == 0) {
-                    queue.add(dependent);
+            if (computedVariables != null) {
+                for (int node = 0; node < plan.nodeCount(); node++) {
+                    if (computed[node] && !plan.partialResults()[node]) {
+                        computedVariables.accept(plan.nodeVariables()[node], values[node]);
+                    }
+                }
+                for (PrintResult result : results) {
+                    computedVariables.accept(result.var(), result.value());
                 }
             }
-        }
-
-        if (order.size() != required.size()) {
-            throw new IllegalArgumentException("Cyclic dependency detected in required variables");
-        }
-
-        return order;
+            return results;
+        }), run);
     }
 
-    private List<String> variableDependencies(CalcInstruction instruction) {
-        List<String> deps = new ArrayList<>();
-        if (instruction.left() instanceof VariableOperand(String name)) {
-            deps.add(name);
-        }
-        if (instruction.right() instanceof VariableOperand(String name)) {
-            deps.add(name);
-        }
-        return deps;
+    private void recordCancellation(int droppedNodes, int interruptedNodes) {
+        droppedOperations.add(droppedNodes);
+        interruptedOperations.add(interruptedNodes);
+        log.debug("Cancelled execution: {} operations dropped, {} interrupted", droppedNodes, interruptedNodes);
     }
 
-    private long computeOperation(CalcInstruction instruction, long left, long right) {
-        Long fastResult = tryShortCircuit(instruction.op(), left, right);
-        if (fastResult != null) {
-            operationListener.accept(instruction.var());
-            return fastResult;
+    /**
+     * Links the prints of every node into a list: {@code first[node]} is its first print and {@code next[print]} the
+     * following one, {@code -1} ends a list.
+     */
+    private static int[] printChains(ExecutionPlan plan, int[] next) {
+        int[] first = new int[plan.nodeCount()];
+        Arrays.fill(first, -1);
+        for (int print = plan.printNodes().length - 1; print >= 0; print--) {
+            int node = plan.printNodes()[print];
+            next[print] = first[node];
+            first[node] = print;
         }
-
-        waitIfNeeded();
-        operationListener.accept(instruction.var());
-        return OPERATION_HANDLERS.get(instruction.op()).applyAsLong(left, right);
+        return first;
     }
 
-    /**
-     * Returns a result of the operation if it can be calculated instantly.
-     * For ex: 0*x=0, 1*x=x, 0+x=x e.t.c.
-     *
-     * @return result of the operation
-     */
-    private Long tryShortCircuit(ArithmeticOp op, long left, long right) {
-        if (op == ArithmeticOp.MULTIPLY) {
-            if (left == 0 || right == 0) {
-                return 0L;
-            }
-            if (left == 1) {
-                return right;
-            }
-            if (right == 1) {
-                return left;
-            }
+    private long computeOperation(ExecutionPlan plan, int node, long left, long right) {
+        // Nothing is allocated per node unless a recording, the result cache or a listener asks for it.
+        NodeExecutionEvent event = NODE_EXECUTION.isEnabled() ? new NodeExecutionEvent() : null;
+        if (event != null) {
+            event.begin();
         }
-        if (op == ArithmeticOp.ADD) {
-            if (left == 0) {
-                return right;
-            }
-            if (right == 0) {
-                return left;
+        ArithmeticOp op = plan.op(node);
+        boolean instant = ShortCircuitRules.isInstant(op, left, right);
+        long value;
+        if (instant) {
+            value = op.apply(left, right);
+        } else if (resultCache.isEnabled()) {
+            value = resultCache.get(op, left, right, () -> {
+                waitIfNeeded(op);
+                return op.apply(left, right);
+            });
+        } else {
+            waitIfNeeded(op);
+            value = op.apply(left, right);
+        }
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.variable = plan.nodeName(node);
+                event.operation = op.symbol();
+                event.shortCircuited = instant;
+                event.commit();
             }
         }
-        if (op == ArithmeticOp.SUBTRACT && right == 0) {
-            return left;
+        if (operationListener != null) {
+            operationListener.accept(plan.nodeName(node));
         }
-        return null;
+        return value;
     }
 
-    private void waitIfNeeded() {
-        if (operationDelay.isZero() || operationDelay.isNegative()) {
+    private void waitIfNeeded(ArithmeticOp op) {
+        long cost = costModel.costNanos(op);
+        if (cost == 0) {
             return;
         }
         try {
-            TimeUnit.MILLISECONDS.sleep(operationDelay.toMillis());
+            TimeUnit.NANOSECONDS.sleep(cost);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Interrupted while executing operation", e);
         }
     }
 
-    private static ExecutorService defaultExecutor() {
+    private static ExecutorService defaultExecutor(int maxWorkers) {
         AtomicInteger counter = new AtomicInteger();
-        return Executors.newThreadPerTaskExecutor(runnable -> {
+        ThreadFactory threadFactory = runnable -> {
             Thread thread = new Thread(runnable);
             thread.setDaemon(true);
             thread.setName("calculator-exec-" + counter.incrementAndGet());
             log.info("Created executor thread: {}", counter);
             return thread;
-        });
+        };
+        return maxWorkers > 0
+                ? Executors.newFixedThreadPool(maxWorkers, threadFactory)
+                : Executors.newThreadPerTaskExecutor(threadFactory);
+    }
+
+    /**
+     * Assembles a service outside of Spring, for tests and benchmarks.
+     */
+    public static final class Builder {
+        private final Executor executor;
+        private OperationCostModel costModel = OperationCostModel.uniform(Duration.ZERO);
+        private Consumer<String> operationListener;
+        private boolean lazyShortCircuit = true;
+        private ExecutionPlanCache planCache;
+        private OperationResultCache resultCache = OperationResultCache.disabled();
+        private AdmissionControl admissionControl = AdmissionControl.unlimited();
+        private ExecutionMetrics metrics = ExecutionMetrics.disabled();
+        private ExecutionTracer tracer = ExecutionTracer.disabled();
+
+        private Builder(Executor executor) {
+            this.executor = executor;
+        }
+
+        public Builder operationDelay(Duration operationDelay) {
+            return costModel(OperationCostModel.uniform(Objects.requireNonNull(operationDelay, "operationDelay")));
+        }
+
+        public Builder costModel(OperationCostModel costModel) {
+            this.costModel = costModel;
+            return this;
+        }
+
+        public Builder operationListener(Consumer<String> operationListener) {
+            this.operationListener = operationListener;
+            return this;
+        }
+
+        public Builder lazyShortCircuit(boolean lazyShortCircuit) {
+            this.lazyShortCircuit = lazyShortCircuit;
+            return this;
+        }
+
+        public Builder planCache(ExecutionPlanCache planCache) {
+            this.planCache = planCache;
+            return this;
+        }
+
+        public Builder resultCache(OperationResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
+        public Builder admissionControl(AdmissionControl admissionControl) {
+            this.admissionControl = admissionControl;
+            return this;
+        }
+
+        public Builder metrics(ExecutionMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public Builder tracer(ExecutionTracer tracer) {
+            this.tracer = tracer;
+            return this;
+        }
+
+        public InstructionExecutionService build() {
+            return new InstructionExecutionService(this);
+        }
     }
 }
@@ -0,0 +1,30 @@
+package ru.itmo.calculator.execution;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of one plan node computed by a worker, including the simulated operation cost.
+ */
+@Name("ru.itmo.calculator.NodeExecution")
+@Label("Node Execution")
+@Category({"Calculator", "Execution"})
+@Description("The operation of a plan node computed by a worker")
+@StackTrace(false)
+final class NodeExecutionEvent extends jdk.jfr.Event {
+
+    @Label("Variable")
+    @Description("Variable of the node, or partial(<variable>) for a partial result of a rebalanced chain")
+    String variable;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Short-Circuited")
+    @Description("Finished without paying the operation cost because an operand made the result obvious; nodes "
+            + "resolved by an absorbing zero before their other operand was ready are never executed")
+    boolean shortCircuited;
+}
@@ -0,0 +1,36 @@
+package ru.itmo.calculator.execution;
+
+import java.time.Duration;
+import java.util.Map;
+import ru.itmo.calculator.dto.ArithmeticOp;
+
+/**
+ * Duration of an arithmetic operation that is not short-circuited, per operation kind.
+ *
+ * <p>The engine spends this time in every such operation, and the {@link ExecutionSimulator} advances its virtual
+ * clock by it.
+ */
+@FunctionalInterface
+public interface OperationCostModel {
+
+    long costNanos(ArithmeticOp op);
+
+    /**
+     * Every operation costs {@code cost}; a zero or negative cost makes operations free.
+     */
+    static OperationCostModel uniform(Duration cost) {
+        long nanos = Math.max(0, cost.toNanos());
+        return op -> nanos;
+    }
+
+    /**
+     * Operations listed in {@code costs} cost their own duration, the others {@code defaultCost}.
+     */
+    static OperationCostModel of(Duration defaultCost, Map<ArithmeticOp, Duration> costs) {
+        long[] nanos = new long[ArithmeticOp.values().length];
+        for (ArithmeticOp op : ArithmeticOp.values()) {
+            nanos[op.ordinal()] = Math.max(0, costs.getOrDefault(op, defaultCost).toNanos());
+        }
+        return op -> nanos[op.ordinal()];
+    }
+}
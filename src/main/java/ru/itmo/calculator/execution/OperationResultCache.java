@@ -0,0 +1,224 @@
+package ru.itmo.calculator.execution;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.itmo.calculator.config.ResultCacheProperties;
+import ru.itmo.calculator.config.ResultCacheProperties.Eviction;
+import ru.itmo.calculator.dto.ArithmeticOp;
+
+/**
+ * Bounded cache of operation results shared by all requests.
+ *
+ * <p>Results are keyed by the operation and its concrete operand values, with the operands of {@code +} and
+ * {@code *} in a canonical order. Concurrent lookups of the same missing key are coalesced: the first caller computes
+ * the value while the others wait for it, so identical operations from different requests run once. If that
+ * computation fails, every waiting caller computes the value on its own.
+ */
+@Component
+public class OperationResultCache {
+
+    private static final OperationResultCache DISABLED = new OperationResultCache((Store) null);
+
+    private final Store store;
+    private final ConcurrentHashMap<Key, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Autowired
+    public OperationResultCache(ResultCacheProperties properties) {
+        this(properties.enabled() ? store(properties.eviction(), properties.maxEntries(), properties.ttl()) : null);
+    }
+
+    public OperationResultCache(Eviction eviction, long maxEntries, Duration ttl) {
+        this(store(eviction, maxEntries, ttl));
+    }
+
+    private OperationResultCache(Store store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns a cache that computes every value.
+     */
+    public static OperationResultCache disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Returns the cached result of {@code left op right}, or computes it with {@code computation} exactly once among
+     * the concurrent callers asking for the same operation.
+     */
+    public long get(ArithmeticOp op, long left, long right, LongSupplier computation) {
+        if (store == null) {
+            return computation.getAsLong();
+        }
+
+        Key key = Key.of(op, left, right);
+        Long cached = store.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<Long> flight = new CompletableFuture<>();
+        CompletableFuture<Long> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            try {
+                return leader.get();
+            } catch (ExecutionException e) {
+                return computation.getAsLong();
+            } catch (InterruptedException e) {
+                // A cancelled execution interrupts its workers; a follower must not outlive it waiting for the leader.
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while executing operation", e);
+            }
+        }
+
+        try {
+            // The previous leader may have stored the value between the lookup and the registration.
+            cached = store.get(key);
+            if (cached != null) {
+                flight.complete(cached);
+                return cached;
+            }
+            long value = computation.getAsLong();
+            store.put(key, value);
+            puts.increment();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns whether results are cached at all; a disabled cache just runs every computation.
+     */
+    boolean isEnabled() {
+        return store != null;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Number of lookups that did not find the result in the cache, including those that then waited for a concurrent
+     * computation or whose computation failed.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    /**
+     * Number of lookups that waited for a concurrent computation of the same operation instead of running it.
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    private static Store store(Eviction eviction, long maxEntries, Duration ttl) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Result cache size must be positive");
+        }
+        return switch (eviction) {
+            case LRU -> new LruStore(maxEntries, ttl);
+            case TINY_LFU -> new TinyLfuStore(maxEntries, ttl);
+        };
+    }
+
+    private interface Store {
+        Long get(Key key);
+
+        void put(Key key, long value);
+    }
+
+    private static final class TinyLfuStore implements Store {
+        private final Cache<Key, Long> cache;
+
+        TinyLfuStore(long maxEntries, Duration ttl) {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maxEntries);
+            if (ttl.isPositive()) {
+                builder.expireAfterWrite(ttl);
+            }
+            this.cache = builder.build();
+        }
+
+        @Override
+        public Long get(Key key) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void put(Key key, long value) {
+            cache.put(key, value);
+        }
+    }
+
+    private static final class LruStore implements Store {
+        private final long maxEntries;
+        private final long ttlNanos;
+        private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        LruStore(long maxEntries, Duration ttl) {
+            this.maxEntries = maxEntries;
+            this.ttlNanos = ttl.isPositive() ? ttl.toNanos() : 0;
+        }
+
+        @Override
+        public synchronized Long get(Key key) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (ttlNanos > 0 && System.nanoTime() - entry.writtenAt() > ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        @Override
+        public synchronized void put(Key key, long value) {
+            entries.put(key, new Entry(value, System.nanoTime()));
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+
+        private record Entry(long value, long writtenAt) {
+        }
+    }
+
+    private record Key(ArithmeticOp op, long left, long right) {
+
+        static Key of(ArithmeticOp op, long left, long right) {
+            boolean commutative = op == ArithmeticOp.ADD || op == ArithmeticOp.MULTIPLY;
+            return commutative && right < left ? new Key(op, right, left) : new Key(op, left, right);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.itmo.calculator.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes hit, miss and put counts of the {@link OperationResultCache} under {@code cache=operation-results}, plus
+ * {@code cache.coalesced} for lookups that waited for a concurrent computation of the same operation.
+ */
+@Component
+public class OperationResultCacheMetrics extends CacheMeterBinder<OperationResultCache> {
+
+    public OperationResultCacheMetrics(OperationResultCache cache) {
+        super(cache, "operation-results", Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        OperationResultCache cache = getCache();
+        return cache == null ? 0 : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        OperationResultCache cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return null;
+    }
+
+    @Override
+    protected long putCount() {
+        OperationResultCache cache = getCache();
+        return cache == null ? 0 : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.coalesced", getCache(), OperationResultCache::coalescedCount)
+                .tags(getTagsWithCacheName())
+                .description("Lookups that waited for a concurrent computation of the same operation")
+                .register(registry);
+    }
+}
@@ -0,0 +1,322 @@
+package ru.itmo.calculator.execution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.InstructionSink;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+/**
+ * Instruction list after a single interning pass: variable names are replaced with dense slots and every literal
+ * operand becomes a numbered parameter.
+ *
+ * <p>The {@link #key()} describes the program with names and literal values parameterized out. It keeps the
+ * operations, the pattern of variable references and, for every literal, only whether it is {@code 0}, {@code 1}
+ * or equal to an earlier literal. That is all the compiler passes depend on, so programs with equal keys compile
+ * into the same plan up to names and literal values.
+ */
+final class ParsedProgram {
+
+    private static final int PRINT_TAG = ArithmeticOp.values().length;
+    private static final int ZERO_LITERAL = -1;
+    private static final int ONE_LITERAL = -2;
+    private static final int OTHER_LITERAL = -3;
+
+    final List<String> names;
+    final int calcCount;
+    final int[] calcSlots;
+    final byte[] calcOpcodes;
+    final byte[] calcKinds;
+    final long[] calcLeft;
+    final long[] calcRight;
+    final int[] calcLeftParameters;
+    final int[] calcRightParameters;
+    final int[] printSlots;
+    final long[] literals;
+    private final Key key;
+
+    private ParsedProgram(
+            List<String> names,
+            int calcCount,
+            int[] calcSlots,
+            byte[] calcOpcodes,
+            byte[] calcKinds,
+            long[] calcLeft,
+            long[] calcRight,
+            int[] calcLeftParameters,
+            int[] calcRightParameters,
+            int[] printSlots,
+            long[] literals,
+            Key key) {
+        this.names = names;
+        this.calcCount = calcCount;
+        this.calcSlots = calcSlots;
+        this.calcOpcodes = calcOpcodes;
+        this.calcKinds = calcKinds;
+        this.calcLeft = calcLeft;
+        this.calcRight = calcRight;
+        this.calcLeftParameters = calcLeftParameters;
+        this.calcRightParameters = calcRightParameters;
+        this.printSlots = printSlots;
+        this.literals = literals;
+        this.key = key;
+    }
+
+    static ParsedProgram parse(List<Instruction> instructions) {
+        Objects.requireNonNull(instructions, "instructions");
+        Builder builder = new Builder(instructions.size());
+        for (Instruction instruction : instructions) {
+            if (instruction instanceof CalcInstruction calc) {
+                builder.calc(
+                        calc.var(),
+                        calc.op(),
+                        variableName(calc.left()),
+                        literalValue(calc.left()),
+                        variableName(calc.right()),
+                        literalValue(calc.right()));
+            } else if (instruction instanceof PrintInstruction print) {
+                builder.print(print.var());
+            } else {
+                throw new IllegalArgumentException("Unsupported instruction: " + instruction);
+            }
+        }
+        return builder.build();
+    }
+
+    int instructionCount() {
+        return calcCount + printSlots.length;
+    }
+
+    /**
+     * Rebuilds the instructions: every {@code calc} in its original order, followed by every {@code print} in its
+     * original order. Evaluation does not depend on where the prints stand.
+     */
+    List<Instruction> instructions() {
+        List<Instruction> instructions = new ArrayList<>(instructionCount());
+        for (int i = 0; i < calcCount; i++) {
+            instructions.add(calc(i));
+        }
+        for (int slot : printSlots) {
+            instructions.add(new PrintInstruction(names.get(slot)));
+        }
+        return instructions;
+    }
+
+    CalcInstruction calc(int index) {
+        return new CalcInstruction(
+                names.get(calcSlots[index]),
+                ArithmeticOp.values()[calcOpcodes[index]],
+                operand((calcKinds[index] & ExecutionPlan.LEFT_LITERAL) != 0, calcLeft[index]),
+                operand((calcKinds[index] & ExecutionPlan.RIGHT_LITERAL) != 0, calcRight[index]));
+    }
+
+    private Operand operand(boolean literal, long value) {
+        return literal ? new LiteralOperand(value) : new VariableOperand(names.get((int) value));
+    }
+
+    Key key() {
+        return key;
+    }
+
+    private static int literalCode(long value, Map<Long, Integer> literalClasses) {
+        if (value == 0) {
+            return ZERO_LITERAL;
+        }
+        if (value == 1) {
+            return ONE_LITERAL;
+        }
+        Integer literalClass = literalClasses.putIfAbsent(value, literalClasses.size());
+        return OTHER_LITERAL - (literalClass == null ? literalClasses.size() - 1 : literalClass);
+    }
+
+    /**
+     * Returns the referenced name, or {@code null} for a literal.
+     */
+    private static String variableName(Operand operand) {
+        if (operand instanceof VariableOperand variable) {
+            return variable.name();
+        }
+        if (operand instanceof LiteralOperand) {
+            return null;
+        }
+        throw new IllegalArgumentException("Unknown operand: " + operand);
+    }
+
+    private static long literalValue(Operand operand) {
+        return operand instanceof LiteralOperand literal ? literal.value() : 0;
+    }
+
+    /**
+     * Interns instructions one at a time; arrays grow as needed, so the instruction count need not be known upfront.
+     * A {@code null} operand name stands for a literal operand with the given value.
+     */
+    static final class Builder implements InstructionSink {
+        private final Map<String, Integer> slotsByName = new HashMap<>();
+        private final Map<Long, Integer> literalClasses = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] calcSlots;
+        private byte[] calcOpcodes;
+        private byte[] calcKinds;
+        private long[] calcLeft;
+        private long[] calcRight;
+        private int[] calcLeftParameters;
+        private int[] calcRightParameters;
+        private int[] printSlots;
+        private long[] literals;
+        private int[] code;
+        private int calcCount;
+        private int printCount;
+        private int literalCount;
+        private int codeLength;
+
+        Builder(int expectedInstructions) {
+            int capacity = Math.max(expectedInstructions, 1);
+            calcSlots = new int[capacity];
+            calcOpcodes = new byte[capacity];
+            calcKinds = new byte[capacity];
+            calcLeft = new long[capacity];
+            calcRight = new long[capacity];
+            calcLeftParameters = new int[capacity];
+            calcRightParameters = new int[capacity];
+            printSlots = new int[capacity];
+            literals = new long[capacity * 2];
+            code = new int[capacity * 4];
+        }
+
+        @Override
+        public void calc(
+                String var, ArithmeticOp op, String leftName, long leftValue, String rightName, long rightValue) {
+            if (calcCount == calcSlots.length) {
+                int capacity = calcCount * 2;
+                calcSlots = Arrays.copyOf(calcSlots, capacity);
+                calcOpcodes = Arrays.copyOf(calcOpcodes, capacity);
+                calcKinds = Arrays.copyOf(calcKinds, capacity);
+                calcLeft = Arrays.copyOf(calcLeft, capacity);
+                calcRight = Arrays.copyOf(calcRight, capacity);
+                calcLeftParameters = Arrays.copyOf(calcLeftParameters, capacity);
+                calcRightParameters = Arrays.copyOf(calcRightParameters, capacity);
+            }
+            ensureLiterals(2);
+            ensureCode(4);
+
+            byte kinds = 0;
+            int slot = intern(var);
+            code[codeLength++] = op.ordinal();
+            code[codeLength++] = slot;
+            if (leftName == null) {
+                kinds |= ExecutionPlan.LEFT_LITERAL;
+                calcLeft[calcCount] = leftValue;
+                calcLeftParameters[calcCount] = literalCount;
+                literals[literalCount++] = leftValue;
+                code[codeLength++] = literalCode(leftValue, literalClasses);
+            } else {
+                calcLeft[calcCount] = intern(leftName);
+                code[codeLength++] = (int) calcLeft[calcCount];
+            }
+            if (rightName == null) {
+                kinds |= ExecutionPlan.RIGHT_LITERAL;
+                calcRight[calcCount] = rightValue;
+                calcRightParameters[calcCount] = literalCount;
+                literals[literalCount++] = rightValue;
+                code[codeLength++] = literalCode(rightValue, literalClasses);
+            } else {
+                calcRight[calcCount] = intern(rightName);
+                code[codeLength++] = (int) calcRight[calcCount];
+            }
+            calcSlots[calcCount] = slot;
+            calcOpcodes[calcCount] = (byte) op.ordinal();
+            calcKinds[calcCount] = kinds;
+            calcCount++;
+        }
+
+        @Override
+        public void print(String var) {
+            if (printCount == printSlots.length) {
+                printSlots = Arrays.copyOf(printSlots, printCount * 2);
+            }
+            ensureCode(2);
+            printSlots[printCount] = intern(var);
+            code[codeLength++] = PRINT_TAG;
+            code[codeLength++] = printSlots[printCount++];
+        }
+
+        int instructionCount() {
+            return calcCount + printCount;
+        }
+
+        ParsedProgram build() {
+            return new ParsedProgram(
+                    names,
+                    calcCount,
+                    calcSlots,
+                    calcOpcodes,
+                    calcKinds,
+                    calcLeft,
+                    calcRight,
+                    calcLeftParameters,
+                    calcRightParameters,
+                    Arrays.copyOf(printSlots, printCount),
+                    Arrays.copyOf(literals, literalCount),
+                    new Key(Arrays.copyOf(code, codeLength)));
+        }
+
+        private int intern(String name) {
+            Integer slot = slotsByName.get(name);
+            if (slot == null) {
+                slot = names.size();
+                slotsByName.put(name, slot);
+                names.add(name);
+            }
+            return slot;
+        }
+
+        private void ensureLiterals(int extra) {
+            if (literalCount + extra > literals.length) {
+                literals = Arrays.copyOf(literals, Math.max(literals.length * 2, literalCount + extra));
+            }
+        }
+
+        private void ensureCode(int extra) {
+            if (codeLength + extra > code.length) {
+                code = Arrays.copyOf(code, Math.max(code.length * 2, codeLength + extra));
+            }
+        }
+    }
+
+    /**
+     * Structural fingerprint of a program: instruction tags, name slots and literal classes in instruction order.
+     */
+    static final class Key {
+        private final int[] code;
+        private final int hash;
+
+        private Key(int[] code) {
+            this.code = code;
+            this.hash = Arrays.hashCode(code);
+        }
+
+        int length() {
+            return code.length;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && hash == key.hash && Arrays.equals(code, key.code);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package ru.itmo.calculator.execution;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.InstructionSink;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.exception.RequestValidationException;
+
+/**
+ * Executes a program while its body is still being received, one instruction object per line.
+ *
+ * <p>Instructions are handed to an {@link ExecutionStream} in chunks. A chunk ends when it is full or when everything
+ * received so far has been read, so a calculation a received print needs starts as soon as its operands are known and
+ * network transfer overlaps with computation. When the body ends only the remaining work and the check for variables that
+ * are never defined are left; they finish in the background and complete the returned future, so the request thread
+ * is released as soon as the body is consumed. The first failure stops reading the body.
+ */
+final class PipelinedExecution implements ExecutionStream.Listener, InstructionSink {
+
+    static final int MAX_CHUNK_SIZE = 1024;
+
+    private static final JsonFactory JSON = new JsonFactory();
+    // Whitespace a parser may hold after an instruction, such as a line break, without more input being available.
+    private static final int MAX_TRAILING_BYTES = 2;
+
+    private final List<Instruction> chunk = new ArrayList<>();
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private PrintResult[] results = new PrintResult[16];
+    private int printCount;
+
+    private PipelinedExecution() {
+    }
+
+    /**
+     * Reads the whole body and returns the results of its prints, completed once all of them are computed.
+     * Cancelling the returned future stops the execution.
+     */
+    static CompletableFuture<List<PrintResult>> execute(InputStream body, InstructionExecutionService executionService)
+            throws IOException {
+        PipelinedExecution execution = new PipelinedExecution();
+        ExecutionStream stream = new ExecutionStream(executionService, execution);
+        CountingInputStream input = new CountingInputStream(body);
+        try (JsonParser parser = JSON.createParser(input)) {
+            int index = 0;
+            while (!execution.done.isDone() && parser.nextToken() != null) {
+                ProgramJsonReader.readInstruction(parser, index++, execution);
+                if (execution.chunk.size() == MAX_CHUNK_SIZE || !hasPendingInput(parser, input)) {
+                    execution.flush(stream);
+                }
+            }
+            if (index == 0) {
+                throw new RequestValidationException("instructions", ProgramJsonReader.NOT_EMPTY);
+            }
+        } catch (JsonProcessingException e) {
+            stream.cancel();
+            throw new RequestValidationException("body", "must be JSON objects: " + e.getOriginalMessage());
+        } catch (IOException | RuntimeException e) {
+            stream.cancel();
+            throw e;
+        }
+        execution.flush(stream);
+        stream.complete();
+        CompletableFuture<List<PrintResult>> results = execution.done.thenApply(ignored -> execution.results());
+        results.whenComplete((value, error) -> {
+            if (results.isCancelled()) {
+                stream.cancel();
+            }
+        });
+        return results;
+    }
+
+    @Override
+    public void calc(String var, ArithmeticOp op, String leftName, long leftValue, String rightName, long rightValue) {
+        chunk.add(new CalcInstruction(var, op, operand(leftName, leftValue), operand(rightName, rightValue)));
+    }
+
+    @Override
+    public void print(String var) {
+        chunk.add(new PrintInstruction(var));
+    }
+
+    @Override
+    public synchronized void printed(int printIndex, PrintResult result) {
+        if (printIndex >= results.length) {
+            results = Arrays.copyOf(results, Math.max(results.length * 2, printIndex + 1));
+        }
+        results[printIndex] = result;
+        printCount = Math.max(printCount, printIndex + 1);
+    }
+
+    @Override
+    public void failed(Throwable error) {
+        done.completeExceptionally(error);
+    }
+
+    @Override
+    public void completed() {
+        done.complete(null);
+    }
+
+    private void flush(ExecutionStream stream) {
+        if (!chunk.isEmpty()) {
+            stream.append(List.copyOf(chunk));
+            chunk.clear();
+        }
+    }
+
+    private synchronized List<PrintResult> results() {
+        return List.of(Arrays.copyOf(results, printCount));
+    }
+
+    /**
+     * Whether reading the next instruction would not block: the parser still buffers more than trailing whitespace,
+     * or more of the body has already arrived.
+     */
+    private static boolean hasPendingInput(JsonParser parser, CountingInputStream input) throws IOException {
+        long buffered = input.count - parser.currentLocation().getByteOffset();
+        return buffered > MAX_TRAILING_BYTES || input.available() > 0;
+    }
+
+    private static Operand operand(String name, long value) {
+        return name == null ? new LiteralOperand(value) : new VariableOperand(name);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
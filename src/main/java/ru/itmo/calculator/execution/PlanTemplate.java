@@ -0,0 +1,91 @@
+package ru.itmo.calculator.execution;
+
+import ru.itmo.calculator.dto.ExecutionPlan;
+
+/**
+ * Compiled plan together with the information needed to rebind it to another program with the same
+ * {@link ParsedProgram#key() key}.
+ *
+ * <p>{@code nodeSlots[n]} is the name slot of node {@code n}. For every literal operand the source arrays hold the
+ * parameter it was taken from: {@code p >= 0} is literal {@code p} of the program, {@code ~p} is its negation and
+ * {@link #NO_PARAMETER} marks a constant introduced by the compiler, which is the same for every program with the
+ * key. Graph arrays are shared between all bound plans and must not be modified.
+ *
+ * @param plan plan compiled for the program the template was built from
+ * @param nodeSlots name slot of every node
+ * @param leftSources parameter of every literal left operand
+ * @param rightSources parameter of every literal right operand
+ */
+record PlanTemplate(ExecutionPlan plan, int[] nodeSlots, int[] leftSources, int[] rightSources) {
+
+    static final int NO_PARAMETER = Integer.MIN_VALUE;
+
+    private static final PlanTemplate EMPTY =
+            new PlanTemplate(ExecutionPlan.empty(), new int[0], new int[0], new int[0]);
+
+    static PlanTemplate empty() {
+        return EMPTY;
+    }
+
+    static int negate(int source) {
+        return source == NO_PARAMETER ? NO_PARAMETER : ~source;
+    }
+
+    /**
+     * Returns the plan with names and literal operands taken from {@code program}, reusing the graph as is.
+     */
+    ExecutionPlan bind(ParsedProgram program) {
+        int nodeCount = plan.nodeCount();
+        if (nodeCount == 0) {
+            return plan;
+        }
+
+        String[] nodeVariables = new String[nodeCount];
+        long[] leftOperands = plan.leftOperands().clone();
+        long[] rightOperands = plan.rightOperands().clone();
+        for (int node = 0; node < nodeCount; node++) {
+            nodeVariables[node] = program.names.get(nodeSlots[node]);
+            if (plan.isLeftLiteral(node)) {
+                leftOperands[node] = value(leftSources[node], leftOperands[node], program.literals);
+            }
+            if (plan.isRightLiteral(node)) {
+                rightOperands[node] = value(rightSources[node], rightOperands[node], program.literals);
+            }
+        }
+
+        String[] printVariables = new String[program.printSlots.length];
+        for (int i = 0; i < printVariables.length; i++) {
+            printVariables[i] = program.names.get(program.printSlots[i]);
+        }
+
+        return new ExecutionPlan(
+                nodeVariables,
+                plan.opcodes(),
+                plan.operandKinds(),
+                leftOperands,
+                rightOperands,
+                plan.dependentOffsets(),
+                plan.dependents(),
+                plan.indegree(),
+                plan.executionOrder(),
+                plan.bottomLevels(),
+                printVariables,
+                plan.printNodes(),
+                plan.partialResults(),
+                plan.mergedNodes());
+    }
+
+    /**
+     * Rough retained size used for weight-based eviction: nodes plus the length of the program key.
+     */
+    int weight(ParsedProgram.Key key) {
+        return plan.nodeCount() + key.length();
+    }
+
+    private static long value(int source, long constant, long[] literals) {
+        if (source == NO_PARAMETER) {
+            return constant;
+        }
+        return source >= 0 ? literals[source] : -literals[~source];
+    }
+}
@@ -0,0 +1,197 @@
+package ru.itmo.calculator.execution;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.InstructionSink;
+import ru.itmo.calculator.exception.RequestValidationException;
+
+/**
+ * Reads a program request body token by token straight into a {@link ParsedProgram.Builder}, or instruction by
+ * instruction into any {@link InstructionSink}.
+ *
+ * <p>No object is created per instruction or operand: the fields of an instruction are kept in locals until its
+ * object ends, and every variable name is interned as soon as it is read. The rules of the OpenAPI schema are checked
+ * on the way and reported like bean validation failures. Unknown fields are skipped.
+ */
+final class ProgramJsonReader {
+
+    private static final String INSTRUCTIONS = "instructions";
+    private static final String CALC = "calc";
+    private static final String PRINT = "print";
+    private static final String NOT_NULL = "must not be null";
+    private static final String NAME_PATTERN = "must match \"^[A-Za-z_][A-Za-z0-9_]*$\"";
+    private static final String TYPES = "must be one of [calc, print]";
+    private static final String OPERATIONS = "must be one of [+, -, *]";
+    private static final String INT64 = "must fit into a signed 64-bit integer";
+    static final String NOT_EMPTY = "size must be between 1 and 2147483647";
+
+    private ProgramJsonReader() {
+    }
+
+    static ParsedProgram read(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.START_OBJECT && token != JsonToken.FIELD_NAME) {
+            throw new RequestValidationException("body", "must be an object");
+        }
+        if (token == JsonToken.START_OBJECT) {
+            parser.nextToken();
+        }
+
+        ParsedProgram.Builder builder = null;
+        for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (!INSTRUCTIONS.equals(field)) {
+                parser.skipChildren();
+            } else if (value == JsonToken.START_ARRAY) {
+                builder = new ParsedProgram.Builder(16);
+                for (int index = 0; parser.nextToken() != JsonToken.END_ARRAY; index++) {
+                    readInstruction(parser, index, builder);
+                }
+            } else if (value != JsonToken.VALUE_NULL) {
+                throw new RequestValidationException(INSTRUCTIONS, "must be an array");
+            }
+        }
+
+        if (builder == null) {
+            throw new RequestValidationException(INSTRUCTIONS, NOT_NULL);
+        }
+        if (builder.instructionCount() == 0) {
+            throw new RequestValidationException(INSTRUCTIONS, NOT_EMPTY);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads the instruction object the parser is positioned at into {@code sink}; {@code index} is only used to point
+     * at the instruction in validation errors.
+     */
+    static void readInstruction(JsonParser parser, int index, InstructionSink sink) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new RequestValidationException(path(index, null), "must be an object");
+        }
+
+        String type = null;
+        String op = null;
+        String var = null;
+        boolean leftSet = false;
+        String leftName = null;
+        long leftValue = 0;
+        boolean rightSet = false;
+        String rightName = null;
+        long rightValue = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "type" -> type = text(parser, index, field);
+                case "op" -> op = text(parser, index, field);
+                case "var" -> var = text(parser, index, field);
+                case "left" -> {
+                    leftSet = value != JsonToken.VALUE_NULL;
+                    leftName = operandName(parser, index, field);
+                    leftValue = leftName == null && leftSet ? literal(parser, index, field) : 0;
+                }
+                case "right" -> {
+                    rightSet = value != JsonToken.VALUE_NULL;
+                    rightName = operandName(parser, index, field);
+                    rightValue = rightName == null && rightSet ? literal(parser, index, field) : 0;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (type == null) {
+            throw new RequestValidationException(path(index, "type"), NOT_NULL);
+        }
+        switch (type) {
+            case CALC -> {
+                if (op == null) {
+                    throw new RequestValidationException(path(index, "op"), NOT_NULL);
+                }
+                checkName(var, index);
+                if (!leftSet) {
+                    throw new RequestValidationException(path(index, "left"), NOT_NULL);
+                }
+                if (!rightSet) {
+                    throw new RequestValidationException(path(index, "right"), NOT_NULL);
+                }
+                sink.calc(var, operation(op, index), leftName, leftValue, rightName, rightValue);
+            }
+            case PRINT -> {
+                checkName(var, index);
+                sink.print(var);
+            }
+            default -> throw new RequestValidationException(path(index, "type"), TYPES);
+        }
+    }
+
+    private static String text(JsonParser parser, int index, String field) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw new RequestValidationException(path(index, field), "must be a string");
+        }
+        return parser.getText();
+    }
+
+    /**
+     * Returns the variable name of an operand, or {@code null} if it is a literal or absent.
+     */
+    private static String operandName(JsonParser parser, int index, String field) throws IOException {
+        return switch (parser.currentToken()) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NULL -> null;
+            default -> throw new RequestValidationException(
+                    path(index, field), "must be an integer literal or variable name");
+        };
+    }
+
+    private static long literal(JsonParser parser, int index, String field) throws IOException {
+        if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+            throw new RequestValidationException(path(index, field), INT64);
+        }
+        return parser.getLongValue();
+    }
+
+    private static ArithmeticOp operation(String symbol, int index) {
+        for (ArithmeticOp op : ArithmeticOp.values()) {
+            if (op.symbol().equals(symbol)) {
+                return op;
+            }
+        }
+        throw new RequestValidationException(path(index, "op"), OPERATIONS);
+    }
+
+    private static void checkName(String var, int index) {
+        if (var == null) {
+            throw new RequestValidationException(path(index, "var"), NOT_NULL);
+        }
+        if (!isValidName(var)) {
+            throw new RequestValidationException(path(index, "var"), NAME_PATTERN);
+        }
+    }
+
+    private static boolean isValidName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+            if (!letter && (i == 0 || c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String path(int index, String field) {
+        String element = INSTRUCTIONS + "[" + index + "]";
+        return field == null ? element : element + "." + field;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.itmo.calculator.execution;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a program that was compiled into a plan and admitted; its duration covers both.
+ */
+@Name("ru.itmo.calculator.ProgramPlanning")
+@Label("Program Planning")
+@Category({"Calculator", "Execution"})
+@Description("A program compiled into a plan, through the plan cache, and admitted against the budgets")
+@StackTrace(false)
+final class ProgramPlanningEvent extends jdk.jfr.Event {
+
+    @Label("Transport")
+    String transport;
+
+    @Label("Client")
+    String client;
+
+    @Label("Instructions")
+    int instructions;
+
+    @Label("Plan Nodes")
+    @Description("Operations the prints need after pruning and merging")
+    int nodes;
+
+    @Label("Merged Nodes")
+    int mergedNodes;
+
+    @Label("Critical Path")
+    @Description("Longest chain of dependent operations")
+    int criticalPath;
+}
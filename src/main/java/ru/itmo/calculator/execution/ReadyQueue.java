@@ -0,0 +1,66 @@
+package ru.itmo.calculator.execution;
+
+/**
+ * Max-heap of ready node indices ordered by a fixed per-node priority.
+ *
+ * <p>Each node is offered at most once per run, so the heap is sized to the node count up front and never grows.
+ * Ties are broken by the lower node index to keep runs reproducible.
+ */
+final class ReadyQueue {
+
+    private final int[] priorities;
+    private final int[] heap;
+    private int size;
+
+    ReadyQueue(int[] priorities) {
+        this.priorities = priorities;
+        this.heap = new int[priorities.length];
+    }
+
+    synchronized void offer(int node) {
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!higher(node, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = node;
+    }
+
+    /**
+     * Removes the node with the highest priority, or returns {@code -1} when the queue is empty.
+     */
+    synchronized int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int result = heap[0];
+        int last = heap[--size];
+        int index = 0;
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && higher(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!higher(heap[child], last)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        if (size > 0) {
+            heap[index] = last;
+        }
+        return result;
+    }
+
+    private boolean higher(int node, int other) {
+        int diff = priorities[node] - priorities[other];
+        return diff != 0 ? diff > 0 : node < other;
+    }
+}
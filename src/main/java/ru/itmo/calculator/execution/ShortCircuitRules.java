@@ -0,0 +1,34 @@
+package ru.itmo.calculator.execution;
+
+import ru.itmo.calculator.dto.ArithmeticOp;
+
+/**
+ * Algebraic rules that let an operation finish without paying the operation delay.
+ * For ex: 0*x=0, 1*x=x, 0+x=x, x-0=x e.t.c.
+ *
+ * <p>The rules never change the result: a short-circuited operation yields exactly what the regular arithmetic
+ * would, it is only known instantly.
+ */
+final class ShortCircuitRules {
+
+    private ShortCircuitRules() {
+    }
+
+    /**
+     * Returns whether the result of the operation can be calculated instantly.
+     */
+    static boolean isInstant(ArithmeticOp op, long left, long right) {
+        return switch (op) {
+            case MULTIPLY -> left == 0 || right == 0 || left == 1 || right == 1;
+            case ADD -> left == 0 || right == 0;
+            case SUBTRACT -> right == 0;
+        };
+    }
+
+    /**
+     * Returns whether a single operand equal to {@code value} fixes the result regardless of the other operand.
+     */
+    static boolean isAbsorbing(ArithmeticOp op, long value) {
+        return op == ArithmeticOp.MULTIPLY && value == 0;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.itmo.calculator.execution;
+
+import java.time.Duration;
+
+/**
+ * Outcome of replaying a plan on a virtual clock.
+ *
+ * @param workers worker limit the plan was replayed with; {@code 0} means a worker per ready operation
+ * @param makespan virtual time from the start until the last operation finished
+ * @param operations operations that were executed, short-circuited ones included
+ * @param busyTime sum of the costs of all executed operations
+ * @param peakConcurrency largest number of operations that were running at the same time
+ */
+public record SimulatedExecution(
+        int workers, Duration makespan, int operations, Duration busyTime, int peakConcurrency) {
+
+    /**
+     * Share of the worker time spent in operations, counting {@code peakConcurrency} workers when the number was not
+     * limited; {@code 0} for an instant run.
+     */
+    public double utilization() {
+        long capacity = makespan.toNanos() * (workers > 0 ? workers : peakConcurrency);
+        return capacity == 0 ? 0 : (double) busyTime.toNanos() / capacity;
+    }
+}
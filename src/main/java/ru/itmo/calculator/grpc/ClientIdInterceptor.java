@@ -0,0 +1,71 @@
+package ru.itmo.calculator.grpc;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+import ru.itmo.calculator.execution.ExecutionClient;
+
+/**
+ * Binds the {@link ExecutionClient} of a call, the {@code x-client-id} metadata or the remote host without it, around
+ * every callback of the call, since messages of one call may be delivered on different threads. {@code x-trace: true}
+ * metadata asks for the executions of the call to be traced.
+ */
+@Component
+@GlobalServerInterceptor
+public class ClientIdInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> CLIENT_ID = Metadata.Key.of("x-client-id", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> TRACE = Metadata.Key.of("x-trace", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        String client = client(call, headers);
+        boolean trace = "true".equalsIgnoreCase(headers.get(TRACE));
+        ServerCall.Listener<ReqT> listener;
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, client, trace)) {
+            listener = next.startCall(call, headers);
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, client, trace)) {
+                    super.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, client, trace)) {
+                    super.onHalfClose();
+                }
+            }
+
+            @Override
+            public void onReady() {
+                try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, client, trace)) {
+                    super.onReady();
+                }
+            }
+        };
+    }
+
+    private static String client(ServerCall<?, ?> call, Metadata headers) {
+        String client = headers.get(CLIENT_ID);
+        if (client != null && !client.isBlank()) {
+            return client;
+        }
+        SocketAddress address = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getHostString();
+        }
+        return address == null ? ExecutionClient.ANONYMOUS : address.toString();
+    }
+}
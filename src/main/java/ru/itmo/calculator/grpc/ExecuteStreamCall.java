@@ -0,0 +1,133 @@
+package ru.itmo.calculator.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayDeque;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.execution.ExecutionStream;
+import ru.itmo.calculator.execution.InstructionExecutionFacade;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamResponse;
+
+/**
+ * Server side of a single {@code ExecuteStream} call.
+ *
+ * <p>Inbound messages are requested one at a time, and only while fewer than {@link #MAX_BUFFERED_RESULTS} results
+ * wait for the client, so a client that does not read stops the program from growing instead of the buffer. Results
+ * and the final status are queued and written whenever the transport is ready for more.
+ */
+final class ExecuteStreamCall implements StreamObserver<ExecuteStreamRequest>, ExecutionStream.Listener {
+
+    static final int MAX_BUFFERED_RESULTS = 256;
+
+    private final ServerCallStreamObserver<ExecuteStreamResponse> call;
+    private final InstructionExecutionFacade executionFacade;
+    private final ExecutionStream stream;
+    private final ArrayDeque<ExecuteStreamResponse> buffer = new ArrayDeque<>();
+    private Status terminal;
+    private Metadata terminalTrailers;
+    private boolean closed;
+    private boolean inboundPaused;
+
+    private ExecuteStreamCall(
+            ServerCallStreamObserver<ExecuteStreamResponse> call, InstructionExecutionFacade executionFacade) {
+        this.call = call;
+        this.executionFacade = executionFacade;
+        this.stream = executionFacade.openStream(this);
+    }
+
+    static ExecuteStreamCall start(
+            ServerCallStreamObserver<ExecuteStreamResponse> call, InstructionExecutionFacade executionFacade) {
+        ExecuteStreamCall streamCall = new ExecuteStreamCall(call, executionFacade);
+        call.disableAutoRequest();
+        call.setOnReadyHandler(streamCall::drain);
+        call.setOnCancelHandler(streamCall::cancelled);
+        call.request(1);
+        return streamCall;
+    }
+
+    @Override
+    public void onNext(ExecuteStreamRequest request) {
+        try {
+            executionFacade.append(stream, request);
+        } catch (RuntimeException e) {
+            stream.cancel();
+            failed(e);
+            return;
+        }
+        synchronized (this) {
+            if (buffer.size() < MAX_BUFFERED_RESULTS) {
+                call.request(1);
+            } else {
+                inboundPaused = true;
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        stream.cancel();
+    }
+
+    @Override
+    public void onCompleted() {
+        stream.complete();
+    }
+
+    @Override
+    public synchronized void printed(int printIndex, PrintResult result) {
+        if (closed || terminal != null) {
+            return;
+        }
+        buffer.add(executionFacade.toStreamResponse(printIndex, result));
+        drain();
+    }
+
+    @Override
+    public synchronized void failed(Throwable error) {
+        if (terminal == null) {
+            StatusRuntimeException failure = GrpcErrors.toStatusException(error);
+            terminal = failure.getStatus();
+            terminalTrailers = failure.getTrailers();
+            drain();
+        }
+    }
+
+    @Override
+    public synchronized void completed() {
+        if (terminal == null) {
+            terminal = Status.OK;
+            drain();
+        }
+    }
+
+    private synchronized void drain() {
+        if (closed) {
+            return;
+        }
+        while (!buffer.isEmpty() && call.isReady()) {
+            call.onNext(buffer.poll());
+        }
+        if (inboundPaused && buffer.size() < MAX_BUFFERED_RESULTS) {
+            inboundPaused = false;
+            call.request(1);
+        }
+        if (buffer.isEmpty() && terminal != null) {
+            closed = true;
+            if (terminal.isOk()) {
+                call.onCompleted();
+            } else {
+                call.onError(terminal.asRuntimeException(terminalTrailers));
+            }
+        }
+    }
+
+    private synchronized void cancelled() {
+        closed = true;
+        buffer.clear();
+        stream.cancel();
+    }
+}
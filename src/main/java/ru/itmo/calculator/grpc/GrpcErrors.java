@@ -0,0 +1,38 @@
+package ru.itmo.calculator.grpc;
+
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import ru.itmo.calculator.exception.AdmissionRejectedException;
+import ru.itmo.calculator.exception.SessionNotFoundException;
+
+/**
+ * Maps failures of the execution layer to gRPC statuses.
+ */
+final class GrpcErrors {
+
+    /**
+     * Delay before a retry, in the trailer that gRPC retry policies honour as server pushback.
+     */
+    static final Metadata.Key<String> RETRY_PUSHBACK_MS =
+            Metadata.Key.of("grpc-retry-pushback-ms", Metadata.ASCII_STRING_MARSHALLER);
+
+    private GrpcErrors() {
+    }
+
+    /**
+     * {@code NOT_FOUND} for a missing session, {@code RESOURCE_EXHAUSTED} with a retry pushback for a rejected
+     * admission and {@code INVALID_ARGUMENT} for everything else.
+     */
+    static StatusRuntimeException toStatusException(Throwable error) {
+        if (error instanceof SessionNotFoundException) {
+            return Status.NOT_FOUND.withDescription(error.getMessage()).asRuntimeException();
+        }
+        if (error instanceof AdmissionRejectedException rejected) {
+            Metadata trailers = new Metadata();
+            trailers.put(RETRY_PUSHBACK_MS, Long.toString(rejected.getRetryAfter().toMillis()));
+            return Status.RESOURCE_EXHAUSTED.withDescription(error.getMessage()).asRuntimeException(trailers);
+        }
+        return Status.INVALID_ARGUMENT.withDescription(error.getMessage()).withCause(error).asRuntimeException();
+    }
+}
@@ -1,12 +1,29 @@
 package ru.itmo.calculator.grpc;
 
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import org.springframework.grpc.server.service.GrpcService;
+import ru.itmo.calculator.exception.SessionNotFoundException;
 import ru.itmo.calculator.execution.InstructionExecutionFacade;
+import ru.itmo.calculator.generated.grpc.AppendInstructionsRequest;
+import ru.itmo.calculator.generated.grpc.CloseSessionRequest;
+import ru.itmo.calculator.generated.grpc.CloseSessionResponse;
+import ru.itmo.calculator.generated.grpc.CreateSessionRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteBatchRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteBatchResponse;
+import ru.itmo.calculator.generated.grpc.ExecuteColumnarRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramResponse;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamResponse;
+import ru.itmo.calculator.generated.grpc.ExplainRequest;
+import ru.itmo.calculator.generated.grpc.ExplainResponse;
 import ru.itmo.calculator.generated.grpc.InstructionExecutorGrpc;
+import ru.itmo.calculator.generated.grpc.Session;
 
 @GrpcService
 public class InstructionExecutorGrpcService extends InstructionExecutorGrpc.InstructionExecutorImplBase {
@@ -19,12 +36,83 @@ public class InstructionExecutorGrpcService extends InstructionExecutorGrpc.Inst
 
     @Override
     public void execute(ExecuteProgramRequest request, StreamObserver<ExecuteProgramResponse> responseObserver) {
+        reply(() -> executionFacade.execute(request), responseObserver);
+    }
+
+    @Override
+    public void executeColumnar(
+            ExecuteColumnarRequest request, StreamObserver<ExecuteProgramResponse> responseObserver) {
+        reply(() -> executionFacade.execute(request), responseObserver);
+    }
+
+    @Override
+    public void executeBatch(ExecuteBatchRequest request, StreamObserver<ExecuteBatchResponse> responseObserver) {
+        reply(() -> executionFacade.executeBatch(request), responseObserver);
+    }
+
+    @Override
+    public void explain(ExplainRequest request, StreamObserver<ExplainResponse> responseObserver) {
+        try {
+            responseObserver.onNext(executionFacade.explain(request));
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(GrpcErrors.toStatusException(e));
+        }
+    }
+
+    @Override
+    public StreamObserver<ExecuteStreamRequest> executeStream(StreamObserver<ExecuteStreamResponse> responseObserver) {
+        return ExecuteStreamCall.start(
+                (ServerCallStreamObserver<ExecuteStreamResponse>) responseObserver, executionFacade);
+    }
+
+    @Override
+    public void createSession(CreateSessionRequest request, StreamObserver<Session> responseObserver) {
+        responseObserver.onNext(executionFacade.createSession(request));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void appendInstructions(
+            AppendInstructionsRequest request, StreamObserver<ExecuteProgramResponse> responseObserver) {
+        reply(() -> executionFacade.appendInstructions(request), responseObserver);
+    }
+
+    @Override
+    public void closeSession(CloseSessionRequest request, StreamObserver<CloseSessionResponse> responseObserver) {
         try {
-            responseObserver.onNext(executionFacade.execute(request));
+            responseObserver.onNext(executionFacade.closeSession(request));
             responseObserver.onCompleted();
+        } catch (SessionNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    /**
+     * Answers the call once {@code execution} completes, from the thread that completes it, so the calling thread
+     * is released right after the program is started. Failures are mapped by {@link GrpcErrors}.
+     *
+     * <p>When the client cancels the call or its deadline expires, the execution is cancelled as well.
+     */
+    private static <T> void reply(Supplier<CompletableFuture<T>> execution, StreamObserver<T> responseObserver) {
+        CompletableFuture<T> response;
+        try {
+            response = execution.get();
         } catch (Exception e) {
-            responseObserver.onError(
-                    Status.INVALID_ARGUMENT.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+            responseObserver.onError(GrpcErrors.toStatusException(e));
+            return;
+        }
+        if (responseObserver instanceof ServerCallStreamObserver<T> call) {
+            call.setOnCancelHandler(() -> response.cancel(true));
         }
+        response.whenComplete((value, error) -> {
+            if (error == null) {
+                responseObserver.onNext(value);
+                responseObserver.onCompleted();
+            } else {
+                responseObserver.onError(GrpcErrors.toStatusException(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+            }
+        });
     }
 }
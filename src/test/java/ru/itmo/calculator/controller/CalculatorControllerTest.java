@@ -5,30 +5,55 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import ru.itmo.calculator.config.JacksonConfig;
-import ru.itmo.calculator.dto.LiteralOperandValue;
+import ru.itmo.calculator.config.ProgramRequestConfig;
+import ru.itmo.calculator.converter.CalculatorApiConverter;
+import ru.itmo.calculator.converter.GrpcInstructionConverter;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.exception.AdmissionRejectedException;
 import ru.itmo.calculator.exception.GlobalExceptionHandler;
+import ru.itmo.calculator.execution.CompactBatchRequest;
+import ru.itmo.calculator.execution.CompactProgramRequest;
+import ru.itmo.calculator.execution.ExecutionStream;
 import ru.itmo.calculator.execution.InstructionExecutionFacade;
-import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
-import ru.itmo.calculator.openapi.model.OperationDto;
+import ru.itmo.calculator.execution.InstructionExecutionService;
+import ru.itmo.calculator.openapi.model.ErrorResponseDto;
+import ru.itmo.calculator.openapi.model.ExecuteBatchResponseDto;
+import ru.itmo.calculator.openapi.model.ExecutionExplanationDto;
 import ru.itmo.calculator.openapi.model.PrintedValueDto;
+import ru.itmo.calculator.openapi.model.ProgramResultDto;
 import ru.itmo.calculator.openapi.model.ExecuteProgramResponseDto;
+import ru.itmo.calculator.openapi.model.StreamedPrintedValueDto;
 
 @WebMvcTest(controllers = CalculatorController.class)
-@Import({JacksonConfig.class, GlobalExceptionHandler.class})
+@Import({JacksonConfig.class, ProgramRequestConfig.class, GlobalExceptionHandler.class})
 class CalculatorControllerTest {
 
     @Autowired
@@ -37,6 +62,9 @@ class CalculatorControllerTest {
     @MockBean
     private InstructionExecutionFacade executionFacade;
 
+    @Value("${spring.mvc.async.request-timeout}")
+    private Duration requestTimeout;
+
     @Test
     void executesProgramAndReturnsPrintedValues() throws Exception {
         String requestBody =
@@ -51,25 +79,22 @@ class CalculatorControllerTest {
 
         ExecuteProgramResponseDto response =
                 new ExecuteProgramResponseDto().items(List.of(new PrintedValueDto().var("x").value(3L)));
-        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(ExecuteProgramRequestDto.class)))
-                .thenReturn(response);
+        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(CompactProgramRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(response));
 
-        mockMvc.perform(post("/api/v1/executions").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.items[0].var").value("x"))
                 .andExpect(jsonPath("$.items[0].value").value(3));
 
-        ArgumentCaptor<ExecuteProgramRequestDto> requestCaptor = ArgumentCaptor.forClass(ExecuteProgramRequestDto.class);
+        ArgumentCaptor<CompactProgramRequest> requestCaptor = ArgumentCaptor.forClass(CompactProgramRequest.class);
         verify(executionFacade).execute(requestCaptor.capture());
-        ExecuteProgramRequestDto parsedRequest = requestCaptor.getValue();
-
-        assertEquals(2, parsedRequest.getInstructions().size());
-        ru.itmo.calculator.openapi.model.CalcInstructionDto calc =
-                (ru.itmo.calculator.openapi.model.CalcInstructionDto) parsedRequest.getInstructions().getFirst();
-        assertEquals(OperationDto.PLUS, calc.getOp());
-        assertTrue(calc.getLeft() instanceof LiteralOperandValue);
-        assertTrue(parsedRequest.getInstructions().get(1)
-                instanceof ru.itmo.calculator.openapi.model.PrintInstructionDto);
+        assertEquals(2, requestCaptor.getValue().instructionCount());
     }
 
     @Test
@@ -95,11 +120,340 @@ class CalculatorControllerTest {
                 }
                 """;
 
-        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(ExecuteProgramRequestDto.class)))
-                .thenThrow(new IllegalArgumentException("boom"));
+        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(CompactProgramRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalArgumentException("boom")));
 
-        mockMvc.perform(post("/api/v1/executions").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("boom"));
     }
+
+    @Test
+    void returnsTooManyRequestsWhenAdmissionIsRejected() throws Exception {
+        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(CompactProgramRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new AdmissionRejectedException("Too many operations in flight", Duration.ofMillis(1500))));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(STREAMED_PROGRAM))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.message").value("Too many operations in flight"));
+    }
+
+    @Test
+    void cancelsExecutionWhenAsyncRequestTimesOut() throws Exception {
+        CompletableFuture<ExecuteProgramResponseDto> execution = new CompletableFuture<>();
+        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(CompactProgramRequest.class)))
+                .thenReturn(execution);
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(STREAMED_PROGRAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        assertEquals(requestTimeout.toMillis(), asyncContext.getTimeout());
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        assertTrue(execution.isCancelled());
+    }
+
+    @Test
+    void cancelsExecutionWhenConnectionFails() throws Exception {
+        CompletableFuture<ExecuteProgramResponseDto> execution = new CompletableFuture<>();
+        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(CompactProgramRequest.class)))
+                .thenReturn(execution);
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(STREAMED_PROGRAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        disconnect(result);
+
+        assertTrue(execution.isCancelled());
+    }
+
+    @Test
+    void answersServiceUnavailableWhenAsyncRequestTimesOut() throws Exception {
+        when(executionFacade.execute(org.mockito.ArgumentMatchers.any(CompactProgramRequest.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(STREAMED_PROGRAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Execution did not finish within the request timeout"));
+    }
+
+    @Test
+    void streamsPrintedValuesAsNdjson() throws Exception {
+        streamResults();
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(STREAMED_PROGRAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("""
+                        {"printIndex":1,"var":"y","value":15}
+                        {"printIndex":0,"var":"x","value":3}
+                        """));
+    }
+
+    @Test
+    void streamsPrintedValuesAsServerSentEvents() throws Exception {
+        streamResults();
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(STREAMED_PROGRAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "id:1\nevent:print\ndata:{\"printIndex\":1,\"var\":\"y\",\"value\":15}\n\n")));
+    }
+
+    @Test
+    void rejectsInvalidStreamedProgramBeforeStreaming() throws Exception {
+        when(executionFacade.executeStreaming(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    invocation.<ExecutionStream.Listener>getArgument(1)
+                            .failed(new IllegalArgumentException("Variable is never calculated: y"));
+                    return CompletableFuture.completedFuture(null);
+                });
+
+        mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(STREAMED_PROGRAM))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Variable is never calculated: y"));
+    }
+
+    @Test
+    void executesNdjsonBodyWhileItIsReceived() throws Exception {
+        String body =
+                """
+                {"type": "calc", "op": "+", "var": "x", "left": 1, "right": 2}
+                {"type": "print", "var": "x"}
+                """;
+        when(executionFacade.executePipelined(org.mockito.ArgumentMatchers.any())).thenAnswer(invocation -> {
+            byte[] received = invocation.<InputStream>getArgument(0).readAllBytes();
+            assertEquals(body, new String(received, StandardCharsets.UTF_8));
+            return CompletableFuture.completedFuture(
+                    new ExecuteProgramResponseDto().items(List.of(new PrintedValueDto().var("x").value(3L))));
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].var").value("x"))
+                .andExpect(jsonPath("$.items[0].value").value(3));
+    }
+
+    @Test
+    void cancelsPipelinedExecutionWhenConnectionFails() throws Exception {
+        CompletableFuture<ExecuteProgramResponseDto> execution = new CompletableFuture<>();
+        when(executionFacade.executePipelined(org.mockito.ArgumentMatchers.any())).thenReturn(execution);
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("{\"type\": \"print\", \"var\": \"x\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        disconnect(result);
+
+        assertTrue(execution.isCancelled());
+    }
+
+    @Test
+    void executesBatchOfPrograms() throws Exception {
+        String requestBody =
+                """
+                {
+                  "programs": [
+                    { "instructions": [ { "type": "print", "var": "x" } ] },
+                    { "instructions": [
+                        { "type": "calc", "op": "+", "var": "y", "left": 1, "right": 2 },
+                        { "type": "print", "var": "y" } ] }
+                  ]
+                }
+                """;
+        when(executionFacade.executeBatch(org.mockito.ArgumentMatchers.any(CompactBatchRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(new ExecuteBatchResponseDto().results(List.of(
+                        new ProgramResultDto().error(new ErrorResponseDto().message("Variable is never calculated: x")),
+                        new ProgramResultDto().items(List.of(new PrintedValueDto().var("y").value(3L)))))));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].error.message").value("Variable is never calculated: x"))
+                .andExpect(jsonPath("$.results[1].items[0].value").value(3));
+
+        ArgumentCaptor<CompactBatchRequest> captor = ArgumentCaptor.forClass(CompactBatchRequest.class);
+        verify(executionFacade).executeBatch(captor.capture());
+        assertEquals(2, captor.getValue().programs().size());
+        assertEquals(2, captor.getValue().programs().get(1).instructionCount());
+    }
+
+    @Test
+    void reportsMalformedProgramOfBatchInItsOwnResult() throws Exception {
+        String requestBody =
+                """
+                {
+                  "programs": [
+                    { "instructions": [ { "type": "calc", "op": "+", "var": "x", "left": 1 } ] },
+                    { "instructions": [
+                        { "type": "calc", "op": "*", "var": "y", "left": 6, "right": 7 },
+                        { "type": "print", "var": "y" } ] }
+                  ]
+                }
+                """;
+        InstructionExecutionFacade realFacade = new InstructionExecutionFacade(
+                new InstructionExecutionService(Runnable::run, Duration.ZERO, null),
+                new CalculatorApiConverter(), new GrpcInstructionConverter(), null);
+        when(executionFacade.executeBatch(org.mockito.ArgumentMatchers.any(CompactBatchRequest.class)))
+                .thenAnswer(invocation -> realFacade.executeBatch(invocation.<CompactBatchRequest>getArgument(0)));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].error.message").value("Request validation failed"))
+                .andExpect(jsonPath("$.results[0].error.details[0]").value("instructions[0].right: must not be null"))
+                .andExpect(jsonPath("$.results[1].items[0].value").value(42));
+    }
+
+    @Test
+    void rejectsBatchThatIsNotJson() throws Exception {
+        mockMvc.perform(post("/api/v1/executions:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"programs\": [ { \"instructions\": [ "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Malformed request body"));
+    }
+
+    @Test
+    void rejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/v1/executions:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"programs\": [] }"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void explainsProgramForRequestedWorkers() throws Exception {
+        when(executionFacade.explain(
+                org.mockito.ArgumentMatchers.any(CompactProgramRequest.class), org.mockito.ArgumentMatchers.eq(4)))
+                .thenReturn(new ExecutionExplanationDto()
+                        .instructions(2)
+                        .requiredVariables(1)
+                        .depth(1)
+                        .levelWidths(List.of(1))
+                        .criticalPath(List.of("x"))
+                        .expectedOperations(1)
+                        .workers(4)
+                        .predictedMakespanMillis(50.0));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/executions:explain")
+                        .param("workers", "4")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(STREAMED_PROGRAM))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.criticalPath[0]").value("x"))
+                .andExpect(jsonPath("$.workers").value(4))
+                .andExpect(jsonPath("$.predictedMakespanMillis").value(50.0));
+    }
+
+    @Test
+    void rejectsNegativeWorkerCountForExplain() throws Exception {
+        mockMvc.perform(post("/api/v1/executions:explain")
+                        .param("workers", "-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(STREAMED_PROGRAM))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value(containsString("workers")));
+    }
+
+    private static final String STREAMED_PROGRAM =
+            """
+            {
+              "instructions": [
+                { "type": "calc", "op": "+", "var": "x", "left": 1, "right": 2 },
+                { "type": "print", "var": "x" },
+                { "type": "calc", "op": "*", "var": "y", "left": 3, "right": 5 },
+                { "type": "print", "var": "y" }
+              ]
+            }
+            """;
+
+    private void streamResults() {
+        when(executionFacade.toStreamedValue(org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    PrintResult printed = invocation.getArgument(1);
+                    return new StreamedPrintedValueDto()
+                            .printIndex(invocation.getArgument(0))
+                            .var(printed.var())
+                            .value(printed.value());
+                });
+        when(executionFacade.executeStreaming(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    ExecutionStream.Listener listener = invocation.getArgument(1);
+                    listener.printed(1, new PrintResult("y", 15));
+                    listener.printed(0, new PrintResult("x", 3));
+                    listener.completed();
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+
+    private static void disconnect(MvcResult result) throws Exception {
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, new IOException("Broken pipe")));
+        }
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onComplete(new AsyncEvent(asyncContext));
+        }
+    }
 }
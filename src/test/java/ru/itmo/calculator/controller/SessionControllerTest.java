@@ -0,0 +1,95 @@
+package ru.itmo.calculator.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import ru.itmo.calculator.config.JacksonConfig;
+import ru.itmo.calculator.exception.GlobalExceptionHandler;
+import ru.itmo.calculator.exception.SessionNotFoundException;
+import ru.itmo.calculator.execution.InstructionExecutionFacade;
+import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
+import ru.itmo.calculator.openapi.model.ExecuteProgramResponseDto;
+import ru.itmo.calculator.openapi.model.PrintedValueDto;
+import ru.itmo.calculator.openapi.model.SessionDto;
+
+@WebMvcTest(controllers = SessionController.class)
+@Import({JacksonConfig.class, GlobalExceptionHandler.class})
+class SessionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private InstructionExecutionFacade executionFacade;
+
+    @Test
+    void createsSession() throws Exception {
+        when(executionFacade.createSession()).thenReturn(new SessionDto().sessionId("s1"));
+
+        performAsync(post("/api/v1/sessions"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sessionId").value("s1"));
+    }
+
+    @Test
+    void appendsInstructionsToSession() throws Exception {
+        String requestBody =
+                """
+                {
+                  "instructions": [
+                    { "type": "calc", "op": "*", "var": "y", "left": "x", "right": 2 },
+                    { "type": "print", "var": "y" }
+                  ]
+                }
+                """;
+        when(executionFacade.appendInstructions(eq("s1"), any(ExecuteProgramRequestDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new ExecuteProgramResponseDto().items(List.of(new PrintedValueDto().var("y").value(6L)))));
+
+        performAsync(post("/api/v1/sessions/s1/instructions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].var").value("y"))
+                .andExpect(jsonPath("$.items[0].value").value(6));
+    }
+
+    @Test
+    void returnsNotFoundForMissingSession() throws Exception {
+        doThrow(new SessionNotFoundException("s1")).when(executionFacade).closeSession("s1");
+
+        mockMvc.perform(delete("/api/v1/sessions/s1"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Session not found: s1"));
+    }
+
+    @Test
+    void closesSession() throws Exception {
+        performAsync(delete("/api/v1/sessions/s2")).andExpect(status().isNoContent());
+
+        verify(executionFacade).closeSession("s2");
+    }
+
+    private ResultActions performAsync(RequestBuilder request) throws Exception {
+        return mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn()));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.itmo.calculator.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.InstructionSink;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.generated.grpc.ExecuteColumnarRequest;
+import ru.itmo.calculator.generated.grpc.Operation;
+
+class GrpcInstructionConverterTest {
+
+    private final GrpcInstructionConverter converter = new GrpcInstructionConverter();
+
+    @Test
+    void readsColumnarProgramInProgramOrder() {
+        List<Instruction> program = List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(10), new LiteralOperand(-2)),
+                new PrintInstruction("y"),
+                new CalcInstruction("y", ArithmeticOp.SUBTRACT, new VariableOperand("x"), new LiteralOperand(3)),
+                new CalcInstruction("z", ArithmeticOp.MULTIPLY, new LiteralOperand(0), new VariableOperand("y")),
+                new PrintInstruction("z"));
+
+        ExecuteColumnarRequest request = converter.toColumnarRequest(program);
+        RecordingSink sink = new RecordingSink();
+        converter.readColumnarProgram(request, sink);
+
+        assertEquals(List.of("x", "y", "z"), request.getNamesList());
+        assertEquals(List.of(10L, -2L, 3L, 0L), request.getLiteralsList());
+        assertEquals(program, sink.instructions);
+        assertSame(sink.names.get(1), sink.names.get(2));
+    }
+
+    @Test
+    void rejectsInconsistentColumns() {
+        ExecuteColumnarRequest valid = converter.toColumnarRequest(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new VariableOperand("x"), new LiteralOperand(1)),
+                new PrintInstruction("x")));
+
+        IllegalArgumentException outOfRange = assertThrows(IllegalArgumentException.class, () -> read(
+                valid.toBuilder().setVariables(1, 5).build()));
+        assertEquals("Variable index out of range: 5", outOfRange.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> read(valid.toBuilder().clearLiterals().build()));
+        assertThrows(IllegalArgumentException.class, () -> read(valid.toBuilder().addLiterals(7).build()));
+        assertThrows(IllegalArgumentException.class, () -> read(valid.toBuilder().addVariables(0).build()));
+        assertThrows(IllegalArgumentException.class, () -> read(valid.toBuilder().setOpcodesValue(0, 42).build()));
+        assertThrows(IllegalArgumentException.class, () -> read(
+                valid.toBuilder().clearOperandKinds().setOpcodes(1, Operation.OPERATION_ADD).build()));
+    }
+
+    private void read(ExecuteColumnarRequest request) {
+        converter.readColumnarProgram(request, new RecordingSink());
+    }
+
+    private static final class RecordingSink implements InstructionSink {
+        final List<Instruction> instructions = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+
+        @Override
+        public void calc(
+                String var, ArithmeticOp op, String leftName, long leftValue, String rightName, long rightValue) {
+            names.add(var);
+            instructions.add(new CalcInstruction(var, op, operand(leftName, leftValue), operand(rightName, rightValue)));
+        }
+
+        @Override
+        public void print(String var) {
+            names.add(var);
+            instructions.add(new PrintInstruction(var));
+        }
+
+        private static Operand operand(String name, long value) {
+            return name == null ? new LiteralOperand(value) : new VariableOperand(name);
+        }
+    }
+}
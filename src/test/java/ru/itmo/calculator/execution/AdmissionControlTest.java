@@ -0,0 +1,148 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.exception.AdmissionRejectedException;
+
+class AdmissionControlTest {
+
+    private final ExecutionPlanCompiler compiler = new ExecutionPlanCompiler();
+
+    @Test
+    void rejectsProgramsOverTheGlobalBudgetUntilItIsReleased() {
+        AdmissionControl admission = new AdmissionControl(5, 0, Duration.ofSeconds(2));
+
+        Runnable first = admission.admit("a", plan(3));
+        AdmissionRejectedException rejected =
+                assertThrows(AdmissionRejectedException.class, () -> admission.admit("b", plan(3)));
+        assertEquals(Duration.ofSeconds(2), rejected.getRetryAfter());
+        assertEquals(3, admission.inFlightOperations());
+        assertEquals(1, admission.globalRejectionCount());
+
+        first.run();
+        admission.admit("b", plan(3));
+        assertEquals(3, admission.inFlightOperations());
+    }
+
+    @Test
+    void limitsEveryClientSeparately() {
+        AdmissionControl admission = new AdmissionControl(0, 4, Duration.ofSeconds(1));
+
+        admission.admit("a", plan(3));
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("a", plan(2)));
+        admission.admit("b", plan(3));
+
+        assertEquals(6, admission.inFlightOperations());
+        assertEquals(1, admission.clientRejectionCount());
+    }
+
+    @Test
+    void admitsProgramLargerThanTheBudgetWhenNothingElseRuns() {
+        AdmissionControl admission = new AdmissionControl(2, 2, Duration.ofSeconds(1));
+
+        Runnable large = admission.admit("a", plan(5));
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("b", plan(1)));
+
+        large.run();
+        assertEquals(0, admission.inFlightOperations());
+        admission.admit("a", plan(1));
+    }
+
+    @Test
+    void rejectsLongCriticalPathOnlyWhileOtherProgramsRun() {
+        AdmissionControl admission = new AdmissionControl(0, 0, 3, Duration.ofSeconds(1));
+
+        Runnable longAlone = admission.admit("a", plan(5));
+        assertThrows(AdmissionRejectedException.class, () -> admission.admit("b", plan(4)));
+        Runnable shortPath = admission.admit("b", plan(3));
+        assertEquals(1, admission.criticalPathRejectionCount());
+
+        longAlone.run();
+        shortPath.run();
+        admission.admit("b", plan(4));
+    }
+
+    @Test
+    void serviceChargesTheBoundClientAndReleasesOnCompletion() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        AdmissionControl admission = new AdmissionControl(0, 3, Duration.ofSeconds(1));
+        InstructionExecutionService service = InstructionExecutionService.builder(executor)
+                .operationDelay(Duration.ofMillis(200))
+                .planCache(new ExecutionPlanCache(10, 1000))
+                .admissionControl(admission)
+                .build();
+        try {
+            CompletableFuture<List<PrintResult>> running;
+            try (ExecutionClient.Scope ignored = ExecutionClient.enter("a")) {
+                running = service.executeAsync(program(3));
+                CompletionException rejected = assertThrows(
+                        CompletionException.class, () -> service.executeAsync(program(2)).join());
+                assertTrue(rejected.getCause() instanceof AdmissionRejectedException);
+            }
+            try (ExecutionClient.Scope ignored = ExecutionClient.enter("b")) {
+                assertEquals(1, service.executeAsync(program(2)).join().size());
+            }
+
+            running.join();
+            assertEquals(0, admission.inFlightOperations());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void serviceReleasesTheBudgetWhenTheRunFailsToStart() {
+        AdmissionControl admission = new AdmissionControl(0, 3, Duration.ofSeconds(1));
+        Executor shutDown = command -> {
+            throw new IllegalStateException("Executor is shut down");
+        };
+        InstructionExecutionService service = InstructionExecutionService.builder(shutDown)
+                .planCache(new ExecutionPlanCache(10, 1000))
+                .admissionControl(admission)
+                .build();
+
+        CompletionException failed =
+                assertThrows(CompletionException.class, () -> service.executeAsync(program(3)).join());
+
+        assertTrue(failed.getCause() instanceof IllegalStateException);
+        assertEquals(0, admission.inFlightOperations());
+        admission.admit("anonymous", plan(3));
+    }
+
+    private ExecutionPlan plan(int operations) {
+        return compiler.compile(program(operations));
+    }
+
+    /**
+     * A chain of {@code operations} subtractions, which is never rebalanced or merged.
+     */
+    private static List<Instruction> program(int operations) {
+        List<Instruction> program = new ArrayList<>();
+        program.add(new CalcInstruction("v0", ArithmeticOp.SUBTRACT, new LiteralOperand(10), new LiteralOperand(1)));
+        for (int i = 1; i < operations; i++) {
+            program.add(new CalcInstruction(
+                    "v" + i, ArithmeticOp.SUBTRACT, new LiteralOperand(10), new VariableOperand("v" + (i - 1))));
+        }
+        program.add(new PrintInstruction("v" + (operations - 1)));
+        return program;
+    }
+}
@@ -0,0 +1,156 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class DagSchedulerTest {
+
+    private final ExecutionPlanCompiler compiler = new ExecutionPlanCompiler();
+
+    @Test
+    void computesDiamondOnSharedPool() {
+        ExecutionPlan plan = compiler.compile(List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(3)),
+                new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(2)),
+                new CalcInstruction("c", ArithmeticOp.SUBTRACT, new VariableOperand("a"), new LiteralOperand(1)),
+                new CalcInstruction("d", ArithmeticOp.SUBTRACT, new VariableOperand("b"), new VariableOperand("c")),
+                new PrintInstruction("d")));
+
+        long[] values = DagScheduler.start(plan, ForkJoinPool.commonPool(), evaluator(plan), true).join();
+
+        assertEquals(6, values[plan.printNodes()[0]]);
+    }
+
+    @Test
+    void runsLongChainOnCallerThreadWithoutDeepRecursion() {
+        int length = 100_000;
+        List<Instruction> program = new ArrayList<>();
+        program.add(new CalcInstruction("v0", ArithmeticOp.ADD, new LiteralOperand(0), new LiteralOperand(1)));
+        // i - v is not associative, so the compiler cannot rebalance the chain.
+        for (int i = 1; i < length; i++) {
+            program.add(new CalcInstruction(
+                    "v" + i, ArithmeticOp.SUBTRACT, new LiteralOperand(i), new VariableOperand("v" + (i - 1))));
+        }
+        program.add(new PrintInstruction("v" + (length - 1)));
+        ExecutionPlan plan = compiler.compile(program);
+
+        long[] values = DagScheduler.start(plan, Runnable::run, evaluator(plan), true).join();
+
+        assertEquals(length, plan.criticalPathLength());
+        assertEquals(length / 2 - 1, values[plan.printNodes()[0]]);
+    }
+
+    @Test
+    void completesExceptionallyWhenOperationFails() {
+        ExecutionPlan plan = compiler.compile(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new PrintInstruction("x")));
+
+        CompletionException ex = assertThrows(
+                CompletionException.class,
+                () -> DagScheduler.start(plan, Runnable::run, (node, left, right) -> {
+                    throw new IllegalStateException("boom");
+                }, true).join());
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    @Test
+    void cancellationInterruptsRunningOperationAndDropsTheRest() throws Exception {
+        ExecutionPlan plan = compiler.compile(List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(3)),
+                new CalcInstruction("c", ArithmeticOp.SUBTRACT, new VariableOperand("b"), new LiteralOperand(4)),
+                new PrintInstruction("c")));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+        int[] saved = new int[2];
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<long[]> run = DagScheduler.start(plan, executor, (node, left, right) -> {
+                executed.incrementAndGet();
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new IllegalStateException(e);
+                }
+                return 0;
+            }, true, (droppedNodes, interruptedNodes) -> {
+                saved[0] = droppedNodes;
+                saved[1] = interruptedNodes;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            run.cancel(true);
+
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            assertEquals(2, saved[0]);
+            assertEquals(1, saved[1]);
+            // The pooled thread is free for other work and does not carry the interrupt over.
+            assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get(5, TimeUnit.SECONDS));
+            assertEquals(1, executed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void weightsPrioritiesByOperationCost() {
+        ExecutionPlan plan = compiler.compile(List.of(
+                new CalcInstruction("s1", ArithmeticOp.SUBTRACT, new LiteralOperand(8), new LiteralOperand(2)),
+                new CalcInstruction("s2", ArithmeticOp.SUBTRACT, new LiteralOperand(100), new VariableOperand("s1")),
+                new CalcInstruction("m", ArithmeticOp.MULTIPLY, new LiteralOperand(3), new LiteralOperand(7)),
+                new PrintInstruction("s2"),
+                new PrintInstruction("m")));
+        int s1 = node(plan, "s1");
+        int m = node(plan, "m");
+
+        int[] uniform = DagScheduler.priorities(plan, OperationCostModel.uniform(Duration.ofMillis(20)));
+        int[] weighted = DagScheduler.priorities(plan, OperationCostModel.of(Duration.ofNanos(1), Map.of(
+                ArithmeticOp.MULTIPLY, Duration.ofNanos(10))));
+
+        assertSame(plan.bottomLevels(), uniform);
+        assertTrue(uniform[s1] > uniform[m]);
+        assertEquals(2, weighted[s1]);
+        assertEquals(10, weighted[m]);
+    }
+
+    private static int node(ExecutionPlan plan, String variable) {
+        return List.of(plan.nodeVariables()).indexOf(variable);
+    }
+
+    private static DagScheduler.NodeOperation evaluator(ExecutionPlan plan) {
+        return (node, left, right) -> switch (plan.op(node)) {
+            case ADD -> left + right;
+            case SUBTRACT -> left - right;
+            case MULTIPLY -> left * right;
+        };
+    }
+}
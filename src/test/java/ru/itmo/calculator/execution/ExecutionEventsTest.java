@@ -0,0 +1,106 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionEventsTest {
+
+    private static final String PLANNING = "ru.itmo.calculator.ProgramPlanning";
+    private static final String NODE = "ru.itmo.calculator.NodeExecution";
+    private static final String JOIN = "ru.itmo.calculator.ExecutionJoin";
+
+    private static final List<Instruction> PROGRAM = List.of(
+            new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+            new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(1)),
+            new PrintInstruction("b"));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recordsPlanningNodesAndTheJoin() throws Exception {
+        InstructionExecutionService service = new InstructionExecutionService(
+                Runnable::run, Duration.ofMillis(5), null);
+        Path dump = tempDir.resolve("calculator.jfr");
+
+        try (Recording recording = new Recording()) {
+            for (String event : List.of(PLANNING, NODE, JOIN)) {
+                recording.enable(event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.HTTP, "client")) {
+                service.execute(PROGRAM);
+            }
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+        RecordedEvent planning = single(events, PLANNING);
+        assertEquals("http", planning.getString("transport"));
+        assertEquals("client", planning.getString("client"));
+        assertEquals(3, planning.getInt("instructions"));
+        assertEquals(2, planning.getInt("nodes"));
+        assertEquals(2, planning.getInt("criticalPath"));
+
+        Map<String, RecordedEvent> nodes = events.stream()
+                .filter(event -> event.getEventType().getName().equals(NODE))
+                .collect(Collectors.toMap(event -> event.getString("variable"), Function.identity()));
+        assertEquals(2, nodes.size());
+        assertEquals("+", nodes.get("a").getString("operation"));
+        assertFalse(nodes.get("a").getBoolean("shortCircuited"));
+        assertTrue(nodes.get("a").getDuration().compareTo(Duration.ofMillis(5)) >= 0);
+        assertTrue(nodes.get("b").getBoolean("shortCircuited"));
+
+        RecordedEvent join = single(events, JOIN);
+        assertEquals(ExecutionJoinEvent.EXECUTE, join.getString("entryPoint"));
+        assertEquals("client", join.getString("client"));
+    }
+
+    @Test
+    void bundlesASettingsProfileForTheEvents() throws Exception {
+        Configuration configuration;
+        try (InputStream in = getClass().getResourceAsStream("/jfr/calculator.jfc")) {
+            assertNotNull(in);
+            configuration = Configuration.create(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        for (String event : List.of(PLANNING, NODE, JOIN)) {
+            assertEquals("true", configuration.getSettings().get(event + "#enabled"));
+            assertNotNull(configuration.getSettings().get(event + "#threshold"));
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .toList();
+        assertEquals(1, matching.size(), name);
+        return matching.getFirst();
+    }
+}
@@ -0,0 +1,86 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionExplainerTest {
+
+    private static final OperationCostModel COSTS = OperationCostModel.of(Duration.ofMillis(20), Map.of(
+            ArithmeticOp.ADD, Duration.ofMillis(10),
+            ArithmeticOp.MULTIPLY, Duration.ofMillis(30)));
+
+    private static final List<Instruction> ZERO_TIMES_CHAIN = List.of(
+            new CalcInstruction("zero", ArithmeticOp.SUBTRACT, new LiteralOperand(5), new LiteralOperand(5)),
+            new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+            new CalcInstruction("y", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new LiteralOperand(3)),
+            new CalcInstruction("p", ArithmeticOp.MULTIPLY, new VariableOperand("zero"), new VariableOperand("y")),
+            new PrintInstruction("p"));
+
+    @Test
+    void describesPlanShapeAndPredictsMakespan() {
+        List<Instruction> program = List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(3)),
+                new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(2)),
+                new CalcInstruction("c", ArithmeticOp.SUBTRACT, new VariableOperand("a"), new LiteralOperand(1)),
+                new CalcInstruction("sameAsC", ArithmeticOp.SUBTRACT, new VariableOperand("a"), new LiteralOperand(1)),
+                new CalcInstruction("unused", ArithmeticOp.ADD, new LiteralOperand(7), new LiteralOperand(8)),
+                new CalcInstruction("d", ArithmeticOp.SUBTRACT, new VariableOperand("b"), new VariableOperand("sameAsC")),
+                new PrintInstruction("c"),
+                new PrintInstruction("d"));
+
+        ExecutionExplanation serial = service(true).explain(ParsedProgram.parse(program), 1);
+        ExecutionExplanation parallel = service(true).explain(ParsedProgram.parse(program), 0);
+
+        assertEquals(8, serial.instructions());
+        assertEquals(5, serial.requiredVariables());
+        assertEquals(1, serial.mergedVariables());
+        assertEquals(1, serial.prunedVariables());
+        assertEquals(3, serial.depth());
+        assertEquals(List.of(1, 2, 1), serial.levelWidths());
+        assertEquals(3, serial.criticalPath().size());
+        assertEquals("a", serial.criticalPath().getFirst());
+        assertEquals("d", serial.criticalPath().getLast());
+        assertEquals(4, serial.expectedOperations());
+        assertEquals(Duration.ofMillis(80), serial.prediction().makespan());
+        assertEquals(Duration.ofMillis(60), parallel.prediction().makespan());
+        assertEquals(2, parallel.prediction().peakConcurrency());
+    }
+
+    @Test
+    void expectsOnlyTheZeroOfAMultiplicationWithLazyShortCircuit() {
+        ExecutionExplanation lazy = service(true).explain(ParsedProgram.parse(ZERO_TIMES_CHAIN), 0);
+        ExecutionExplanation eager = service(false).explain(ParsedProgram.parse(ZERO_TIMES_CHAIN), 0);
+
+        assertEquals(4, lazy.requiredVariables());
+        assertEquals(1, lazy.expectedOperations());
+        assertEquals(3, eager.expectedOperations());
+        assertEquals(List.of("x", "y", "p"), lazy.criticalPath());
+    }
+
+    @Test
+    void rejectsInvalidProgramsLikeAnExecution() {
+        List<Instruction> program = List.of(new PrintInstruction("missing"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service(true).explain(ParsedProgram.parse(program), 0));
+    }
+
+    private static InstructionExecutionService service(boolean lazyShortCircuit) {
+        return InstructionExecutionService.builder(Runnable::run)
+                .costModel(COSTS)
+                .lazyShortCircuit(lazyShortCircuit)
+                .planCache(new ExecutionPlanCache(10, 1000))
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    // Only additions take time, so a subtraction yields its zero while the additions are still running.
+    private final InstructionExecutionService service = InstructionExecutionService.builder(executor)
+            .costModel(OperationCostModel.of(Duration.ZERO, Map.of(ArithmeticOp.ADD, Duration.ofMillis(50))))
+            .planCache(new ExecutionPlanCache(10, 1000))
+            .metrics(new ExecutionMetrics(registry))
+            .build();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void recordsPlanAndRunOfEveryExecutionByTransport() {
+        List<Instruction> program = List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("b", ArithmeticOp.ADD, new LiteralOperand(3), new LiteralOperand(4)),
+                new CalcInstruction("unused", ArithmeticOp.ADD, new LiteralOperand(5), new LiteralOperand(6)),
+                new CalcInstruction("c", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new VariableOperand("b")),
+                new PrintInstruction("c"));
+
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, "client")) {
+            assertEquals(List.of(new PrintResult("c", 21)), service.execute(program));
+        }
+
+        assertEquals(5, summary("calculator.execution.program.size").totalAmount());
+        assertEquals(3, summary("calculator.execution.plan.nodes").totalAmount());
+        assertEquals(2, summary("calculator.execution.plan.critical-path").totalAmount());
+        assertEquals(1, timer("calculator.execution.planning").count());
+        assertEquals(1, timer("calculator.execution.duration").count());
+        assertTrue(timer("calculator.execution.computing").totalTime(TimeUnit.MILLISECONDS) >= 100);
+        assertTrue(timer("calculator.execution.duration").totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(1, timer("calculator.execution.waiting").count());
+        assertEquals(1, summary("calculator.execution.parallelism").count());
+        assertEquals(0, summary("calculator.execution.short-circuit").totalAmount());
+        assertEquals(0, summary("calculator.execution.instant").totalAmount());
+        assertTrue(timer("calculator.executor.queue.delay").count() >= 2);
+        assertNotNull(registry.find("calculator.executor.active").tag("transport", "grpc").gauge());
+        assertNull(registry.find("calculator.execution.duration").tag("transport", "http").timer());
+    }
+
+    @Test
+    void recordsShareOfNodesSettledByShortCircuit() {
+        // zero * (slow chain): the product is absorbed and the two links waiting for the running addition are skipped
+        List<Instruction> program = List.of(
+                new CalcInstruction("zero", ArithmeticOp.SUBTRACT, new LiteralOperand(5), new LiteralOperand(5)),
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(3)),
+                new CalcInstruction("c", ArithmeticOp.ADD, new VariableOperand("b"), new LiteralOperand(4)),
+                new CalcInstruction("d", ArithmeticOp.MULTIPLY, new VariableOperand("zero"), new VariableOperand("c")),
+                new PrintInstruction("d"));
+
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, "client")) {
+            assertEquals(List.of(new PrintResult("d", 0)), service.execute(program));
+        }
+
+        assertEquals(60.0, summary("calculator.execution.short-circuit").max());
+    }
+
+    @Test
+    void recordsShareOfNodesComputedInstantly() {
+        // a * 1 and b + 0 are known from their operands without paying the operation delay
+        List<Instruction> program = List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(1)),
+                new CalcInstruction("c", ArithmeticOp.ADD, new VariableOperand("b"), new LiteralOperand(0)),
+                new CalcInstruction("d", ArithmeticOp.MULTIPLY, new VariableOperand("c"), new LiteralOperand(2)),
+                new PrintInstruction("d"));
+
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, "client")) {
+            assertEquals(List.of(new PrintResult("d", 6)), service.execute(program));
+        }
+
+        assertEquals(50.0, summary("calculator.execution.instant").max());
+        assertEquals(0, summary("calculator.execution.short-circuit").totalAmount());
+    }
+
+    private DistributionSummary summary(String name) {
+        DistributionSummary summary = registry.find(name).tag("transport", "grpc").summary();
+        assertNotNull(summary, name);
+        return summary;
+    }
+
+    private Timer timer(String name) {
+        Timer timer = registry.find(name).tag("transport", "grpc").timer();
+        assertNotNull(timer, name);
+        return timer;
+    }
+}
@@ -0,0 +1,150 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionPlanCacheTest {
+
+    @Test
+    void bindsCachedPlanToNamesAndLiteralsOfTheRequest() {
+        ExecutionPlanCache cache = new ExecutionPlanCache(10, 10_000);
+        List<Instruction> first = reduction("a", 3, 4, 5);
+        List<Instruction> second = reduction("b", 10, 20, -7);
+
+        ExecutionPlan firstPlan = cache.compile(first);
+        ExecutionPlan secondPlan = cache.compile(second);
+
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.hitCount());
+        assertArrayEquals(firstPlan.executionOrder(), secondPlan.executionOrder());
+        ExecutionPlan expected = new ExecutionPlanCompiler().compile(second);
+        assertArrayEquals(expected.printVariables(), secondPlan.printVariables());
+        assertArrayEquals(evaluate(expected), evaluate(secondPlan));
+    }
+
+    @Test
+    void separatesProgramsWhoseLiteralsChangeTheOptimizations() {
+        ExecutionPlanCache cache = new ExecutionPlanCache(10, 10_000);
+
+        cache.compile(product(5, 7));
+        cache.compile(product(0, 7));
+        cache.compile(product(7, 7));
+        cache.compile(product(8, 9));
+
+        assertEquals(3, cache.missCount());
+        assertEquals(1, cache.hitCount());
+        assertEquals(List.of(0L, 0L, 9L), evaluatePrints(cache.compile(product(0, 3))));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() {
+        ExecutionPlanCache cache = new ExecutionPlanCache(2, 10_000);
+
+        cache.compile(reduction("a", 11, 12, 13));
+        cache.compile(product(5, 7));
+        cache.compile(reduction("b", 21, 22, 23));
+        cache.compile(List.of(
+                new CalcInstruction("x", ArithmeticOp.SUBTRACT, new LiteralOperand(9), new LiteralOperand(2)),
+                new PrintInstruction("x")));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        cache.compile(reduction("c", 31, 32, 33));
+        assertEquals(2, cache.hitCount());
+    }
+
+    @Test
+    void evictsByWeight() {
+        List<Instruction> program = reduction("a", 1, 2, 3);
+        ExecutionPlanCache probe = new ExecutionPlanCache(10, 10_000);
+        probe.compile(program);
+        ExecutionPlanCache cache = new ExecutionPlanCache(10, probe.weight());
+
+        cache.compile(program);
+        cache.compile(product(5, 7));
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void neverCachesInvalidPrograms() {
+        ExecutionPlanCache cache = new ExecutionPlanCache(10, 10_000);
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.ADD, new VariableOperand("b"), new LiteralOperand(1)),
+                        new CalcInstruction("b", ArithmeticOp.ADD, new VariableOperand("a"), new LiteralOperand(1)),
+                        new PrintInstruction("a"));
+
+        assertThrows(IllegalArgumentException.class, () -> cache.compile(program));
+        assertThrows(IllegalArgumentException.class, () -> cache.compile(program));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * A rebalanced sum with subtractions, a repeated calculation and a printed intermediate.
+     */
+    private static List<Instruction> reduction(String prefix, long x, long y, long z) {
+        List<Instruction> program = new ArrayList<>();
+        program.add(new CalcInstruction(prefix + "0", ArithmeticOp.ADD, new LiteralOperand(x), new LiteralOperand(y)));
+        program.add(new CalcInstruction(prefix + "dup", ArithmeticOp.ADD, new LiteralOperand(y), new LiteralOperand(x)));
+        for (int i = 1; i <= 6; i++) {
+            ArithmeticOp op = i % 2 == 0 ? ArithmeticOp.SUBTRACT : ArithmeticOp.ADD;
+            program.add(new CalcInstruction(
+                    prefix + i, op, new VariableOperand(prefix + (i - 1)), new LiteralOperand(z * i)));
+        }
+        program.add(new CalcInstruction(
+                prefix + "sum",
+                ArithmeticOp.MULTIPLY,
+                new VariableOperand(prefix + "6"),
+                new VariableOperand(prefix + "dup")));
+        program.add(new PrintInstruction(prefix + "sum"));
+        program.add(new PrintInstruction(prefix + "dup"));
+        return program;
+    }
+
+    private static List<Instruction> product(long left, long right) {
+        return List.of(
+                new CalcInstruction("k", ArithmeticOp.ADD, new LiteralOperand(left), new LiteralOperand(0)),
+                new CalcInstruction("m", ArithmeticOp.MULTIPLY, new LiteralOperand(right), new LiteralOperand(right)),
+                new CalcInstruction("p", ArithmeticOp.MULTIPLY, new VariableOperand("k"), new VariableOperand("m")),
+                new PrintInstruction("p"),
+                new PrintInstruction("k"),
+                new PrintInstruction("m"));
+    }
+
+    private static List<Long> evaluatePrints(ExecutionPlan plan) {
+        long[] values = evaluate(plan);
+        List<Long> prints = new ArrayList<>();
+        for (int node : plan.printNodes()) {
+            prints.add(values[node]);
+        }
+        return prints;
+    }
+
+    private static long[] evaluate(ExecutionPlan plan) {
+        long[] values = new long[plan.nodeCount()];
+        for (int node : plan.executionOrder()) {
+            long left = plan.isLeftLiteral(node) ? plan.leftOperands()[node] : values[(int) plan.leftOperands()[node]];
+            long right = plan.isRightLiteral(node) ? plan.rightOperands()[node] : values[(int) plan.rightOperands()[node]];
+            values[node] = switch (plan.op(node)) {
+                case ADD -> left + right;
+                case SUBTRACT -> left - right;
+                case MULTIPLY -> left * right;
+            };
+        }
+        return values;
+    }
+}
@@ -0,0 +1,224 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.ExecutionPlan;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionPlanCompilerTest {
+
+    private final ExecutionPlanCompiler compiler = new ExecutionPlanCompiler();
+
+    @Test
+    void compilesOnlyRequiredNodesIntoPrimitiveArrays() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(10), new LiteralOperand(2)),
+                        new CalcInstruction("y", ArithmeticOp.SUBTRACT, new VariableOperand("x"), new LiteralOperand(3)),
+                        new CalcInstruction("unused", ArithmeticOp.ADD, new VariableOperand("y"), new LiteralOperand(1)),
+                        new PrintInstruction("y"),
+                        new PrintInstruction("x"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        assertEquals(2, plan.nodeCount());
+        assertArrayEquals(new String[] {"y", "x"}, plan.printVariables());
+        int y = plan.printNodes()[0];
+        int x = plan.printNodes()[1];
+        assertEquals("y", plan.nodeVariables()[y]);
+        assertEquals(ArithmeticOp.SUBTRACT, plan.op(y));
+        assertTrue(plan.isRightLiteral(y));
+        assertEquals(x, plan.leftOperands()[y]);
+        assertEquals(3, plan.rightOperands()[y]);
+        assertEquals(0, plan.indegree()[x]);
+        assertEquals(1, plan.indegree()[y]);
+        assertArrayEquals(new int[] {y}, dependentsOf(plan, x));
+        assertArrayEquals(new int[] {x, y}, plan.executionOrder());
+    }
+
+    @Test
+    void recordsOneEdgePerVariableOperand() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(1)),
+                        new CalcInstruction("sq", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new VariableOperand("a")),
+                        new PrintInstruction("sq"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        int sq = plan.printNodes()[0];
+        int a = (int) plan.leftOperands()[sq];
+        assertEquals(2, plan.indegree()[sq]);
+        assertArrayEquals(new int[] {sq, sq}, dependentsOf(plan, a));
+    }
+
+    @Test
+    void computesBottomLevelsTowardsPrintedVariables() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(1)),
+                        new CalcInstruction("b", ArithmeticOp.ADD, new VariableOperand("a"), new LiteralOperand(1)),
+                        new CalcInstruction("c", ArithmeticOp.ADD, new VariableOperand("b"), new VariableOperand("a")),
+                        new PrintInstruction("a"),
+                        new PrintInstruction("c"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        int a = plan.printNodes()[0];
+        int c = plan.printNodes()[1];
+        int b = (int) plan.leftOperands()[c];
+        assertEquals(3, plan.bottomLevels()[a]);
+        assertEquals(2, plan.bottomLevels()[b]);
+        assertEquals(1, plan.bottomLevels()[c]);
+        assertEquals(3, plan.criticalPathLength());
+    }
+
+    @Test
+    void prunesSubtreesAbsorbedByKnownZero() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(10), new LiteralOperand(2)),
+                        new PrintInstruction("x"),
+                        new CalcInstruction("y", ArithmeticOp.SUBTRACT, new VariableOperand("x"), new LiteralOperand(3)),
+                        new CalcInstruction("z", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new VariableOperand("y")),
+                        new CalcInstruction("k", ArithmeticOp.ADD, new LiteralOperand(0), new LiteralOperand(0)),
+                        new CalcInstruction("v", ArithmeticOp.MULTIPLY, new VariableOperand("z"), new VariableOperand("k")),
+                        new PrintInstruction("w"),
+                        new CalcInstruction("w", ArithmeticOp.MULTIPLY, new VariableOperand("z"), new LiteralOperand(0)),
+                        new PrintInstruction("v"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        assertEquals(List.of("k", "v", "w", "x"), Arrays.stream(plan.nodeVariables()).sorted().toList());
+        int w = plan.printNodes()[1];
+        assertTrue(plan.isLeftLiteral(w));
+        assertEquals(0, plan.indegree()[w]);
+    }
+
+    @Test
+    void mergesRepeatedCalculationsRegardlessOfOperandOrder() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                        new CalcInstruction("b", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(1)),
+                        new CalcInstruction("c", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(3)),
+                        new CalcInstruction("d", ArithmeticOp.MULTIPLY, new LiteralOperand(3), new VariableOperand("b")),
+                        new CalcInstruction("e", ArithmeticOp.SUBTRACT, new VariableOperand("c"), new VariableOperand("d")),
+                        new PrintInstruction("e"),
+                        new PrintInstruction("d"),
+                        new PrintInstruction("c"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        assertEquals(3, plan.nodeCount());
+        assertEquals(2, plan.mergedNodes());
+        int e = plan.printNodes()[0];
+        int shared = plan.printNodes()[1];
+        assertEquals(shared, plan.printNodes()[2]);
+        assertEquals(shared, plan.leftOperands()[e]);
+        assertEquals(shared, plan.rightOperands()[e]);
+        assertArrayEquals(new String[] {"e", "d", "c"}, plan.printVariables());
+    }
+
+    @Test
+    void keepsSubtractionOperandOrderWhenMerging() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.SUBTRACT, new LiteralOperand(5), new LiteralOperand(2)),
+                        new CalcInstruction("b", ArithmeticOp.SUBTRACT, new LiteralOperand(2), new LiteralOperand(5)),
+                        new PrintInstruction("a"),
+                        new PrintInstruction("b"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        assertEquals(2, plan.nodeCount());
+        assertEquals(0, plan.mergedNodes());
+    }
+
+    @Test
+    void rebalancesLinearSumIntoLogarithmicDepth() {
+        List<Instruction> program = new ArrayList<>();
+        program.add(new CalcInstruction("s1", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)));
+        for (int i = 2; i < 8; i++) {
+            ArithmeticOp op = i % 3 == 0 ? ArithmeticOp.SUBTRACT : ArithmeticOp.ADD;
+            program.add(new CalcInstruction(
+                    "s" + i, op, new VariableOperand("s" + (i - 1)), new LiteralOperand(i + 1)));
+        }
+        program.add(new PrintInstruction("s7"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        assertEquals(7, plan.nodeCount());
+        assertEquals(3, plan.criticalPathLength());
+        int root = plan.printNodes()[0];
+        assertEquals("s7", plan.nodeVariables()[root]);
+        for (int node = 0; node < plan.nodeCount(); node++) {
+            assertEquals(ArithmeticOp.ADD, plan.op(node));
+        }
+    }
+
+    @Test
+    void keepsChainsWithSharedIntermediates() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.MULTIPLY, new LiteralOperand(2), new LiteralOperand(3)),
+                        new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(4)),
+                        new CalcInstruction("c", ArithmeticOp.MULTIPLY, new VariableOperand("b"), new LiteralOperand(5)),
+                        new CalcInstruction("d", ArithmeticOp.MULTIPLY, new VariableOperand("c"), new LiteralOperand(6)),
+                        new PrintInstruction("d"),
+                        new PrintInstruction("b"));
+
+        ExecutionPlan plan = compiler.compile(program);
+
+        assertEquals(4, plan.criticalPathLength());
+    }
+
+    @Test
+    void stillValidatesPrunedSubtrees() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("w", ArithmeticOp.MULTIPLY, new VariableOperand("z"), new LiteralOperand(0)),
+                        new PrintInstruction("w"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> compiler.compile(program));
+        assertTrue(ex.getMessage().contains("never calculated"));
+    }
+
+    @Test
+    void returnsEmptyPlanWithoutPrints() {
+        ExecutionPlan plan = compiler.compile(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new VariableOperand("missing"), new LiteralOperand(1))));
+
+        assertEquals(0, plan.nodeCount());
+        assertEquals(0, plan.printNodes().length);
+    }
+
+    @Test
+    void rejectsCyclesAmongRequiredVariables() {
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.ADD, new VariableOperand("b"), new LiteralOperand(1)),
+                        new CalcInstruction("b", ArithmeticOp.ADD, new VariableOperand("a"), new LiteralOperand(1)),
+                        new PrintInstruction("a"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> compiler.compile(program));
+        assertTrue(ex.getMessage().contains("Cyclic"));
+    }
+
+    private static int[] dependentsOf(ExecutionPlan plan, int node) {
+        return Arrays.copyOfRange(
+                plan.dependents(), plan.dependentOffsets()[node], plan.dependentOffsets()[node + 1]);
+    }
+}
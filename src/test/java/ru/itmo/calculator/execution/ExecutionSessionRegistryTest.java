@@ -0,0 +1,129 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.exception.SessionNotFoundException;
+
+class ExecutionSessionRegistryTest {
+
+    private final Set<String> executed = ConcurrentHashMap.newKeySet();
+    private final ExecutionSessionRegistry registry = new ExecutionSessionRegistry(
+            new InstructionExecutionService(ForkJoinPool.commonPool(), Duration.ZERO, executed::add),
+            Duration.ofMinutes(1),
+            10,
+            4);
+
+    @Test
+    void returnsOnlyNewPrintsAndReusesComputedValues() {
+        String session = registry.create();
+
+        List<PrintResult> first = append(session, List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("y", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new LiteralOperand(10)),
+                new PrintInstruction("x")));
+        assertEquals(List.of(new PrintResult("x", 3)), first);
+        assertEquals(Set.of("x"), executed);
+
+        executed.clear();
+        List<PrintResult> second = append(session, List.of(
+                new CalcInstruction("z", ArithmeticOp.SUBTRACT, new VariableOperand("y"), new VariableOperand("x")),
+                new PrintInstruction("z"),
+                new PrintInstruction("x")));
+
+        assertEquals(List.of(new PrintResult("z", 27), new PrintResult("x", 3)), second);
+        assertEquals(Set.of("y", "z"), executed);
+    }
+
+    @Test
+    void discardsFailedAppend() {
+        String session = registry.create();
+        append(session, List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2))));
+
+        assertThrows(IllegalArgumentException.class, () -> append(session, List.of(
+                new CalcInstruction("y", ArithmeticOp.ADD, new VariableOperand("x"), new VariableOperand("w")),
+                new PrintInstruction("y"))));
+        assertThrows(IllegalArgumentException.class, () -> append(session, List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(5), new LiteralOperand(5)))));
+
+        List<PrintResult> retried = append(session, List.of(
+                new CalcInstruction("y", ArithmeticOp.ADD, new VariableOperand("x"), new LiteralOperand(4)),
+                new PrintInstruction("y")));
+        assertEquals(List.of(new PrintResult("y", 7)), retried);
+    }
+
+    @Test
+    void limitsVariablesPerSession() {
+        String session = registry.create();
+        append(session, List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(1)),
+                new CalcInstruction("b", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(2)),
+                new CalcInstruction("c", ArithmeticOp.ADD, new LiteralOperand(3), new LiteralOperand(3))));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> append(session,
+                List.of(
+                        new CalcInstruction("d", ArithmeticOp.ADD, new LiteralOperand(4), new LiteralOperand(4)),
+                        new CalcInstruction("e", ArithmeticOp.ADD, new LiteralOperand(5), new LiteralOperand(5)))));
+        assertTrue(error.getMessage().contains("limit"));
+    }
+
+    @Test
+    void rejectsUnknownAndClosedSessions() {
+        String session = registry.create();
+        registry.close(session);
+
+        assertThrows(SessionNotFoundException.class, () -> registry.append(session, List.of(new PrintInstruction("x"))));
+        assertThrows(SessionNotFoundException.class, () -> registry.close(session));
+        assertThrows(SessionNotFoundException.class, () -> registry.append("missing", List.of()));
+    }
+
+    @Test
+    void queuesAppendsWithoutWaitingForThem() {
+        Set<String> slowExecuted = ConcurrentHashMap.newKeySet();
+        ExecutionSessionRegistry slowRegistry = new ExecutionSessionRegistry(
+                new InstructionExecutionService(ForkJoinPool.commonPool(), Duration.ofMillis(200), slowExecuted::add),
+                Duration.ofMinutes(1),
+                10,
+                4);
+        String session = slowRegistry.create();
+
+        CompletableFuture<List<PrintResult>> first = slowRegistry.append(session, List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new PrintInstruction("x")));
+        CompletableFuture<List<PrintResult>> second = slowRegistry.append(session, List.of(
+                new CalcInstruction("y", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new LiteralOperand(10)),
+                new PrintInstruction("y")));
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        assertEquals(List.of(new PrintResult("y", 30)), second.join());
+        assertEquals(List.of(new PrintResult("x", 3)), first.join());
+        assertEquals(Set.of("x", "y"), slowExecuted);
+    }
+
+    private List<PrintResult> append(String session, List<Instruction> instructions) {
+        try {
+            return registry.append(session, instructions).join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+}
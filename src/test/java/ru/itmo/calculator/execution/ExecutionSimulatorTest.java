@@ -0,0 +1,84 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionSimulatorTest {
+
+    private static final OperationCostModel COSTS = OperationCostModel.of(Duration.ofMillis(20), Map.of(
+            ArithmeticOp.ADD, Duration.ofMillis(10),
+            ArithmeticOp.MULTIPLY, Duration.ofMillis(30)));
+
+    private final InstructionExecutionService service = InstructionExecutionService.builder(Runnable::run)
+            .costModel(COSTS)
+            .planCache(new ExecutionPlanCache(10, 1000))
+            .build();
+
+    @Test
+    void reportsMakespanForWorkerCount() {
+        List<Instruction> diamond = List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(3)),
+                new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(2)),
+                new CalcInstruction("c", ArithmeticOp.SUBTRACT, new VariableOperand("a"), new LiteralOperand(1)),
+                new CalcInstruction("d", ArithmeticOp.SUBTRACT, new VariableOperand("b"), new VariableOperand("c")),
+                new PrintInstruction("d"));
+
+        SimulatedExecution serial = service.simulate(diamond, 1);
+        SimulatedExecution parallel = service.simulate(diamond, 2);
+
+        assertEquals(Duration.ofMillis(80), serial.makespan());
+        assertEquals(Duration.ofMillis(60), parallel.makespan());
+        assertEquals(Duration.ofMillis(80), parallel.busyTime());
+        assertEquals(4, parallel.operations());
+        assertEquals(2, parallel.peakConcurrency());
+        assertEquals(1.0, serial.utilization());
+    }
+
+    @Test
+    void shortCircuitedOperationsCostNothing() {
+        SimulatedExecution simulated = service.simulate(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("y", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new LiteralOperand(1)),
+                new PrintInstruction("y")), 0);
+
+        assertEquals(Duration.ofMillis(10), simulated.makespan());
+        assertEquals(2, simulated.operations());
+    }
+
+    @Test
+    void replaysLargeProgramsWithoutWaiting() {
+        int length = 200_000;
+        List<Instruction> program = new ArrayList<>();
+        program.add(new CalcInstruction("v0", ArithmeticOp.SUBTRACT, new LiteralOperand(7), new LiteralOperand(1)));
+        for (int i = 1; i < length; i++) {
+            program.add(new CalcInstruction(
+                    "v" + i, ArithmeticOp.SUBTRACT, new LiteralOperand(i + 7), new VariableOperand("v" + (i - 1))));
+        }
+        program.add(new PrintInstruction("v" + (length - 1)));
+
+        SimulatedExecution simulated = service.simulate(program, 8);
+
+        assertEquals(Duration.ofMillis(20L * length), simulated.makespan());
+        assertEquals(1, simulated.peakConcurrency());
+    }
+
+    @Test
+    void rejectsInvalidProgramsAndWorkerCounts() {
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(List.of(new PrintInstruction("x")), 1));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new PrintInstruction("x")), -1));
+    }
+}
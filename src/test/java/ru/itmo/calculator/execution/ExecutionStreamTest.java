@@ -0,0 +1,174 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionStreamTest {
+
+    private final List<String> executed = new ArrayList<>();
+    private final RecordingListener listener = new RecordingListener();
+    private final ExecutionStream stream = new ExecutionStream(
+            new InstructionExecutionService(command -> command.run(), Duration.ZERO, executed::add), listener);
+
+    @Test
+    void emitsPrintAsSoonAsItsDependenciesAreDefined() {
+        stream.append(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new PrintInstruction("x"),
+                new PrintInstruction("y")));
+
+        assertEquals(List.of("0:x=3"), listener.events);
+
+        stream.append(List.of(
+                new CalcInstruction("y", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new LiteralOperand(5))));
+        stream.append(List.of(new PrintInstruction("x")));
+        stream.complete();
+
+        assertEquals(List.of("0:x=3", "1:y=15", "2:x=3", "completed"), listener.events);
+        assertEquals(List.of("x", "y"), executed);
+    }
+
+    @Test
+    void startsNeededCalculationsBeforeThePrintCanBeComplete() {
+        stream.append(List.of(new PrintInstruction("z")));
+        stream.append(List.of(
+                new CalcInstruction("z", ArithmeticOp.ADD, new VariableOperand("x"), new VariableOperand("y"))));
+        stream.append(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("unused", ArithmeticOp.ADD, new LiteralOperand(5), new LiteralOperand(5))));
+
+        assertEquals(List.of("x"), executed);
+        assertTrue(listener.events.isEmpty());
+
+        stream.append(List.of(
+                new CalcInstruction("y", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new LiteralOperand(2))));
+
+        assertEquals(List.of("x", "y", "z"), executed);
+        assertEquals(List.of("0:z=9"), listener.events);
+
+        stream.complete();
+        assertEquals(List.of("0:z=9", "completed"), listener.events);
+    }
+
+    @Test
+    void failsOnCycleOnceTheInputIsComplete() {
+        stream.append(List.of(
+                new PrintInstruction("a"),
+                new CalcInstruction("a", ArithmeticOp.ADD, new VariableOperand("b"), new LiteralOperand(1)),
+                new CalcInstruction("b", ArithmeticOp.ADD, new VariableOperand("a"), new LiteralOperand(1))));
+
+        assertTrue(listener.events.isEmpty());
+
+        stream.complete();
+        assertInstanceOf(IllegalArgumentException.class, listener.error);
+        assertEquals(List.of("failed:Cyclic dependency detected in required variables"), listener.events);
+        assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    void sharesComputationsOfPrintsReadyWithTheSameChunk() {
+        stream.append(List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(3)),
+                new CalcInstruction("b", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new LiteralOperand(4)),
+                new CalcInstruction("c", ArithmeticOp.SUBTRACT, new VariableOperand("a"), new LiteralOperand(1)),
+                new PrintInstruction("c"),
+                new PrintInstruction("b")));
+        stream.complete();
+
+        assertTrue(listener.events.containsAll(List.of("0:c=4", "1:b=20")));
+        assertEquals("completed", listener.events.getLast());
+        assertEquals(3, executed.size());
+    }
+
+    @Test
+    void failsWhenPrintedVariableIsNeverDefined() {
+        stream.append(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new VariableOperand("w"), new LiteralOperand(1)),
+                new PrintInstruction("x")));
+        stream.complete();
+
+        assertEquals(List.of("failed:Variable is never calculated: w"), listener.events);
+    }
+
+    @Test
+    void failsOnRedefinitionAndIgnoresLaterInput() {
+        stream.append(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(1)),
+                new PrintInstruction("x")));
+        stream.append(List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(2))));
+        stream.append(List.of(new PrintInstruction("x")));
+        stream.complete();
+
+        assertEquals(List.of("0:x=2", "failed:Variable is already defined: x"), listener.events);
+        assertInstanceOf(IllegalArgumentException.class, listener.error);
+        assertFalse(listener.events.contains("completed"));
+    }
+
+    @Test
+    void startsCalculationsWaitingForAValueAsSoonAsItIsComputed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        RecordingListener slowListener = new RecordingListener();
+        ExecutionStream slowStream = new ExecutionStream(
+                new InstructionExecutionService(executor, Duration.ofMillis(100), var -> {
+                }), slowListener);
+
+        slowStream.append(List.of(
+                new CalcInstruction("f", ArithmeticOp.ADD, new LiteralOperand(4), new LiteralOperand(5)),
+                new CalcInstruction("s1", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(3)),
+                new CalcInstruction("s2", ArithmeticOp.MULTIPLY, new VariableOperand("s1"), new LiteralOperand(3)),
+                new CalcInstruction("s3", ArithmeticOp.ADD, new VariableOperand("s2"), new LiteralOperand(5)),
+                new PrintInstruction("f"),
+                new PrintInstruction("s3")));
+        // "g" waits for "f" of the running plan and must not wait for the slow "s" chain of that plan as well.
+        slowStream.append(List.of(
+                new CalcInstruction("g", ArithmeticOp.MULTIPLY, new VariableOperand("f"), new LiteralOperand(10)),
+                new PrintInstruction("g")));
+        slowStream.complete();
+        slowListener.done.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(List.of("0:f=9", "2:g=90", "1:s3=20", "completed"), slowListener.events);
+    }
+
+    private static final class RecordingListener implements ExecutionStream.Listener {
+        private final List<String> events = new ArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private Throwable error;
+
+        @Override
+        public synchronized void printed(int printIndex, PrintResult result) {
+            events.add(printIndex + ":" + result.var() + "=" + result.value());
+        }
+
+        @Override
+        public synchronized void failed(Throwable error) {
+            this.error = error;
+            events.add("failed:" + error.getMessage());
+            done.complete(null);
+        }
+
+        @Override
+        public synchronized void completed() {
+            events.add("completed");
+            done.complete(null);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.dto.VariableOperand;
+
+class ExecutionTracerTest {
+
+    private static final List<Instruction> PROGRAM = List.of(
+            new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+            new CalcInstruction("b", ArithmeticOp.ADD, new LiteralOperand(3), new LiteralOperand(4)),
+            new CalcInstruction("c", ArithmeticOp.MULTIPLY, new VariableOperand("a"), new VariableOperand("b")),
+            new PrintInstruction("c"));
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void tracesOnlyRequestedExecutionsWhenNothingIsSampled() {
+        ExecutionTracer tracer = new ExecutionTracer(0, 10, 100);
+        InstructionExecutionService service = service(tracer);
+
+        service.execute(PROGRAM);
+        assertTrue(tracer.traces().isEmpty());
+
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.HTTP, "client", true)) {
+            service.execute(PROGRAM);
+        }
+        List<ExecutionTrace> traces = tracer.traces();
+        assertEquals(1, traces.size());
+        Map<String, Object> summary = traces.getFirst().summary();
+        assertEquals("http", summary.get("transport"));
+        assertEquals("client", summary.get("client"));
+        assertEquals(3, summary.get("nodes"));
+        assertEquals(3, summary.get("executedNodes"));
+    }
+
+    @Test
+    void tracesLaterPlansOfAStreamForTheClientThatOpenedIt() {
+        ExecutionTracer tracer = new ExecutionTracer(0, 10, 100);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        ExecutionStream stream;
+        try (ExecutionClient.Scope ignored = ExecutionClient.enter(ExecutionClient.GRPC, "client", true)) {
+            stream = new ExecutionStream(service(tracer, Duration.ofMillis(100)), new ExecutionStream.Listener() {
+                @Override
+                public void printed(int printIndex, PrintResult result) {
+                }
+
+                @Override
+                public void failed(Throwable error) {
+                    done.completeExceptionally(error);
+                }
+
+                @Override
+                public void completed() {
+                    done.complete(null);
+                }
+            });
+        }
+
+        stream.append(List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new PrintInstruction("a")));
+        // "a" is still being computed, so "b" waits for it and its plan starts from a worker of the first plan, where
+        // no client is bound.
+        stream.append(List.of(
+                new CalcInstruction("b", ArithmeticOp.ADD, new VariableOperand("a"), new LiteralOperand(1)),
+                new PrintInstruction("b")));
+        stream.complete();
+        done.join();
+
+        List<ExecutionTrace> traces = tracer.traces();
+        assertEquals(2, traces.size());
+        for (ExecutionTrace trace : traces) {
+            assertEquals(1, trace.summary().get("nodes"));
+            assertEquals("grpc", trace.summary().get("transport"));
+            assertEquals("client", trace.summary().get("client"));
+        }
+    }
+
+    @Test
+    void keepsTheLatestTracesInARingBuffer() {
+        ExecutionTracer tracer = new ExecutionTracer(1, 2, 100);
+        InstructionExecutionService service = service(tracer);
+
+        for (int i = 0; i < 3; i++) {
+            service.execute(PROGRAM);
+        }
+
+        assertEquals(List.of(3L, 2L), tracer.traces().stream().map(ExecutionTrace::id).toList());
+        assertNull(tracer.trace(1));
+    }
+
+    @Test
+    void skipsExecutionsOverTheNodeLimit() {
+        ExecutionTracer tracer = new ExecutionTracer(1, 10, 2);
+
+        service(tracer).execute(PROGRAM);
+
+        assertTrue(tracer.traces().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportsEveryNodeWithItsThreadAndInputsAsChromeTrace() {
+        ExecutionTracer tracer = new ExecutionTracer(1, 10, 100);
+        service(tracer, Duration.ofMillis(20)).execute(PROGRAM);
+
+        Map<String, Object> trace = tracer.traces().getFirst().toChromeTrace();
+        List<Map<String, Object>> events = (List<Map<String, Object>>) trace.get("traceEvents");
+        Map<Object, Map<String, Object>> slices = events.stream()
+                .filter(event -> event.get("ph").equals("X"))
+                .collect(Collectors.toMap(event -> event.get("name"), event -> event));
+        assertEquals(Set.of("planning", "a", "b", "c"), slices.keySet());
+
+        Map<String, Object> product = slices.get("c");
+        assertEquals("multiply", product.get("cat"));
+        assertTrue((double) product.get("dur") >= 20_000);
+        assertTrue((double) product.get("ts") >= (double) slices.get("a").get("ts") + 20_000);
+        Map<String, Object> args = (Map<String, Object>) product.get("args");
+        assertEquals(List.of("a", "b"), args.get("inputs"));
+        assertTrue(events.stream().anyMatch(event -> event.get("ph").equals("M")
+                && event.get("tid").equals(product.get("tid"))
+                && ((Map<String, Object>) event.get("args")).get("name").toString().startsWith("pool-")));
+        assertEquals(2, events.stream().filter(event -> event.get("ph").equals("f")).count());
+        Map<Object, Map<String, Object>> flowStarts = events.stream()
+                .filter(event -> event.get("ph").equals("s"))
+                .collect(Collectors.toMap(event -> event.get("id"), event -> event));
+        for (String input : List.of("a", "b")) {
+            Map<String, Object> slice = slices.get(input);
+            Map<String, Object> start = flowStarts.get(input.equals("a") ? 0 : 1);
+            assertEquals(slice.get("tid"), start.get("tid"));
+            assertEquals((double) slice.get("ts") + (double) slice.get("dur"), (double) start.get("ts"), 0.001);
+        }
+    }
+
+    private InstructionExecutionService service(ExecutionTracer tracer) {
+        return service(tracer, Duration.ZERO);
+    }
+
+    private InstructionExecutionService service(ExecutionTracer tracer, Duration operationDelay) {
+        return InstructionExecutionService.builder(executor)
+                .operationDelay(operationDelay)
+                .planCache(new ExecutionPlanCache(10, 1000))
+                .tracer(tracer)
+                .build();
+    }
+}
@@ -1,21 +1,35 @@
 package ru.itmo.calculator.execution;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import ru.itmo.calculator.converter.CalculatorApiConverter;
 import ru.itmo.calculator.converter.GrpcInstructionConverter;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
 import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
 import ru.itmo.calculator.dto.PrintInstruction;
 import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.generated.grpc.CalcInstructionDto;
+import ru.itmo.calculator.generated.grpc.ExecuteBatchRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteBatchResponse;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
+import ru.itmo.calculator.generated.grpc.InstructionDto;
+import ru.itmo.calculator.generated.grpc.OperandDto;
+import ru.itmo.calculator.generated.grpc.Operation;
+import ru.itmo.calculator.generated.grpc.PrintInstructionDto;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramResponse;
 import ru.itmo.calculator.generated.grpc.PrintedValue;
-import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
 import ru.itmo.calculator.openapi.model.ExecuteProgramResponseDto;
 import ru.itmo.calculator.openapi.model.PrintedValueDto;
 
@@ -24,26 +38,29 @@ class InstructionExecutionFacadeTest {
     private final InstructionExecutionService executionService = org.mockito.Mockito.mock(InstructionExecutionService.class);
     private final CalculatorApiConverter apiConverter = org.mockito.Mockito.mock(CalculatorApiConverter.class);
     private final GrpcInstructionConverter grpcConverter = org.mockito.Mockito.mock(GrpcInstructionConverter.class);
+    private final ExecutionSessionRegistry sessionRegistry = org.mockito.Mockito.mock(ExecutionSessionRegistry.class);
     private final InstructionExecutionFacade facade =
-            new InstructionExecutionFacade(executionService, apiConverter, grpcConverter);
+            new InstructionExecutionFacade(executionService, apiConverter, grpcConverter, sessionRegistry);
 
     @Test
-    void executesRestRequestWithSingleConversion() {
-        ExecuteProgramRequestDto requestDto = new ExecuteProgramRequestDto();
-        List<Instruction> instructions = List.of(new PrintInstruction("x"));
+    void executesRestRequestWithoutInstructionObjects() throws IOException {
+        CompactProgramRequest request;
+        try (JsonParser parser = new JsonFactory().createParser(
+                "{\"instructions\": [{\"type\": \"print\", \"var\": \"x\"}]}")) {
+            parser.nextToken();
+            request = CompactProgramRequest.read(parser);
+        }
         List<PrintResult> results = List.of(new PrintResult("x", 7));
         List<PrintedValueDto> responseItems = List.of(new PrintedValueDto().var("x").value(7L));
 
-        when(apiConverter.toDomainInstructions(requestDto)).thenReturn(instructions);
-        when(executionService.execute(instructions)).thenReturn(results);
+        when(executionService.executeParsedAsync(request.program()))
+                .thenReturn(CompletableFuture.completedFuture(results));
         when(apiConverter.toPrintedValues(results)).thenReturn(responseItems);
 
-        ExecuteProgramResponseDto response = facade.execute(requestDto);
+        ExecuteProgramResponseDto response = facade.execute(request).join();
 
-        ArgumentCaptor<List<Instruction>> instructionsCaptor = ArgumentCaptor.forClass(List.class);
-        verify(executionService).execute(instructionsCaptor.capture());
-        assertEquals(instructions, instructionsCaptor.getValue());
         assertEquals(responseItems, response.getItems());
+        verify(apiConverter, never()).toDomainInstructions(org.mockito.ArgumentMatchers.any());
     }
 
     @Test
@@ -57,14 +74,71 @@ class InstructionExecutionFacadeTest {
                         .build();
 
         when(grpcConverter.toDomainInstructions(request)).thenReturn(instructions);
-        when(executionService.execute(instructions)).thenReturn(results);
+        when(executionService.executeAsync(instructions)).thenReturn(CompletableFuture.completedFuture(results));
         when(grpcConverter.toResponse(results)).thenReturn(response);
 
-        ExecuteProgramResponse actual = facade.execute(request);
+        ExecuteProgramResponse actual = facade.execute(request).join();
 
         ArgumentCaptor<List<Instruction>> instructionsCaptor = ArgumentCaptor.forClass(List.class);
-        verify(executionService).execute(instructionsCaptor.capture());
+        verify(executionService).executeAsync(instructionsCaptor.capture());
         assertEquals(instructions, instructionsCaptor.getValue());
         assertEquals(response, actual);
     }
+
+    @Test
+    void executesColumnarGrpcRequestWithoutDomainInstructions() {
+        GrpcInstructionConverter realConverter = new GrpcInstructionConverter();
+        InstructionExecutionFacade columnarFacade =
+                new InstructionExecutionFacade(executionService, apiConverter, realConverter, sessionRegistry);
+        List<Instruction> instructions = List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new PrintInstruction("x"));
+        when(executionService.executeParsedAsync(org.mockito.ArgumentMatchers.any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(new PrintResult("x", 3))));
+
+        ExecuteProgramResponse actual = columnarFacade.execute(realConverter.toColumnarRequest(instructions)).join();
+
+        ArgumentCaptor<ParsedProgram> programCaptor = ArgumentCaptor.forClass(ParsedProgram.class);
+        verify(executionService).executeParsedAsync(programCaptor.capture());
+        assertEquals(ParsedProgram.parse(instructions).key(), programCaptor.getValue().key());
+        assertEquals(instructions, programCaptor.getValue().instructions());
+        assertEquals(3, actual.getItems(0).getValue());
+    }
+
+    @Test
+    void reportsEveryProgramOfBatchIndependently() {
+        InstructionExecutionService realService =
+                new InstructionExecutionService(Runnable::run, java.time.Duration.ZERO, var -> {
+                });
+        GrpcInstructionConverter realConverter = new GrpcInstructionConverter();
+        InstructionExecutionFacade batchFacade =
+                new InstructionExecutionFacade(realService, apiConverter, realConverter, sessionRegistry);
+        ExecuteProgramRequest valid = ExecuteProgramRequest.newBuilder()
+                .addInstructions(InstructionDto.newBuilder().setCalc(CalcInstructionDto.newBuilder()
+                        .setOp(Operation.OPERATION_MULTIPLY)
+                        .setVar("x")
+                        .setLeft(OperandDto.newBuilder().setLiteral(6))
+                        .setRight(OperandDto.newBuilder().setLiteral(7))))
+                .addInstructions(InstructionDto.newBuilder().setPrint(PrintInstructionDto.newBuilder().setVar("x")))
+                .build();
+        ExecuteProgramRequest undefined = ExecuteProgramRequest.newBuilder()
+                .addInstructions(InstructionDto.newBuilder().setPrint(PrintInstructionDto.newBuilder().setVar("y")))
+                .build();
+        ExecuteProgramRequest unreadable = ExecuteProgramRequest.newBuilder()
+                .addInstructions(InstructionDto.getDefaultInstance())
+                .build();
+
+        ExecuteBatchResponse response = batchFacade.executeBatch(ExecuteBatchRequest.newBuilder()
+                .addPrograms(valid)
+                .addPrograms(undefined)
+                .addPrograms(unreadable)
+                .addPrograms(valid)
+                .build()).join();
+
+        assertEquals(4, response.getResultsCount());
+        assertEquals(42, response.getResults(0).getResponse().getItems(0).getValue());
+        assertEquals("Variable is never calculated: y", response.getResults(1).getError());
+        assertEquals("InstructionDto kind is required", response.getResults(2).getError());
+        assertEquals(response.getResults(0), response.getResults(3));
+    }
 }
@@ -10,11 +10,15 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -22,6 +26,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import ru.itmo.calculator.config.ResultCacheProperties;
 import ru.itmo.calculator.dto.ArithmeticOp;
 import ru.itmo.calculator.dto.CalcInstruction;
 import ru.itmo.calculator.dto.Instruction;
@@ -262,8 +267,10 @@ class InstructionExecutionServiceTest {
         List<PrintResult> result = service.execute(program);
 
         assertEquals(List.of(new PrintResult("z", 27), new PrintResult("z2", 52)), result);
+        // d..x is a chain of additions, rebalanced into partial sums below x.
         for (char var = 'a'; var <= 'z'; var++) {
-            assertTrue(executed.contains(String.valueOf(var)), "Expected execution of " + var);
+            String name = var >= 'd' && var <= 'w' ? "partial(" + var + ")" : String.valueOf(var);
+            assertTrue(executed.contains(name), "Expected execution of " + name);
         }
         assertTrue(executed.containsAll(Set.of("y2", "z2")));
         assertEquals(28, executed.size(), "All variables should be executed exactly once");
@@ -316,6 +323,166 @@ class InstructionExecutionServiceTest {
         assertTrue(peakConcurrency.get() >= 4, "Independent branches should run concurrently");
     }
 
+    @Test
+    void runsRepeatedCalculationOnceForEveryAlias() {
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        InstructionExecutionService service =
+                new InstructionExecutionService(ForkJoinPool.commonPool(), Duration.ZERO, executed::add);
+
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("x", ArithmeticOp.MULTIPLY, new LiteralOperand(6), new LiteralOperand(7)),
+                        new CalcInstruction("y", ArithmeticOp.MULTIPLY, new LiteralOperand(7), new LiteralOperand(6)),
+                        new CalcInstruction("z", ArithmeticOp.ADD, new VariableOperand("y"), new LiteralOperand(1)),
+                        new PrintInstruction("x"),
+                        new PrintInstruction("y"),
+                        new PrintInstruction("z"));
+
+        List<PrintResult> result = service.execute(program);
+
+        assertEquals(
+                List.of(new PrintResult("x", 42), new PrintResult("y", 42), new PrintResult("z", 43)), result);
+        assertEquals(List.of("x", "z"), executed);
+    }
+
+    @Test
+    void rebalancedChainsKeepResultsOfPrintedVariables() {
+        InstructionExecutionService service = serviceWithNoDelay();
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                        new CalcInstruction("b", ArithmeticOp.ADD, new VariableOperand("a"), new LiteralOperand(3)),
+                        new CalcInstruction("c", ArithmeticOp.SUBTRACT, new VariableOperand("b"), new LiteralOperand(4)),
+                        new CalcInstruction("d", ArithmeticOp.ADD, new LiteralOperand(5), new VariableOperand("c")),
+                        new CalcInstruction("e", ArithmeticOp.ADD, new VariableOperand("d"), new LiteralOperand(6)),
+                        new CalcInstruction(
+                                "f", ArithmeticOp.SUBTRACT, new VariableOperand("e"), new LiteralOperand(Long.MIN_VALUE)),
+                        new CalcInstruction("g", ArithmeticOp.ADD, new VariableOperand("f"), new LiteralOperand(8)),
+                        new PrintInstruction("g"),
+                        new PrintInstruction("d"));
+
+        List<PrintResult> result = service.execute(program);
+
+        assertEquals(List.of(new PrintResult("g", 21 - Long.MIN_VALUE), new PrintResult("d", 7)), result);
+    }
+
+    @Test
+    void reportsPartialResultsOfRebalancedChainsUnderSyntheticNames() {
+        Set<String> executed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        InstructionExecutionService service =
+                new InstructionExecutionService(ForkJoinPool.commonPool(), Duration.ZERO, executed::add);
+
+        List<PrintResult> result = service.execute(List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("b", ArithmeticOp.ADD, new VariableOperand("a"), new LiteralOperand(3)),
+                new CalcInstruction("c", ArithmeticOp.ADD, new VariableOperand("b"), new LiteralOperand(4)),
+                new CalcInstruction("d", ArithmeticOp.ADD, new VariableOperand("c"), new LiteralOperand(5)),
+                new PrintInstruction("d")));
+
+        assertEquals(List.of(new PrintResult("d", 15)), result);
+        assertEquals(Set.of("partial(a)", "partial(b)", "partial(c)", "d"), executed);
+    }
+
+    @Test
+    void reusesOperationResultsAcrossRequests() {
+        OperationResultCache resultCache =
+                new OperationResultCache(ResultCacheProperties.Eviction.LRU, 100, Duration.ZERO);
+        InstructionExecutionService service = InstructionExecutionService.builder(ForkJoinPool.commonPool())
+                .planCache(new ExecutionPlanCache(0, 0))
+                .resultCache(resultCache)
+                .build();
+
+        List<PrintResult> first = service.execute(List.of(
+                new CalcInstruction("x", ArithmeticOp.MULTIPLY, new LiteralOperand(6), new LiteralOperand(7)),
+                new PrintInstruction("x")));
+        List<PrintResult> second = service.execute(List.of(
+                new CalcInstruction("y", ArithmeticOp.MULTIPLY, new LiteralOperand(7), new LiteralOperand(6)),
+                new CalcInstruction("z", ArithmeticOp.SUBTRACT, new VariableOperand("y"), new LiteralOperand(2)),
+                new PrintInstruction("z")));
+
+        assertEquals(List.of(new PrintResult("x", 42)), first);
+        assertEquals(List.of(new PrintResult("z", 40)), second);
+        assertEquals(1, resultCache.hitCount());
+        assertEquals(2, resultCache.missCount());
+    }
+
+    @Test
+    void singleWorkerRunsLongestRemainingChainFirst() {
+        List<String> executed = new ArrayList<>();
+        InstructionExecutionService service =
+                new InstructionExecutionService(command -> command.run(), Duration.ZERO, executed::add);
+
+        List<Instruction> program =
+                List.of(
+                        new CalcInstruction("s1", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(1)),
+                        new CalcInstruction("s2", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(2)),
+                        new CalcInstruction("c1", ArithmeticOp.ADD, new LiteralOperand(3), new LiteralOperand(3)),
+                        new CalcInstruction("c2", ArithmeticOp.MULTIPLY, new VariableOperand("c1"), new LiteralOperand(2)),
+                        new CalcInstruction("c3", ArithmeticOp.ADD, new VariableOperand("c2"), new LiteralOperand(1)),
+                        new PrintInstruction("s1"),
+                        new PrintInstruction("s2"),
+                        new PrintInstruction("c3"));
+
+        List<PrintResult> result = service.execute(program);
+
+        assertEquals(List.of(new PrintResult("s1", 2), new PrintResult("s2", 4), new PrintResult("c3", 13)), result);
+        assertEquals(List.of("c1", "c2"), executed.subList(0, 2), "Nodes with slack must wait for the chain");
+    }
+
+    @Test
+    void cancelsSubtreeOnceMultiplierResolvesToZero() {
+        Set<String> executed = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        ExecutorService executor = Executors.newCachedThreadPool();
+        InstructionExecutionService service =
+                new InstructionExecutionService(executor, Duration.ofMillis(30), executed::add);
+
+        List<Instruction> program = new ArrayList<>();
+        program.add(new CalcInstruction("zero", ArithmeticOp.SUBTRACT, new LiteralOperand(5), new LiteralOperand(5)));
+        program.add(new CalcInstruction("b1", ArithmeticOp.ADD, new LiteralOperand(2), new LiteralOperand(2)));
+        for (int i = 2; i <= 6; i++) {
+            program.add(new CalcInstruction(
+                    "b" + i, ArithmeticOp.ADD, new VariableOperand("b" + (i - 1)), new LiteralOperand(2)));
+        }
+        program.add(new CalcInstruction("w", ArithmeticOp.MULTIPLY, new VariableOperand("zero"), new VariableOperand("b6")));
+        program.add(new PrintInstruction("w"));
+
+        List<PrintResult> result = service.execute(program);
+        executor.shutdown();
+
+        assertEquals(List.of(new PrintResult("w", 0)), result);
+        assertTrue(executed.contains("w"));
+        assertFalse(executed.contains("b6"), "Subtree absorbed by zero should be cancelled");
+    }
+
+    @Test
+    void cancellationStopsExecutionAndCountsSavedOperations() throws Exception {
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch workerStarted = new CountDownLatch(1);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        Executor executor = command -> pool.execute(() -> {
+            workerStarted.countDown();
+            command.run();
+        });
+        InstructionExecutionService service =
+                new InstructionExecutionService(executor, Duration.ofMinutes(1), executed::add);
+        // Subtraction chains are not rebalanced, so the plan keeps all three nodes.
+        List<Instruction> program = List.of(
+                new CalcInstruction("a", ArithmeticOp.ADD, new LiteralOperand(1), new LiteralOperand(2)),
+                new CalcInstruction("b", ArithmeticOp.SUBTRACT, new LiteralOperand(10), new VariableOperand("a")),
+                new CalcInstruction("c", ArithmeticOp.SUBTRACT, new LiteralOperand(10), new VariableOperand("b")),
+                new PrintInstruction("c"));
+
+        CompletableFuture<List<PrintResult>> execution = service.executeAsync(program);
+        assertTrue(workerStarted.await(5, TimeUnit.SECONDS));
+        execution.cancel(true);
+        pool.shutdown();
+
+        assertThrows(CancellationException.class, execution::join);
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "The sleeping operation must be interrupted");
+        assertTrue(executed.isEmpty());
+        assertEquals(3, service.droppedOperationCount() + service.interruptedOperationCount());
+    }
+
     private static void assertContains(String actual, String expected) {
         if (actual == null || !actual.contains(expected)) {
             throw new AssertionError("Expected message to contain '" + expected + "' but was '" + actual + "'");
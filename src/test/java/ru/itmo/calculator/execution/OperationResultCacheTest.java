@@ -0,0 +1,182 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import ru.itmo.calculator.config.ResultCacheProperties.Eviction;
+import ru.itmo.calculator.dto.ArithmeticOp;
+
+class OperationResultCacheTest {
+
+    @ParameterizedTest
+    @EnumSource(Eviction.class)
+    void reusesResultsOfCommutedOperands(Eviction eviction) {
+        OperationResultCache cache = new OperationResultCache(eviction, 100, Duration.ZERO);
+        AtomicInteger computations = new AtomicInteger();
+
+        long first = cache.get(ArithmeticOp.MULTIPLY, 6, 7, () -> computations.incrementAndGet() * 42L);
+        long second = cache.get(ArithmeticOp.MULTIPLY, 7, 6, () -> computations.incrementAndGet() * 42L);
+        long subtraction = cache.get(ArithmeticOp.SUBTRACT, 7, 6, () -> computations.incrementAndGet());
+
+        assertEquals(42, first);
+        assertEquals(42, second);
+        assertEquals(2, subtraction);
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void coalescesConcurrentIdenticalOperations() throws Exception {
+        OperationResultCache cache = new OperationResultCache(Eviction.TINY_LFU, 100, Duration.ZERO);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        CompletableFuture<Long> leader = CompletableFuture.supplyAsync(() -> cache.get(ArithmeticOp.ADD, 1, 2, () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 3;
+        }), executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<?>[] followers = new CompletableFuture<?>[3];
+        for (int i = 0; i < followers.length; i++) {
+            followers[i] = CompletableFuture.supplyAsync(
+                    () -> cache.get(ArithmeticOp.ADD, 2, 1, () -> (long) computations.incrementAndGet()), executor);
+        }
+        while (cache.coalescedCount() < followers.length) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertEquals(3, leader.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<?> follower : followers) {
+            assertEquals(3L, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void stopsWaitingForTheLeaderWhenInterrupted() throws Exception {
+        OperationResultCache cache = new OperationResultCache(Eviction.TINY_LFU, 100, Duration.ZERO);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        CompletableFuture<Long> leader = CompletableFuture.supplyAsync(() -> cache.get(ArithmeticOp.ADD, 1, 2, () -> {
+            started.countDown();
+            await(release);
+            return 3;
+        }), executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Thread follower = Thread.ofPlatform().start(() -> {
+            try {
+                cache.get(ArithmeticOp.ADD, 1, 2, () -> -1);
+            } catch (RuntimeException e) {
+                failure.set(e);
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        while (cache.coalescedCount() < 1) {
+            Thread.onSpinWait();
+        }
+        follower.interrupt();
+        follower.join(5000);
+
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertTrue(interrupted.get());
+        release.countDown();
+        assertEquals(3, leader.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    void computesAgainWhenTheSharedComputationFails() {
+        OperationResultCache cache = new OperationResultCache(Eviction.LRU, 100, Duration.ZERO);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(ArithmeticOp.ADD, 1, 2, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(3, cache.get(ArithmeticOp.ADD, 1, 2, () -> 3));
+    }
+
+    @Test
+    void countsMissesApartFromStoredResults() {
+        OperationResultCache cache = new OperationResultCache(Eviction.TINY_LFU, 100, Duration.ZERO);
+        OperationResultCacheMetrics metrics = new OperationResultCacheMetrics(cache);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(ArithmeticOp.ADD, 1, 2, () -> {
+            throw new IllegalStateException("boom");
+        }));
+        cache.get(ArithmeticOp.ADD, 1, 2, () -> 3);
+        cache.get(ArithmeticOp.ADD, 2, 1, () -> -1);
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertEquals(1, cache.putCount());
+        assertEquals(2, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.puts").functionCounter().count());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedResult() {
+        OperationResultCache cache = new OperationResultCache(Eviction.LRU, 2, Duration.ZERO);
+        cache.get(ArithmeticOp.ADD, 1, 1, () -> 2);
+        cache.get(ArithmeticOp.ADD, 2, 2, () -> 4);
+        cache.get(ArithmeticOp.ADD, 1, 1, () -> -1);
+        cache.get(ArithmeticOp.ADD, 3, 3, () -> 6);
+
+        assertEquals(2, cache.get(ArithmeticOp.ADD, 1, 1, () -> -1));
+        assertEquals(-1, cache.get(ArithmeticOp.ADD, 2, 2, () -> -1));
+    }
+
+    @Test
+    void expiresResultsAfterTtl() throws InterruptedException {
+        OperationResultCache cache = new OperationResultCache(Eviction.LRU, 10, Duration.ofMillis(1));
+        cache.get(ArithmeticOp.ADD, 1, 1, () -> 2);
+
+        TimeUnit.MILLISECONDS.sleep(5);
+
+        assertEquals(-1, cache.get(ArithmeticOp.ADD, 1, 1, () -> -1));
+    }
+
+    @Test
+    void disabledCacheAlwaysComputes() {
+        OperationResultCache cache = OperationResultCache.disabled();
+        AtomicInteger computations = new AtomicInteger();
+
+        cache.get(ArithmeticOp.ADD, 1, 1, computations::incrementAndGet);
+        cache.get(ArithmeticOp.ADD, 1, 1, computations::incrementAndGet);
+
+        assertEquals(2, computations.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.exception.RequestValidationException;
+
+class PipelinedExecutionTest {
+
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstComputed = new CountDownLatch(1);
+    private final InstructionExecutionService executionService =
+            new InstructionExecutionService(command -> command.run(), Duration.ZERO, var -> {
+                executed.add(var);
+                firstComputed.countDown();
+            });
+
+    @Test
+    void computesReadyPrintsBeforeTheBodyEnds() throws Exception {
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream body = new PipedInputStream(client);
+        CompletableFuture<List<PrintResult>> response = CompletableFuture.supplyAsync(() -> {
+            try {
+                return PipelinedExecution.execute(body, executionService);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).thenCompose(results -> results);
+
+        send(client, """
+                {"type": "calc", "op": "+", "var": "x", "left": 1, "right": 2}
+                {"type": "print", "var": "x"}
+                """);
+        assertTrue(firstComputed.await(5, TimeUnit.SECONDS));
+        assertFalse(response.isDone());
+
+        send(client, """
+                {"type": "print", "var": "y"}
+                {"type": "calc", "op": "*", "var": "y", "left": "x", "right": 5}
+                """);
+        client.close();
+
+        assertEquals(List.of(new PrintResult("x", 3), new PrintResult("y", 15)), response.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("x", "y"), executed);
+    }
+
+    @Test
+    void cancellingTheResultStopsTheExecution() throws Exception {
+        CountDownLatch workerStarted = new CountDownLatch(1);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        InstructionExecutionService slowService = new InstructionExecutionService(command -> pool.execute(() -> {
+            workerStarted.countDown();
+            command.run();
+        }), Duration.ofMinutes(1), executed::add);
+
+        CompletableFuture<List<PrintResult>> results = PipelinedExecution.execute(new ByteArrayInputStream("""
+                {"type": "calc", "op": "+", "var": "x", "left": 1, "right": 2}
+                {"type": "print", "var": "x"}
+                """.getBytes(StandardCharsets.UTF_8)), slowService);
+        assertTrue(workerStarted.await(5, TimeUnit.SECONDS));
+        results.cancel(true);
+        pool.shutdown();
+
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS), "The sleeping operation must be interrupted");
+        assertTrue(executed.isEmpty());
+        assertEquals(1, slowService.interruptedOperationCount());
+    }
+
+    @Test
+    void rejectsDomainErrorsFoundAnywhereInTheBody() {
+        IllegalArgumentException redefined = assertThrows(IllegalArgumentException.class, () -> execute("""
+                {"type": "calc", "op": "+", "var": "x", "left": 1, "right": 2}
+                {"type": "calc", "op": "+", "var": "x", "left": 3, "right": 4}
+                {"type": "print", "var": "x"}
+                """));
+        assertEquals("Variable is already defined: x", redefined.getMessage());
+
+        IllegalArgumentException undefined = assertThrows(IllegalArgumentException.class,
+                () -> execute("{\"type\": \"print\", \"var\": \"z\"}"));
+        assertEquals("Variable is never calculated: z", undefined.getMessage());
+    }
+
+    @Test
+    void rejectsEmptyAndMalformedBodies() {
+        RequestValidationException empty = assertThrows(RequestValidationException.class, () -> execute("\n"));
+        assertEquals(List.of("instructions: size must be between 1 and 2147483647"), empty.getDetails());
+
+        RequestValidationException invalid = assertThrows(RequestValidationException.class,
+                () -> execute("{\"type\": \"print\"}"));
+        assertEquals(List.of("instructions[0].var: must not be null"), invalid.getDetails());
+
+        assertThrows(RequestValidationException.class, () -> execute("{\"type\": \"print\", \"var\": "));
+    }
+
+    private List<PrintResult> execute(String body) throws IOException {
+        CompletableFuture<List<PrintResult>> results = PipelinedExecution.execute(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), executionService);
+        try {
+            return results.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private static void send(PipedOutputStream client, String lines) throws IOException {
+        client.write(lines.getBytes(StandardCharsets.UTF_8));
+        client.flush();
+    }
+}
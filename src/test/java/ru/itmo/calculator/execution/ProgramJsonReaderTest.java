@@ -0,0 +1,93 @@
+package ru.itmo.calculator.execution;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.exception.RequestValidationException;
+
+class ProgramJsonReaderTest {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Test
+    void readsTheSameProgramAsTheParser() throws IOException {
+        List<Instruction> instructions = List.of(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(10), new LiteralOperand(-2)),
+                new CalcInstruction("y", ArithmeticOp.MULTIPLY, new VariableOperand("x"), new LiteralOperand(0)),
+                new PrintInstruction("x"),
+                new PrintInstruction("y"));
+
+        ParsedProgram program = read("""
+                {"instructions": [
+                  {"type": "calc", "op": "+", "var": "x", "left": 10, "right": -2, "comment": {"ignored": [1]}},
+                  {"type": "calc", "op": "*", "var": "y", "left": "x", "right": 0},
+                  {"type": "print", "var": "x"},
+                  {"var": "y", "type": "print"}
+                ], "extra": null}
+                """);
+
+        assertEquals(ParsedProgram.parse(instructions).key(), program.key());
+        assertEquals(instructions, program.instructions());
+    }
+
+    @Test
+    void rejectsMissingOrEmptyInstructions() {
+        assertEquals(List.of("instructions: must not be null"), failure("{}").getDetails());
+        assertEquals(List.of("instructions: size must be between 1 and 2147483647"),
+                failure("{\"instructions\": []}").getDetails());
+    }
+
+    @Test
+    void reportsTheFieldOfAnInvalidInstruction() {
+        assertEquals(List.of("instructions[1].right: must not be null"), failure("""
+                {"instructions": [
+                  {"type": "print", "var": "x"},
+                  {"type": "calc", "op": "+", "var": "x", "left": 1}
+                ]}
+                """).getDetails());
+        assertEquals(List.of("instructions[0].var: must match \"^[A-Za-z_][A-Za-z0-9_]*$\""),
+                failure("{\"instructions\": [{\"type\": \"print\", \"var\": \"1x\"}]}").getDetails());
+    }
+
+    @Test
+    void rejectsUnknownTypesAndOperations() {
+        assertEquals(List.of("instructions[0].type: must be one of [calc, print]"),
+                failure("{\"instructions\": [{\"type\": \"jump\", \"var\": \"x\"}]}").getDetails());
+        assertEquals(List.of("instructions[0].op: must be one of [+, -, *]"), failure(
+                "{\"instructions\": [{\"type\": \"calc\", \"op\": \"%\", \"var\": \"x\", \"left\": 1, \"right\": 2}]}")
+                .getDetails());
+    }
+
+    @Test
+    void rejectsLiteralsOutsideOfLongRange() throws IOException {
+        assertEquals(List.of("instructions[0].right: must fit into a signed 64-bit integer"), failure(
+                "{\"instructions\": [{\"type\": \"calc\", \"op\": \"+\", \"var\": \"x\", \"left\": 1,"
+                        + " \"right\": 9223372036854775808}]}").getDetails());
+        assertEquals(
+                new CalcInstruction("x", ArithmeticOp.ADD, new LiteralOperand(Long.MIN_VALUE), new LiteralOperand(0)),
+                read("{\"instructions\": [{\"type\": \"calc\", \"op\": \"+\", \"var\": \"x\","
+                        + " \"left\": -9223372036854775808, \"right\": 0}]}").instructions().getFirst());
+    }
+
+    private static ParsedProgram read(String json) throws IOException {
+        try (JsonParser parser = JSON.createParser(json)) {
+            parser.nextToken();
+            return ProgramJsonReader.read(parser);
+        }
+    }
+
+    private static RequestValidationException failure(String json) {
+        return assertThrows(RequestValidationException.class, () -> read(json));
+    }
+}
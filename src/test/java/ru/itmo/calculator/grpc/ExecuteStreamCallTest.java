@@ -0,0 +1,178 @@
+package ru.itmo.calculator.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.itmo.calculator.dto.PrintResult;
+import ru.itmo.calculator.execution.ExecutionStream;
+import ru.itmo.calculator.execution.InstructionExecutionFacade;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteStreamResponse;
+import ru.itmo.calculator.generated.grpc.PrintedValue;
+
+class ExecuteStreamCallTest {
+
+    private final InstructionExecutionFacade executionFacade = mock(InstructionExecutionFacade.class);
+    private final ExecutionStream stream = mock(ExecutionStream.class);
+    private final RecordingCallObserver call = new RecordingCallObserver();
+
+    @Test
+    void sendsResultsAsTheyArriveAndCompletesAfterTheStream() {
+        ExecutionStream.Listener listener = startCall();
+
+        listener.printed(1, new PrintResult("y", 15));
+        listener.printed(0, new PrintResult("x", 3));
+        listener.completed();
+
+        assertEquals(List.of(1, 0), call.values.stream().map(ExecuteStreamResponse::getPrintIndex).toList());
+        assertEquals("y", call.values.getFirst().getItem().getVar());
+        assertTrue(call.completed);
+        assertNull(call.error);
+    }
+
+    @Test
+    void holdsResultsAndInputWhileTheClientIsNotReading() {
+        ExecutionStream.Listener listener = startCall();
+        ExecuteStreamCall streamCall = call.streamCall;
+        call.ready = false;
+
+        for (int i = 0; i < ExecuteStreamCall.MAX_BUFFERED_RESULTS; i++) {
+            listener.printed(i, new PrintResult("x", i));
+        }
+        listener.completed();
+        streamCall.onNext(ExecuteStreamRequest.getDefaultInstance());
+
+        assertTrue(call.values.isEmpty());
+        assertEquals(1, call.requested);
+        assertFalse(call.completed);
+
+        call.ready = true;
+        call.onReadyHandler.run();
+
+        assertEquals(ExecuteStreamCall.MAX_BUFFERED_RESULTS, call.values.size());
+        assertEquals(2, call.requested);
+        assertTrue(call.completed);
+    }
+
+    @Test
+    void reportsStreamFailureAsInvalidArgument() {
+        ExecutionStream.Listener listener = startCall();
+
+        listener.printed(0, new PrintResult("x", 3));
+        listener.failed(new IllegalArgumentException("Variable is never calculated: w"));
+
+        assertEquals(1, call.values.size());
+        StatusRuntimeException status = (StatusRuntimeException) call.error;
+        assertEquals(Status.INVALID_ARGUMENT.getCode(), status.getStatus().getCode());
+        assertEquals("Variable is never calculated: w", status.getStatus().getDescription());
+    }
+
+    @Test
+    void cancelsStreamWhenClientCancels() {
+        startCall();
+
+        call.onCancelHandler.run();
+
+        verify(stream).cancel();
+    }
+
+    private ExecutionStream.Listener startCall() {
+        ArgumentCaptor<ExecutionStream.Listener> listener = ArgumentCaptor.forClass(ExecutionStream.Listener.class);
+        when(executionFacade.openStream(listener.capture())).thenReturn(stream);
+        when(executionFacade.toStreamResponse(anyInt(), any(PrintResult.class))).thenAnswer(invocation -> {
+            PrintResult result = invocation.getArgument(1);
+            return ExecuteStreamResponse.newBuilder()
+                    .setPrintIndex(invocation.getArgument(0))
+                    .setItem(PrintedValue.newBuilder().setVar(result.var()).setValue(result.value()))
+                    .build();
+        });
+        call.streamCall = ExecuteStreamCall.start(call, executionFacade);
+        assertTrue(call.autoRequestDisabled);
+        assertEquals(1, call.requested);
+        return listener.getValue();
+    }
+
+    private static final class RecordingCallObserver extends ServerCallStreamObserver<ExecuteStreamResponse> {
+        private final List<ExecuteStreamResponse> values = new ArrayList<>();
+        private ExecuteStreamCall streamCall;
+        private Runnable onReadyHandler;
+        private Runnable onCancelHandler;
+        private boolean autoRequestDisabled;
+        private boolean ready = true;
+        private int requested;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+            this.onCancelHandler = onCancelHandler;
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+            autoRequestDisabled = true;
+        }
+
+        @Override
+        public void disableAutoRequest() {
+            autoRequestDisabled = true;
+        }
+
+        @Override
+        public void request(int count) {
+            requested += count;
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+
+        @Override
+        public void onNext(ExecuteStreamResponse value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onCompleted() {
+            completed = true;
+        }
+    }
+}
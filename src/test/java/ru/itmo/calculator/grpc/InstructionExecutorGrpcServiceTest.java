@@ -14,14 +14,24 @@ import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import ru.itmo.calculator.exception.AdmissionRejectedException;
+import ru.itmo.calculator.exception.SessionNotFoundException;
 import ru.itmo.calculator.execution.InstructionExecutionFacade;
+import ru.itmo.calculator.generated.grpc.AppendInstructionsRequest;
+import ru.itmo.calculator.generated.grpc.ExecuteColumnarRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
 import ru.itmo.calculator.generated.grpc.ExecuteProgramResponse;
+import ru.itmo.calculator.generated.grpc.ExplainRequest;
+import ru.itmo.calculator.generated.grpc.ExplainResponse;
 import ru.itmo.calculator.generated.grpc.Operation;
 import ru.itmo.calculator.generated.grpc.PrintedValue;
 
@@ -30,14 +40,17 @@ class InstructionExecutorGrpcServiceTest {
     @Test
     void executesProgramUsingExecutionFacade() {
         InstructionExecutionFacade executionFacade = mock(InstructionExecutionFacade.class);
-        when(executionFacade.execute(buildRequest())).thenReturn(ExecuteProgramResponse.newBuilder()
-                .addItems(PrintedValue.newBuilder().setVar("x").setValue(3).build())
-                .build());
+        CompletableFuture<ExecuteProgramResponse> execution = new CompletableFuture<>();
+        when(executionFacade.execute(buildRequest())).thenReturn(execution);
 
         InstructionExecutorGrpcService service = new InstructionExecutorGrpcService(executionFacade);
         RecordingStreamObserver<ExecuteProgramResponse> observer = new RecordingStreamObserver<>();
 
         service.execute(buildRequest(), observer);
+        assertFalse(observer.completed);
+        execution.complete(ExecuteProgramResponse.newBuilder()
+                .addItems(PrintedValue.newBuilder().setVar("x").setValue(3).build())
+                .build());
 
         ArgumentCaptor<ExecuteProgramRequest> captor = ArgumentCaptor.forClass(ExecuteProgramRequest.class);
         verify(executionFacade).execute(captor.capture());
@@ -71,6 +84,99 @@ class InstructionExecutorGrpcServiceTest {
         assertEquals("boom", status.getStatus().getDescription());
     }
 
+    @Test
+    void reportsFailedExecutionAsInvalidArgument() {
+        InstructionExecutionFacade executionFacade = mock(InstructionExecutionFacade.class);
+        when(executionFacade.execute(buildRequest())).thenReturn(CompletableFuture.supplyAsync(() -> {
+            throw new IllegalArgumentException("Cycle detected");
+        }));
+
+        InstructionExecutorGrpcService service = new InstructionExecutorGrpcService(executionFacade);
+        RecordingStreamObserver<ExecuteProgramResponse> observer = new RecordingStreamObserver<>();
+
+        service.execute(buildRequest(), observer);
+
+        StatusRuntimeException status = (StatusRuntimeException) observer.awaitError();
+        assertEquals(Status.INVALID_ARGUMENT.getCode(), status.getStatus().getCode());
+        assertEquals("Cycle detected", status.getStatus().getDescription());
+        assertFalse(observer.completed);
+    }
+
+    @Test
+    void wrapsColumnarDecodingErrorsIntoInvalidArgumentStatus() {
+        InstructionExecutionFacade executionFacade = mock(InstructionExecutionFacade.class);
+        ExecuteColumnarRequest request = ExecuteColumnarRequest.newBuilder().addVariables(3).build();
+        doThrow(new IllegalArgumentException("Variable index out of range: 3")).when(executionFacade).execute(request);
+
+        InstructionExecutorGrpcService service = new InstructionExecutorGrpcService(executionFacade);
+        RecordingStreamObserver<ExecuteProgramResponse> observer = new RecordingStreamObserver<>();
+
+        service.executeColumnar(request, observer);
+
+        assertFalse(observer.completed);
+        StatusRuntimeException status = (StatusRuntimeException) observer.error;
+        assertEquals(Status.INVALID_ARGUMENT.getCode(), status.getStatus().getCode());
+        assertEquals("Variable index out of range: 3", status.getStatus().getDescription());
+    }
+
+    @Test
+    void explainsProgramAndReportsInvalidProgramsAsInvalidArgument() {
+        InstructionExecutionFacade executionFacade = mock(InstructionExecutionFacade.class);
+        ExplainRequest request = ExplainRequest.newBuilder().setProgram(buildRequest()).setWorkers(2).build();
+        ExplainRequest invalid = ExplainRequest.newBuilder().setWorkers(-1).build();
+        ExplainResponse explanation = ExplainResponse.newBuilder().setDepth(1).addCriticalPath("x").build();
+        when(executionFacade.explain(request)).thenReturn(explanation);
+        doThrow(new IllegalArgumentException("Number of workers must not be negative: -1"))
+                .when(executionFacade).explain(invalid);
+
+        InstructionExecutorGrpcService service = new InstructionExecutorGrpcService(executionFacade);
+        RecordingStreamObserver<ExplainResponse> observer = new RecordingStreamObserver<>();
+        RecordingStreamObserver<ExplainResponse> rejected = new RecordingStreamObserver<>();
+
+        service.explain(request, observer);
+        service.explain(invalid, rejected);
+
+        assertTrue(observer.completed);
+        assertEquals(List.of(explanation), observer.values);
+        StatusRuntimeException status = (StatusRuntimeException) rejected.error;
+        assertEquals(Status.INVALID_ARGUMENT.getCode(), status.getStatus().getCode());
+    }
+
+    @Test
+    void reportsRejectedAdmissionAsResourceExhaustedWithPushback() {
+        InstructionExecutionFacade executionFacade = mock(InstructionExecutionFacade.class);
+        when(executionFacade.execute(buildRequest())).thenReturn(CompletableFuture.failedFuture(
+                new AdmissionRejectedException("Too many operations in flight", Duration.ofMillis(750))));
+
+        InstructionExecutorGrpcService service = new InstructionExecutorGrpcService(executionFacade);
+        RecordingStreamObserver<ExecuteProgramResponse> observer = new RecordingStreamObserver<>();
+
+        service.execute(buildRequest(), observer);
+
+        StatusRuntimeException status = (StatusRuntimeException) observer.error;
+        assertEquals(Status.RESOURCE_EXHAUSTED.getCode(), status.getStatus().getCode());
+        assertEquals("750", status.getTrailers().get(GrpcErrors.RETRY_PUSHBACK_MS));
+    }
+
+    @Test
+    void reportsMissingSessionAsNotFound() {
+        InstructionExecutionFacade executionFacade = mock(InstructionExecutionFacade.class);
+        AppendInstructionsRequest request = AppendInstructionsRequest.newBuilder()
+                .setSessionId("s1")
+                .addAllInstructions(buildRequest().getInstructionsList())
+                .build();
+        doThrow(new SessionNotFoundException("s1")).when(executionFacade).appendInstructions(request);
+
+        InstructionExecutorGrpcService service = new InstructionExecutorGrpcService(executionFacade);
+        RecordingStreamObserver<ExecuteProgramResponse> observer = new RecordingStreamObserver<>();
+
+        service.appendInstructions(request, observer);
+
+        assertFalse(observer.completed);
+        StatusRuntimeException status = (StatusRuntimeException) observer.error;
+        assertEquals(Status.NOT_FOUND.getCode(), status.getStatus().getCode());
+    }
+
     private ExecuteProgramRequest buildRequest() {
         return ExecuteProgramRequest.newBuilder()
                 .addInstructions(
@@ -92,8 +198,9 @@ class InstructionExecutorGrpcServiceTest {
 
     private static final class RecordingStreamObserver<T> implements StreamObserver<T> {
         private final List<T> values = new ArrayList<>();
-        private Throwable error;
-        private boolean completed;
+        private final CountDownLatch failed = new CountDownLatch(1);
+        private volatile Throwable error;
+        private volatile boolean completed;
 
         @Override
         public void onNext(T value) {
@@ -103,11 +210,21 @@ class InstructionExecutorGrpcServiceTest {
         @Override
         public void onError(Throwable throwable) {
             error = throwable;
+            failed.countDown();
         }
 
         @Override
         public void onCompleted() {
             completed = true;
         }
+
+        Throwable awaitError() {
+            try {
+                assertTrue(failed.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return error;
+        }
     }
 }
@@ -0,0 +1,127 @@
+package ru.itmo.calculator.workload;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.LiteralOperandValue;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+import ru.itmo.calculator.dto.VariableOperandValue;
+import ru.itmo.calculator.generated.grpc.CalcInstructionDto;
+import ru.itmo.calculator.generated.grpc.ExecuteProgramRequest;
+import ru.itmo.calculator.generated.grpc.InstructionDto;
+import ru.itmo.calculator.generated.grpc.Operation;
+import ru.itmo.calculator.generated.grpc.OperandDto;
+import ru.itmo.calculator.generated.grpc.PrintInstructionDto;
+import ru.itmo.calculator.openapi.model.ExecuteProgramRequestDto;
+import ru.itmo.calculator.openapi.model.InstructionTypeDto;
+import ru.itmo.calculator.openapi.model.OperationDto;
+
+/**
+ * Builds transport requests from domain programs, the reverse of what the converters under benchmark do.
+ */
+public final class ProgramRequests {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private ProgramRequests() {
+    }
+
+    public static ExecuteProgramRequest toMessageRequest(List<Instruction> program) {
+        ExecuteProgramRequest.Builder request = ExecuteProgramRequest.newBuilder();
+        for (Instruction instruction : program) {
+            if (instruction instanceof CalcInstruction calc) {
+                request.addInstructions(InstructionDto.newBuilder().setCalc(CalcInstructionDto.newBuilder()
+                        .setOp(switch (calc.op()) {
+                            case ADD -> Operation.OPERATION_ADD;
+                            case SUBTRACT -> Operation.OPERATION_SUBTRACT;
+                            case MULTIPLY -> Operation.OPERATION_MULTIPLY;
+                        })
+                        .setVar(calc.var())
+                        .setLeft(toMessageOperand(calc.left()))
+                        .setRight(toMessageOperand(calc.right()))));
+            } else if (instruction instanceof PrintInstruction print) {
+                request.addInstructions(InstructionDto.newBuilder()
+                        .setPrint(PrintInstructionDto.newBuilder().setVar(print.var())));
+            }
+        }
+        return request.build();
+    }
+
+    public static ExecuteProgramRequestDto toApiRequest(List<Instruction> program) {
+        ExecuteProgramRequestDto request = new ExecuteProgramRequestDto();
+        for (Instruction instruction : program) {
+            if (instruction instanceof CalcInstruction calc) {
+                request.addInstructionsItem(new ru.itmo.calculator.openapi.model.CalcInstructionDto()
+                        .type(InstructionTypeDto.CALC)
+                        .op(OperationDto.fromValue(calc.op().symbol()))
+                        .var(calc.var())
+                        .left(toApiOperand(calc.left()))
+                        .right(toApiOperand(calc.right())));
+            } else if (instruction instanceof PrintInstruction print) {
+                request.addInstructionsItem(new ru.itmo.calculator.openapi.model.PrintInstructionDto()
+                        .type(InstructionTypeDto.PRINT)
+                        .var(print.var()));
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Encodes the program as the body of {@code POST /api/v1/executions}; the OpenAPI model has no serializer for
+     * operands, so the JSON is written directly.
+     */
+    public static byte[] toJson(List<Instruction> program) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(program.size() * 64);
+        try (JsonGenerator json = JSON.createGenerator(body)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("instructions");
+            for (Instruction instruction : program) {
+                json.writeStartObject();
+                if (instruction instanceof CalcInstruction calc) {
+                    json.writeStringField("type", "calc");
+                    json.writeStringField("op", calc.op().symbol());
+                    json.writeStringField("var", calc.var());
+                    writeOperand(json, "left", calc.left());
+                    writeOperand(json, "right", calc.right());
+                } else if (instruction instanceof PrintInstruction print) {
+                    json.writeStringField("type", "print");
+                    json.writeStringField("var", print.var());
+                }
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return body.toByteArray();
+    }
+
+    private static void writeOperand(JsonGenerator json, String field, Operand operand) throws IOException {
+        if (operand instanceof LiteralOperand literal) {
+            json.writeNumberField(field, literal.value());
+        } else {
+            json.writeStringField(field, ((VariableOperand) operand).name());
+        }
+    }
+
+    private static OperandDto toMessageOperand(Operand operand) {
+        return operand instanceof LiteralOperand literal
+                ? OperandDto.newBuilder().setLiteral(literal.value()).build()
+                : OperandDto.newBuilder().setVariable(((VariableOperand) operand).name()).build();
+    }
+
+    private static ru.itmo.calculator.openapi.model.OperandDto toApiOperand(Operand operand) {
+        return operand instanceof LiteralOperand literal
+                ? new LiteralOperandValue(literal.value())
+                : new VariableOperandValue(((VariableOperand) operand).name());
+    }
+}
@@ -0,0 +1,175 @@
+package ru.itmo.calculator.workload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import ru.itmo.calculator.dto.ArithmeticOp;
+import ru.itmo.calculator.dto.CalcInstruction;
+import ru.itmo.calculator.dto.Instruction;
+import ru.itmo.calculator.dto.LiteralOperand;
+import ru.itmo.calculator.dto.Operand;
+import ru.itmo.calculator.dto.PrintInstruction;
+import ru.itmo.calculator.dto.VariableOperand;
+
+/**
+ * Generated program shapes shared by the benchmarks and the load test. Every shape produces exactly the requested
+ * number of instructions and prints enough variables for the whole program to stay reachable after the compiler
+ * prunes dead code. Literals are nonzero, so lazy multiplication never cuts a shape short.
+ */
+public enum ProgramShape {
+
+    /** Each variable depends on the previous one: no parallelism at all. */
+    CHAIN {
+        @Override
+        void generate(Program program) {
+            while (program.remaining() > 1) {
+                Operand previous = program.variables() == 0 ? literal(1) : program.last();
+                program.calc(OPS[program.variables() % OPS.length], previous, literal(program.variables() + 2));
+            }
+            program.printLast();
+        }
+    },
+
+    /** One root read by a wide layer of independent operations, reduced pairwise back into a single print. */
+    FAN_OUT {
+        @Override
+        void generate(Program program) {
+            Operand root = program.calc(ArithmeticOp.ADD, literal(1), literal(2));
+            List<Operand> layer = new ArrayList<>();
+            // a layer of n operations needs n - 1 more to reduce it and one print
+            for (int width = program.remaining() / 2; layer.size() < width; ) {
+                layer.add(program.calc(ArithmeticOp.MULTIPLY, root, literal(layer.size() + 2)));
+            }
+            while (layer.size() > 1 && program.remaining() > 1) {
+                List<Operand> next = new ArrayList<>((layer.size() + 1) / 2);
+                for (int i = 0; i + 1 < layer.size(); i += 2) {
+                    next.add(program.calc(ArithmeticOp.SUBTRACT, layer.get(i), layer.get(i + 1)));
+                }
+                if (layer.size() % 2 == 1) {
+                    next.add(layer.getLast());
+                }
+                layer = next;
+            }
+            program.fillWithPrints();
+        }
+    },
+
+    /** A chain of diamonds: every step forks into two operations that join again before the next step. */
+    DIAMONDS {
+        @Override
+        void generate(Program program) {
+            Operand top = program.calc(ArithmeticOp.ADD, literal(1), literal(2));
+            while (program.remaining() > 3) {
+                Operand left = program.calc(ArithmeticOp.MULTIPLY, top, literal(3));
+                Operand right = program.calc(ArithmeticOp.SUBTRACT, top, literal(-5));
+                top = program.calc(ArithmeticOp.ADD, left, right);
+            }
+            program.fillWithPrints();
+        }
+    },
+
+    /**
+     * Random operations over random earlier variables within a sliding window, with every tenth variable printed;
+     * seeded, so every run and every size prefix is the same program.
+     */
+    RANDOM_DAG {
+        private static final int WINDOW = 64;
+        private static final int PRINT_EVERY = 10;
+
+        @Override
+        void generate(Program program) {
+            Random random = new Random(42);
+            while (program.remaining() > 1) {
+                program.calc(OPS[random.nextInt(OPS.length)], pick(program, random), pick(program, random));
+                if (program.variables() % PRINT_EVERY == 0 && program.remaining() > 1) {
+                    program.printLast();
+                }
+            }
+            program.printLast();
+        }
+
+        private Operand pick(Program program, Random random) {
+            int variables = program.variables();
+            if (variables == 0 || random.nextInt(4) == 0) {
+                return literal(random.nextInt(1, 1000));
+            }
+            return program.variable(variables - 1 - random.nextInt(Math.min(variables, WINDOW)));
+        }
+    },
+
+    /** Every other instruction is a print, so result ordering and print listeners dominate. */
+    PRINT_HEAVY {
+        @Override
+        void generate(Program program) {
+            while (program.remaining() > 1) {
+                Operand previous = program.variables() == 0 ? literal(1) : program.last();
+                program.calc(ArithmeticOp.ADD, previous, literal(program.variables() + 1));
+                program.printLast();
+            }
+            program.fillWithPrints();
+        }
+    };
+
+    private static final ArithmeticOp[] OPS = ArithmeticOp.values();
+
+    public List<Instruction> generate(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("A program needs at least one instruction");
+        }
+        Program program = new Program(size);
+        generate(program);
+        return program.instructions;
+    }
+
+    abstract void generate(Program program);
+
+    private static Operand literal(long value) {
+        return new LiteralOperand(value);
+    }
+
+    static final class Program {
+        private final int size;
+        private final List<Instruction> instructions;
+        private int variables;
+
+        private Program(int size) {
+            this.size = size;
+            this.instructions = new ArrayList<>(size);
+        }
+
+        int remaining() {
+            return size - instructions.size();
+        }
+
+        int variables() {
+            return variables;
+        }
+
+        Operand variable(int index) {
+            return new VariableOperand("v" + index);
+        }
+
+        Operand last() {
+            return variable(variables - 1);
+        }
+
+        Operand calc(ArithmeticOp op, Operand left, Operand right) {
+            instructions.add(new CalcInstruction("v" + variables, op, left, right));
+            return variable(variables++);
+        }
+
+        void printLast() {
+            if (variables == 0) {
+                calc(ArithmeticOp.ADD, literal(0), literal(0));
+            } else {
+                instructions.add(new PrintInstruction("v" + (variables - 1)));
+            }
+        }
+
+        void fillWithPrints() {
+            while (remaining() > 0) {
+                printLast();
+            }
+        }
+    }
+}